@@ -0,0 +1,7 @@
+package com.lab41.archive;
+
+import java.util.Map;
+
+// What a set of archived posts adds to user_stats: posts and likes received per author, comments per commenter.
+public record ArchiveCounts(Map<Long, Long> posts, Map<Long, Long> likesReceived, Map<Long, Long> comments) {
+}
@@ -0,0 +1,6 @@
+package com.lab41.archive;
+
+import java.time.LocalDateTime;
+
+public record ArchivedComment(long commentId, long userId, String content, LocalDateTime createdAt) {
+}
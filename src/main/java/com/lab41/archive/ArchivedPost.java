@@ -0,0 +1,11 @@
+package com.lab41.archive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A post as stored in the cold archive: its likes survive only as a count.
+ */
+public record ArchivedPost(long postId, long userId, String content, LocalDateTime createdAt, long likeCount,
+                           List<ArchivedComment> comments) {
+}
@@ -0,0 +1,144 @@
+package com.lab41.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The cold tier: posts moved out of the database into {@link PostSegment} files under
+ * {@code lab41.archive.dir}. Segments are never modified; if a post ends up in two of them (an
+ * archive run that wrote its segment but failed to commit the delete) the newest segment wins.
+ */
+@Component
+public class PostArchive implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PostArchive.class);
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final List<PostSegment> segments = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    @Autowired
+    public PostArchive(@Value("${lab41.archive.dir:data/archive}") String directory) throws IOException {
+        this.directory = Path.of(directory);
+        if (Files.isDirectory(this.directory)) {
+            try (Stream<Path> files = Files.list(this.directory)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                    segments.add(0, PostSegment.open(file));
+                    sequence = Math.max(sequence, sequenceOf(file));
+                }
+            }
+            log.info("Opened {} archive segments in {}", segments.size(), this.directory);
+        }
+    }
+
+    public Optional<ArchivedPost> find(Long postId) {
+        for (PostSegment segment : segments) {
+            Optional<ArchivedPost> post = segment.find(postId);
+            if (post.isPresent()) {
+                return post;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Newest first, like the hot-table queries they are appended to.
+    public List<ArchivedPost> findByUser(Long userId) {
+        return collect(segment -> segment.findByUser(userId));
+    }
+
+    public List<ArchivedPost> findBetween(LocalDateTime from, LocalDateTime to) {
+        return collect(segment -> segment.findBetween(from, to));
+    }
+
+    public synchronized void append(List<ArchivedPost> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(String.format("posts-%012d%s", ++sequence, SUFFIX));
+            PostSegment.write(file, posts);
+            segments.add(0, PostSegment.open(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment to " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes the segments whose posts are all older than {@code cutoff}, handing the counts of each
+     * one to {@code beforeDrop} first.
+     *
+     * @return number of posts dropped
+     */
+    public synchronized long dropOlderThan(LocalDateTime cutoff, Consumer<ArchiveCounts> beforeDrop) {
+        long dropped = 0;
+        for (PostSegment segment : segments) {
+            LocalDateTime newest = segment.newestCreatedAt();
+            if (newest == null || newest.isBefore(cutoff)) {
+                beforeDrop.accept(segment.counts());
+                segments.remove(segment);
+                dropped += segment.size();
+                try {
+                    segment.close();
+                    Files.deleteIfExists(segment.file());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not delete archive segment " + segment.file(), e);
+                }
+            }
+        }
+        return dropped;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PostSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private List<ArchivedPost> collect(Function<PostSegment, List<ArchivedPost>> query) {
+        Set<Long> seen = new HashSet<>();
+        List<ArchivedPost> posts = new ArrayList<>();
+        for (PostSegment segment : segments) {
+            for (ArchivedPost post : query.apply(segment)) {
+                if (seen.add(post.postId())) {
+                    posts.add(post);
+                }
+            }
+        }
+        posts.sort(Comparator.comparing(ArchivedPost::createdAt).thenComparing(ArchivedPost::postId).reversed());
+        return posts;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.lab41.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongPredicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file holding a batch of posts column by column. Each column is deflated in
+ * blocks of {@value #BLOCK_ROWS} rows (comment columns per the comments of those rows), so a read
+ * that returns a few rows inflates only their blocks. The file is memory-mapped; opening it decodes
+ * only the id, author and timestamp columns.
+ * <p>
+ * Layout: magic, version, row count, comment count, rows per block, then offset / compressed length /
+ * raw length of every block of every {@link Column} in declaration order, then the block data.
+ * Version 1 segments have no rows-per-block field and hold each column as a single block.
+ */
+public final class PostSegment implements AutoCloseable {
+    private static final int MAGIC = 0x4C343153;
+    private static final int VERSION = 2;
+    private static final int BLOCK_ROWS = 256;
+
+    private enum Column {
+        POST_ID, USER_ID, CREATED_AT, LIKE_COUNT, CONTENT_LENGTH, CONTENT,
+        COMMENT_ROW, COMMENT_ID, COMMENT_USER_ID, COMMENT_CREATED_AT, COMMENT_LENGTH, COMMENT_CONTENT
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final int rows;
+    private final int blockRows;
+    private final int blocks;
+    private final int[][] offsets;
+    private final int[][] compressedLengths;
+    private final int[][] rawLengths;
+    private final long[] postIds;
+    private final long[] userIds;
+    private final long[] createdAt;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+
+    private PostSegment(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int version = data.getInt(4);
+            if (data.getInt(0) != MAGIC || (version != 1 && version != VERSION)) {
+                throw new IOException("Not a post segment: " + file);
+            }
+            this.rows = data.getInt(8);
+            int table;
+            if (version == 1) {
+                this.blockRows = Math.max(rows, 1);
+                this.blocks = 1;
+                table = 16;
+            } else {
+                this.blockRows = data.getInt(16);
+                this.blocks = (rows + blockRows - 1) / blockRows;
+                table = 20;
+            }
+            int columns = Column.values().length;
+            this.offsets = new int[columns][blocks];
+            this.compressedLengths = new int[columns][blocks];
+            this.rawLengths = new int[columns][blocks];
+            for (int column = 0; column < columns; column++) {
+                for (int block = 0; block < blocks; block++) {
+                    int at = table + (column * blocks + block) * 3 * Integer.BYTES;
+                    offsets[column][block] = data.getInt(at);
+                    compressedLengths[column][block] = data.getInt(at + 4);
+                    rawLengths[column][block] = data.getInt(at + 8);
+                }
+            }
+            this.postIds = allLongs(Column.POST_ID);
+            this.userIds = allLongs(Column.USER_ID);
+            this.createdAt = allLongs(Column.CREATED_AT);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long micros : createdAt) {
+            min = Math.min(min, micros);
+            max = Math.max(max, micros);
+        }
+        this.minCreatedAt = min;
+        this.maxCreatedAt = max;
+    }
+
+    public static PostSegment open(Path file) throws IOException {
+        return new PostSegment(file);
+    }
+
+    /**
+     * Writes {@code posts} to {@code file} through a temporary file that is synced and then moved
+     * into place, so a reader never sees a half-written segment.
+     */
+    public static void write(Path file, List<ArchivedPost> posts) throws IOException {
+        int rows = posts.size();
+        int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        int columns = Column.values().length;
+        int commentCount = posts.stream().mapToInt(post -> post.comments().size()).sum();
+        byte[][][] compressed = new byte[columns][blocks][];
+        int[][] rawLengths = new int[columns][blocks];
+        for (int block = 0; block < blocks; block++) {
+            int first = block * BLOCK_ROWS;
+            byte[][] raw = encode(posts.subList(first, Math.min(rows, first + BLOCK_ROWS)), first);
+            for (int column = 0; column < columns; column++) {
+                compressed[column][block] = deflate(raw[column]);
+                rawLengths[column][block] = raw[column].length;
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(5 * Integer.BYTES + columns * blocks * 3 * Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(commentCount).putInt(BLOCK_ROWS);
+        int offset = header.capacity();
+        for (int column = 0; column < columns; column++) {
+            for (int block = 0; block < blocks; block++) {
+                header.putInt(offset).putInt(compressed[column][block].length).putInt(rawLengths[column][block]);
+                offset += compressed[column][block].length;
+            }
+        }
+        header.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header);
+            for (byte[][] column : compressed) {
+                for (byte[] block : column) {
+                    writeFully(out, ByteBuffer.wrap(block));
+                }
+            }
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Raw column data of one block; comment rows stay numbered within the whole segment.
+    private static byte[][] encode(List<ArchivedPost> posts, int firstRow) throws IOException {
+        int rows = posts.size();
+        int commentCount = posts.stream().mapToInt(post -> post.comments().size()).sum();
+        ByteBuffer[] raw = {
+                ByteBuffer.allocate(rows * Long.BYTES), ByteBuffer.allocate(rows * Long.BYTES),
+                ByteBuffer.allocate(rows * Long.BYTES), ByteBuffer.allocate(rows * Long.BYTES),
+                ByteBuffer.allocate(rows * Integer.BYTES), null,
+                ByteBuffer.allocate(commentCount * Integer.BYTES), ByteBuffer.allocate(commentCount * Long.BYTES),
+                ByteBuffer.allocate(commentCount * Long.BYTES), ByteBuffer.allocate(commentCount * Long.BYTES),
+                ByteBuffer.allocate(commentCount * Integer.BYTES), null
+        };
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ByteArrayOutputStream commentContent = new ByteArrayOutputStream();
+        for (int row = 0; row < rows; row++) {
+            ArchivedPost post = posts.get(row);
+            raw[Column.POST_ID.ordinal()].putLong(post.postId());
+            raw[Column.USER_ID.ordinal()].putLong(post.userId());
+            raw[Column.CREATED_AT.ordinal()].putLong(toMicros(post.createdAt()));
+            raw[Column.LIKE_COUNT.ordinal()].putLong(post.likeCount());
+            byte[] text = post.content().getBytes(StandardCharsets.UTF_8);
+            raw[Column.CONTENT_LENGTH.ordinal()].putInt(text.length);
+            content.write(text);
+            for (ArchivedComment comment : post.comments()) {
+                raw[Column.COMMENT_ROW.ordinal()].putInt(firstRow + row);
+                raw[Column.COMMENT_ID.ordinal()].putLong(comment.commentId());
+                raw[Column.COMMENT_USER_ID.ordinal()].putLong(comment.userId());
+                raw[Column.COMMENT_CREATED_AT.ordinal()].putLong(toMicros(comment.createdAt()));
+                byte[] commentText = comment.content().getBytes(StandardCharsets.UTF_8);
+                raw[Column.COMMENT_LENGTH.ordinal()].putInt(commentText.length);
+                commentContent.write(commentText);
+            }
+        }
+        raw[Column.CONTENT.ordinal()] = ByteBuffer.wrap(content.toByteArray());
+        raw[Column.COMMENT_CONTENT.ordinal()] = ByteBuffer.wrap(commentContent.toByteArray());
+        byte[][] arrays = new byte[raw.length][];
+        for (int i = 0; i < raw.length; i++) {
+            arrays[i] = raw[i].array();
+        }
+        return arrays;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public LocalDateTime newestCreatedAt() {
+        return rows == 0 ? null : fromMicros(maxCreatedAt);
+    }
+
+    // Reads only the author, like count and comment author columns.
+    public ArchiveCounts counts() {
+        Map<Long, Long> posts = new HashMap<>();
+        Map<Long, Long> likesReceived = new HashMap<>();
+        Map<Long, Long> commentCounts = new HashMap<>();
+        long[] likeCounts = allLongs(Column.LIKE_COUNT);
+        for (int row = 0; row < rows; row++) {
+            posts.merge(userIds[row], 1L, Long::sum);
+            likesReceived.merge(userIds[row], likeCounts[row], Long::sum);
+        }
+        for (long commentUserId : allLongs(Column.COMMENT_USER_ID)) {
+            commentCounts.merge(commentUserId, 1L, Long::sum);
+        }
+        return new ArchiveCounts(posts, likesReceived, commentCounts);
+    }
+
+    public Optional<ArchivedPost> find(long postId) {
+        List<ArchivedPost> found = materialize(id -> id == postId, postIds);
+        return found.stream().findFirst();
+    }
+
+    public List<ArchivedPost> findByUser(long userId) {
+        return materialize(id -> id == userId, userIds);
+    }
+
+    public List<ArchivedPost> findBetween(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        if (rows == 0 || toMicros < minCreatedAt || fromMicros > maxCreatedAt) {
+            return List.of();
+        }
+        return materialize(micros -> micros >= fromMicros && micros <= toMicros, createdAt);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<ArchivedPost> materialize(LongPredicate matches, long[] column) {
+        List<ArchivedPost> posts = new ArrayList<>();
+        for (int block = 0; block < blocks; block++) {
+            int first = block * blockRows;
+            List<Integer> hits = new ArrayList<>();
+            for (int row = first; row < Math.min(rows, first + blockRows); row++) {
+                if (matches.test(column[row])) {
+                    hits.add(row);
+                }
+            }
+            if (!hits.isEmpty()) {
+                materialize(block, hits, posts);
+            }
+        }
+        posts.sort(Comparator.comparing(ArchivedPost::createdAt).thenComparing(ArchivedPost::postId).reversed());
+        return posts;
+    }
+
+    private void materialize(int block, List<Integer> hits, List<ArchivedPost> posts) {
+        int first = block * blockRows;
+        long[] likeCounts = longs(Column.LIKE_COUNT, block);
+        int[] contentLengths = ints(Column.CONTENT_LENGTH, block);
+        byte[] content = inflate(Column.CONTENT, block).array();
+        int[] contentOffsets = prefixSums(contentLengths);
+        Map<Integer, List<ArchivedComment>> commentsByRow = comments(block, hits);
+        for (int row : hits) {
+            int i = row - first;
+            posts.add(new ArchivedPost(postIds[row], userIds[row],
+                    new String(content, contentOffsets[i], contentLengths[i], StandardCharsets.UTF_8),
+                    fromMicros(createdAt[row]), likeCounts[i], commentsByRow.getOrDefault(row, List.of())));
+        }
+    }
+
+    private Map<Integer, List<ArchivedComment>> comments(int block, List<Integer> hits) {
+        Map<Integer, List<ArchivedComment>> byRow = new HashMap<>();
+        if (rawLengths[Column.COMMENT_ROW.ordinal()][block] == 0) {
+            return byRow;
+        }
+        int[] commentRows = ints(Column.COMMENT_ROW, block);
+        long[] commentIds = longs(Column.COMMENT_ID, block);
+        long[] commentUserIds = longs(Column.COMMENT_USER_ID, block);
+        long[] commentCreatedAt = longs(Column.COMMENT_CREATED_AT, block);
+        int[] lengths = ints(Column.COMMENT_LENGTH, block);
+        int[] textOffsets = prefixSums(lengths);
+        byte[] text = inflate(Column.COMMENT_CONTENT, block).array();
+        for (int row : hits) {
+            byRow.put(row, new ArrayList<>());
+        }
+        for (int i = 0; i < commentRows.length; i++) {
+            List<ArchivedComment> rowComments = byRow.get(commentRows[i]);
+            if (rowComments != null) {
+                rowComments.add(new ArchivedComment(commentIds[i], commentUserIds[i],
+                        new String(text, textOffsets[i], lengths[i], StandardCharsets.UTF_8),
+                        fromMicros(commentCreatedAt[i])));
+            }
+        }
+        return byRow;
+    }
+
+    private long[] allLongs(Column column) {
+        int count = 0;
+        for (int block = 0; block < blocks; block++) {
+            count += rawLengths[column.ordinal()][block] / Long.BYTES;
+        }
+        long[] values = new long[count];
+        int at = 0;
+        for (int block = 0; block < blocks; block++) {
+            long[] part = longs(column, block);
+            System.arraycopy(part, 0, values, at, part.length);
+            at += part.length;
+        }
+        return values;
+    }
+
+    private long[] longs(Column column, int block) {
+        long[] values = new long[rawLengths[column.ordinal()][block] / Long.BYTES];
+        inflate(column, block).asLongBuffer().get(values);
+        return values;
+    }
+
+    private int[] ints(Column column, int block) {
+        int[] values = new int[rawLengths[column.ordinal()][block] / Integer.BYTES];
+        inflate(column, block).asIntBuffer().get(values);
+        return values;
+    }
+
+    private ByteBuffer inflate(Column column, int block) {
+        int i = column.ordinal();
+        ByteBuffer out = ByteBuffer.allocate(rawLengths[i][block]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data.slice(offsets[i][block], compressedLengths[i][block]));
+            while (out.hasRemaining()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.finished())) {
+                    throw new UncheckedIOException(new IOException("Truncated column " + column + " in " + file));
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt column " + column + " in " + file, e));
+        } finally {
+            inflater.end();
+        }
+        return out.flip();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static int[] prefixSums(int[] lengths) {
+        int[] offsets = new int[lengths.length];
+        for (int i = 1; i < lengths.length; i++) {
+            offsets[i] = offsets[i - 1] + lengths[i - 1];
+        }
+        return offsets;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,35 @@
+package com.lab41.compression;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Stores long text attributes through {@link ContentCodec}. Queries filtering on a converted column
+ * only see the plain prefix of compressed values, so a LIKE search has to fetch the encoded rows
+ * (see {@link ContentCodec#MARKER}) and match their decoded text as well.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+    private final ContentCodec codec;
+
+    // Used when Hibernate instantiates the converter itself: reads compressed values, writes plain text.
+    public CompressedTextConverter() {
+        this(new ContentCodec(false, Integer.MAX_VALUE, ContentDictionary.bundled()));
+    }
+
+    @Autowired
+    public CompressedTextConverter(ContentCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return codec.encode(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return codec.decode(dbData);
+    }
+}
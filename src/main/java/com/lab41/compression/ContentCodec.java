@@ -0,0 +1,141 @@
+package com.lab41.compression;
+
+import com.lab41.dto.PostSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses long post and comment texts for storage. An encoded value is a plain-text prefix of
+ * {@link #PREFIX_LENGTH} chars, a marker, then the whole text deflated against a preset dictionary
+ * and Base64-encoded. The prefix keeps {@code substring(content, 1, n)} snippets in queries working.
+ * <p>
+ * The zlib stream records the checksum of the dictionary it used, so values written with an older
+ * dictionary stay readable as long as that dictionary is registered. Decoding works whether or not
+ * compression is enabled; texts containing the marker character are always encoded so the marker is
+ * unambiguous. The marker is U+FFFC rather than a control character, which PostgreSQL TEXT rejects.
+ */
+@Component
+public class ContentCodec {
+    public static final int PREFIX_LENGTH = PostSummary.SNIPPET_LENGTH;
+    public static final String MARKER = "\uFFFCz";
+    private static final char MARKER_CHAR = MARKER.charAt(0);
+
+    private final boolean enabled;
+    private final int threshold;
+    private final byte[] dictionary;
+    private final Map<Long, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ContentCodec(@Value("${lab41.content-compression.enabled:false}") boolean enabled,
+                        @Value("${lab41.content-compression.threshold:2048}") int threshold,
+                        @Value("${lab41.content-compression.dictionary:classpath:content-dictionary.txt}") Resource dictionary)
+            throws IOException {
+        this(enabled, threshold, dictionary.exists() ? dictionary.getContentAsByteArray() : new byte[0]);
+    }
+
+    public ContentCodec(boolean enabled, int threshold, byte[] dictionary) {
+        this.enabled = enabled;
+        this.threshold = Math.max(threshold, PREFIX_LENGTH);
+        this.dictionary = dictionary;
+        register(dictionary);
+    }
+
+    // Registers a retired dictionary so values written with it can still be decoded.
+    public void register(byte[] dictionary) {
+        Adler32 checksum = new Adler32();
+        checksum.update(dictionary);
+        dictionaries.put(checksum.getValue(), dictionary);
+    }
+
+    public String encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        boolean hasMarker = text.indexOf(MARKER_CHAR) >= 0;
+        if (!hasMarker && (!enabled || text.length() < threshold)) {
+            return text;
+        }
+        int prefixLength = Math.min(PREFIX_LENGTH, text.length());
+        if (prefixLength > 0 && Character.isHighSurrogate(text.charAt(prefixLength - 1))) {
+            prefixLength--;
+        }
+        String prefix = text.substring(0, prefixLength).replace(MARKER_CHAR, ' ');
+        return prefix + MARKER + Base64.getEncoder().encodeToString(deflate(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public String decode(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        int marker = stored.indexOf(MARKER);
+        if (marker < 0) {
+            return stored;
+        }
+        byte[] compressed = Base64.getDecoder().decode(stored.substring(marker + MARKER.length()));
+        return new String(inflate(compressed), StandardCharsets.UTF_8);
+    }
+
+    public static boolean isEncoded(String stored) {
+        return stored != null && stored.contains(MARKER);
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            if (dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && inflater.needsDictionary()) {
+                    byte[] preset = dictionaries.get(inflater.getAdler() & 0xFFFFFFFFL);
+                    if (preset == null) {
+                        throw new IllegalStateException("Unknown content dictionary " + Integer.toHexString(inflater.getAdler()));
+                    }
+                    inflater.setDictionary(preset);
+                } else if (n == 0 && inflater.needsInput()) {
+                    throw new UncheckedIOException(new IOException("Truncated compressed content"));
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt compressed content", e));
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.lab41.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds preset dictionaries for {@link ContentCodec}. Deflate can only refer back to bytes it has
+ * already seen, which short texts do not have; priming it with words that are frequent across the
+ * corpus gives even a short post something to match against.
+ */
+public final class ContentDictionary {
+    // Deflate's window is 32 KiB, but matches far back in the dictionary cost more than they save.
+    public static final int DEFAULT_SIZE = 4 * 1024;
+
+    private static final String BUNDLED = "/content-dictionary.txt";
+
+    private ContentDictionary() {
+    }
+
+    // The dictionary shipped on the classpath, or an empty one if it is missing.
+    public static byte[] bundled() {
+        try (InputStream in = ContentDictionary.class.getResourceAsStream(BUNDLED)) {
+            return in == null ? new byte[0] : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Picks the words that would save the most bytes across {@code samples} (frequency times length)
+     * and lays them out least valuable first, so the best ones sit closest to the compressed text.
+     */
+    public static byte[] train(List<String> samples, int maxBytes) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String sample : samples) {
+            for (String word : sample.split("\\s+")) {
+                if (word.length() > 2) {
+                    frequencies.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = frequencies.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Integer> entry) ->
+                        (long) entry.getValue() * entry.getKey().length()).reversed())
+                .toList();
+
+        StringBuilder dictionary = new StringBuilder();
+        int bytes = 0;
+        for (Map.Entry<String, Integer> entry : ranked) {
+            String word = entry.getKey() + " ";
+            bytes += word.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > maxBytes) {
+                break;
+            }
+            dictionary.insert(0, word);
+        }
+        return dictionary.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+package com.lab41.config;
+
+import com.lab41.monitoring.ConnectionPoolMetrics;
+import com.lab41.monitoring.SqlStatementRecorder;
+import com.lab41.monitoring.tracing.Tracer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "lab41.sql.enabled", havingValue = "true", matchIfMissing = true)
+    public SqlStatementRecorder sqlStatementRecorder(@Value("${lab41.sql.slow-threshold:PT0.1S}") Duration slowThreshold,
+                                                     @Value("${lab41.sql.max-parameter-length:100}") int maxParameterLength,
+                                                     @Value("${lab41.sql.report-top:10}") int reportTop,
+                                                     Tracer tracer) {
+        return new SqlStatementRecorder(slowThreshold, maxParameterLength, reportTop, tracer);
+    }
+
+    // Static so the post-processor does not force early initialization of this configuration.
+    // The tracker has to be installed before the pool starts, i.e. before the first getConnection().
+    // Only the application-facing "dataSource" is wrapped for SQL recording, so with a read replica
+    // each statement is recorded once, whichever pool it is routed to.
+    @Bean
+    public static BeanPostProcessor hikariMetricsInstaller(ObjectProvider<ConnectionPoolMetrics> metrics,
+                                                           ObjectProvider<SqlStatementRecorder> sqlRecorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null) {
+                    dataSource.setMetricsTrackerFactory(metrics.getObject());
+                }
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    SqlStatementRecorder recorder = sqlRecorder.getIfAvailable();
+                    if (recorder != null) {
+                        return recorder.wrap(dataSource);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
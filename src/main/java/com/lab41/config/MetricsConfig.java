@@ -0,0 +1,40 @@
+package com.lab41.config;
+
+import com.lab41.monitoring.MethodMetrics;
+import com.lab41.monitoring.MethodMetricsAspect;
+import com.lab41.monitoring.PrometheusEndpoint;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "lab41.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    @Bean
+    public PrometheusMeterRegistry prometheusMeterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    @Bean
+    public MethodMetrics methodMetrics(PrometheusMeterRegistry registry,
+                                       @Value("${lab41.metrics.report-top:10}") int reportTop) {
+        return new MethodMetrics(registry, reportTop);
+    }
+
+    @Bean
+    public MethodMetricsAspect methodMetricsAspect(MethodMetrics methodMetrics) {
+        return new MethodMetricsAspect(methodMetrics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "lab41.metrics.endpoint.enabled", havingValue = "true")
+    public PrometheusEndpoint prometheusEndpoint(PrometheusMeterRegistry registry,
+                                                 @Value("${lab41.metrics.endpoint.host:127.0.0.1}") String host,
+                                                 @Value("${lab41.metrics.endpoint.port:9464}") int port) {
+        return new PrometheusEndpoint(registry, host, port);
+    }
+}
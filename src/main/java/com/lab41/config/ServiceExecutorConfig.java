@@ -0,0 +1,51 @@
+package com.lab41.config;
+
+import com.lab41.service.ServiceExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ServiceExecutorConfig {
+
+    @Bean
+    public ServiceExecutor serviceExecutor(@Value("${lab41.executor.enabled:true}") boolean enabled,
+                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                           @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                           @Value("${lab41.executor.max-concurrency:0}") int maxConcurrency) {
+        if (!enabled) {
+            return ServiceExecutor.direct();
+        }
+        // Leave half of the pool to the request threads themselves unless told otherwise.
+        int permits = maxConcurrency > 0 ? maxConcurrency : Math.max(1, poolSize / 2);
+        ExecutorService executor = virtualThreads ? virtualThreadExecutor() : null;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(permits, daemonThreads("service-exec-"));
+        }
+        return new ServiceExecutor(executor, permits);
+    }
+
+    // Virtual threads need Java 21; the project still compiles for 17, so look the factory up at
+    // runtime and fall back to a platform thread pool when it is not there.
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
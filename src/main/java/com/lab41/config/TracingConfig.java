@@ -0,0 +1,44 @@
+package com.lab41.config;
+
+import com.lab41.monitoring.TracingAspect;
+import com.lab41.monitoring.tracing.BatchSpanProcessor;
+import com.lab41.monitoring.tracing.OtlpJsonFileExporter;
+import com.lab41.monitoring.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public Tracer tracer(@Value("${lab41.tracing.enabled:false}") boolean enabled,
+                         @Value("${lab41.tracing.sample-ratio:0.01}") double sampleRatio,
+                         @Value("${lab41.tracing.max-traces-per-second:100}") int maxTracesPerSecond,
+                         @Value("${lab41.tracing.file:${java.io.tmpdir}/lab41-spans.jsonl}") Path file,
+                         @Value("${lab41.tracing.max-file-size:64MB}") DataSize maxFileSize,
+                         @Value("${lab41.tracing.queue-size:2048}") int queueSize,
+                         @Value("${lab41.tracing.batch-size:512}") int batchSize,
+                         @Value("${lab41.tracing.export-interval:PT5S}") Duration exportInterval,
+                         @Value("${spring.application.name:lab41}") String serviceName) {
+        if (!enabled) {
+            return Tracer.disabled();
+        }
+        BatchSpanProcessor processor = new BatchSpanProcessor(new OtlpJsonFileExporter(file, serviceName, maxFileSize.toBytes()),
+                queueSize, batchSize, exportInterval);
+        return new Tracer(sampleRatio, maxTracesPerSecond, processor);
+    }
+
+    // Registered apart from the metrics aspect so traces still get service and repository spans
+    // when lab41.metrics.enabled is false.
+    @Bean
+    @ConditionalOnProperty(name = "lab41.tracing.enabled", havingValue = "true")
+    public TracingAspect tracingAspect(Tracer tracer) {
+        return new TracingAspect(tracer);
+    }
+}
@@ -0,0 +1,48 @@
+package com.lab41.dto;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A user as list rows show them: id and name only. Inside a transaction {@link #of} hands out one
+ * instance per user id, so a page of 500 rows by 20 authors holds 20 refs and 20 username strings
+ * rather than 500 of each. Outside a transaction every call returns a new ref.
+ */
+public record AuthorRef(Long id, String username) {
+    private static final Object CACHE_KEY = new Object();
+
+    public static AuthorRef of(Long id, String username) {
+        Map<Long, AuthorRef> cache = transactionCache();
+        if (cache == null) {
+            return new AuthorRef(id, username);
+        }
+        AuthorRef ref = cache.get(id);
+        if (ref == null || !ref.username().equals(username)) {
+            ref = new AuthorRef(id, username);
+            cache.put(id, ref);
+        }
+        return ref;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, AuthorRef> transactionCache() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<Long, AuthorRef> cache = (Map<Long, AuthorRef>) TransactionSynchronizationManager.getResource(CACHE_KEY);
+        if (cache == null) {
+            cache = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(CACHE_KEY, cache);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CACHE_KEY);
+                }
+            });
+        }
+        return cache;
+    }
+}
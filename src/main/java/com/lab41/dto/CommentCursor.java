@@ -0,0 +1,14 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a post's comment thread. Comments are ordered by {@code (createdAt, commentId)}, so
+ * the pair is unique and a page can be located by index seek instead of an offset scan.
+ */
+public record CommentCursor(LocalDateTime createdAt, Long commentId) {
+
+    public static CommentCursor of(CommentView comment) {
+        return new CommentCursor(comment.createdAt(), comment.id());
+    }
+}
@@ -0,0 +1,10 @@
+package com.lab41.dto;
+
+import java.util.List;
+
+/**
+ * Slice of a comment thread in chronological order. {@code previous} and {@code next} are the
+ * cursors to pass back for the adjacent pages, or {@code null} at either end of the thread.
+ */
+public record CommentPage(List<CommentView> comments, CommentCursor previous, CommentCursor next) {
+}
@@ -0,0 +1,6 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+public record CommentRef(Long postId, Long userId, LocalDateTime createdAt) {
+}
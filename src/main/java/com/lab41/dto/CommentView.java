@@ -0,0 +1,22 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+public record CommentView(Long id,
+                          Long postId,
+                          AuthorRef author,
+                          String content,
+                          LocalDateTime createdAt) {
+
+    public CommentView(Long id, Long postId, Long authorId, String authorName, String content, LocalDateTime createdAt) {
+        this(id, postId, AuthorRef.of(authorId, authorName), content, createdAt);
+    }
+
+    public Long authorId() {
+        return author.id();
+    }
+
+    public String authorName() {
+        return author.username();
+    }
+}
@@ -0,0 +1,7 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+// Position of a soft-deleted user in the purge queue, ordered by (deletedAt, userId).
+public record DeletedUser(Long userId, LocalDateTime deletedAt) {
+}
@@ -0,0 +1,4 @@
+package com.lab41.dto;
+
+public record IdCount(Long id, long count) {
+}
@@ -0,0 +1,21 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+public record LikeView(Long id,
+                       Long postId,
+                       AuthorRef user,
+                       LocalDateTime createdAt) {
+
+    public LikeView(Long id, Long postId, Long userId, String username, LocalDateTime createdAt) {
+        this(id, postId, AuthorRef.of(userId, username), createdAt);
+    }
+
+    public Long userId() {
+        return user.id();
+    }
+
+    public String username() {
+        return user.username();
+    }
+}
@@ -0,0 +1,7 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+// A like or comment reduced to the post it landed on and when.
+public record PostActivity(Long postId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,5 @@
+package com.lab41.dto;
+
+// An approximate count for a post; the true count lies in [estimate - error, estimate].
+public record PostEstimate(Long postId, long estimate, long error) {
+}
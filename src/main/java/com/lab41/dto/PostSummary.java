@@ -0,0 +1,31 @@
+package com.lab41.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of a post list: author reduced to an {@link AuthorRef}, content cut to a snippet and the
+ * counters computed in the same query, so no {@code User}, {@code Comment} or {@code Like} is hydrated.
+ */
+public record PostSummary(Long id,
+                          AuthorRef author,
+                          String snippet,
+                          LocalDateTime createdAt,
+                          long likeCount,
+                          long commentCount) {
+
+    public static final int SNIPPET_LENGTH = 200;
+
+    // Target of the JPQL constructor expression.
+    public PostSummary(Long id, Long authorId, String authorName, String snippet, LocalDateTime createdAt,
+                       long likeCount, long commentCount) {
+        this(id, AuthorRef.of(authorId, authorName), snippet, createdAt, likeCount, commentCount);
+    }
+
+    public Long authorId() {
+        return author.id();
+    }
+
+    public String authorName() {
+        return author.username();
+    }
+}
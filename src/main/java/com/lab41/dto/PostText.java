@@ -0,0 +1,4 @@
+package com.lab41.dto;
+
+public record PostText(Long postId, String content) {
+}
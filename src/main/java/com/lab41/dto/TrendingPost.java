@@ -0,0 +1,4 @@
+package com.lab41.dto;
+
+public record TrendingPost(Long postId, double score) {
+}
@@ -1,5 +1,6 @@
 package com.lab41.model;
 
+import com.lab41.compression.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -7,7 +8,7 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_post_created", columnList = "post_id, created_at, comment_id"))
 public class Comment {
 
     @Id
@@ -23,6 +24,7 @@ public class Comment {
     private User user;
 
     @Column(nullable = false, columnDefinition = "TEXT")
+    @Convert(converter = CompressedTextConverter.class)
     private String content;
 
     @Column(nullable = false)
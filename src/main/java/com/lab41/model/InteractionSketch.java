@@ -0,0 +1,64 @@
+package com.lab41.model;
+
+import com.lab41.sketch.HyperLogLog;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// One day of distinct interacting users for a post or an author, as serialized HyperLogLog registers.
+@Entity
+@Table(name = "interaction_sketches", indexes = {
+        @Index(name = "idx_interaction_sketches_day", columnList = "bucket_day")
+})
+@IdClass(InteractionSketchId.class)
+public class InteractionSketch {
+
+    @Id
+    @Column(length = 10)
+    @Enumerated(EnumType.STRING)
+    private SketchScope scope;
+
+    @Id
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Id
+    @Column(name = "bucket_day")
+    private LocalDate day;
+
+    // Dense registers at the largest precision plus the two header bytes.
+    @Column(nullable = false, length = (1 << HyperLogLog.MAX_PRECISION) + 2)
+    private byte[] registers;
+
+    public SketchScope getScope() {
+        return scope;
+    }
+
+    public void setScope(SketchScope scope) {
+        this.scope = scope;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+}
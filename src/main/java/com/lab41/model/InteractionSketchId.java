@@ -0,0 +1,59 @@
+package com.lab41.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class InteractionSketchId implements Serializable {
+    private SketchScope scope;
+    private Long entityId;
+    private LocalDate day;
+
+    public InteractionSketchId() {
+    }
+
+    public InteractionSketchId(SketchScope scope, Long entityId, LocalDate day) {
+        this.scope = scope;
+        this.entityId = entityId;
+        this.day = day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InteractionSketchId)) return false;
+        InteractionSketchId that = (InteractionSketchId) o;
+        return scope == that.scope &&
+                Objects.equals(entityId, that.entityId) &&
+                Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, entityId, day);
+    }
+
+    public SketchScope getScope() {
+        return scope;
+    }
+
+    public void setScope(SketchScope scope) {
+        this.scope = scope;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+}
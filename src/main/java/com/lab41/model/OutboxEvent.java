@@ -0,0 +1,152 @@
+package com.lab41.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox", indexes = {
+        @Index(name = "idx_outbox_pending", columnList = "processed_at, event_id"),
+        @Index(name = "idx_outbox_claim", columnList = "claimed_by")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(nullable = false, length = 40)
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    // Id of the entity the event is about (post, comment, like or user, depending on the type).
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    // Id of the user that caused the event; for likes/comments this is the author, not the post owner.
+    private Long actorId;
+
+    // Secondary id the consumers need to update derived data without reloading the aggregate,
+    // e.g. the post id of a like or comment, or the receiving user of a friend request.
+    private Long targetId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // For LIKE_REMOVED and COMMENT_DELETED, when the removed like or comment was created, so that
+    // time-decayed consumers can take back exactly what it added.
+    @Column(name = "subject_created_at")
+    private LocalDateTime subjectCreatedAt;
+
+    @Column(name = "claimed_by", length = 36)
+    private String claimedBy;
+
+    private LocalDateTime claimedAt;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // Earliest time a failed event may be claimed again; null until the first failure.
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public OutboxEventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(OutboxEventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+
+    public void setActorId(Long actorId) {
+        this.actorId = actorId;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getSubjectCreatedAt() {
+        return subjectCreatedAt;
+    }
+
+    public void setSubjectCreatedAt(LocalDateTime subjectCreatedAt) {
+        this.subjectCreatedAt = subjectCreatedAt;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,18 @@
+package com.lab41.model;
+
+public enum OutboxEventType {
+    POST_CREATED,
+    POST_UPDATED,
+    POST_DELETED,
+    COMMENT_ADDED,
+    COMMENT_UPDATED,
+    COMMENT_DELETED,
+    LIKE_ADDED,
+    LIKE_REMOVED,
+    FRIEND_REQUEST_SENT,
+    FRIEND_REQUEST_ACCEPTED,
+    FRIEND_REQUEST_DECLINED,
+    FRIEND_REMOVED,
+    USER_SAVED,
+    USER_DELETED
+}
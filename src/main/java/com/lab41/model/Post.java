@@ -1,14 +1,16 @@
 package com.lab41.model;
 
+import com.lab41.compression.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = @Index(name = "idx_posts_created", columnList = "created_at, post_id"))
 public class Post {
 
     @Id
@@ -20,14 +22,25 @@ public class Post {
     private User user;
 
     @Column(nullable = false, columnDefinition = "TEXT")
+    @Convert(converter = CompressedTextConverter.class)
     private String content;
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Maintained by PostService with atomic in-database increments, so list views never touch the
+    // comments collection. Not updatable: flushing a loaded Post must not write back a stale count.
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private long commentCount = 0;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments = new ArrayList<>();
 
+    // Only set on posts served from the cold archive, where likes survive as a count.
+    @Transient
+    private Long archivedLikeCount;
+
     public Long getPostId() {
         return postId;
     }
@@ -60,6 +73,14 @@ public class Post {
         this.createdAt = createdAt;
     }
 
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
     public List<Comment> getComments() {
         return comments;
     }
@@ -67,4 +88,16 @@ public class Post {
     public void setComments(List<Comment> comments) {
         this.comments = comments;
     }
+
+    public boolean isArchived() {
+        return archivedLikeCount != null;
+    }
+
+    public Long getArchivedLikeCount() {
+        return archivedLikeCount;
+    }
+
+    public void setArchivedLikeCount(Long archivedLikeCount) {
+        this.archivedLikeCount = archivedLikeCount;
+    }
 }
\ No newline at end of file
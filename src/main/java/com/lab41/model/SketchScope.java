@@ -0,0 +1,8 @@
+package com.lab41.model;
+
+public enum SketchScope {
+    // Users who liked, commented on or read one post.
+    POST,
+    // Users who liked, commented on or read any post of one author.
+    AUTHOR
+}
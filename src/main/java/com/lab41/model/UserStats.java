@@ -0,0 +1,118 @@
+package com.lab41.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+// Profile counters of one user, kept in step with the base tables by UserStatsService.
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long postCount;
+
+    @Column(nullable = false)
+    private long likesReceived;
+
+    @Column(nullable = false)
+    private long friendCount;
+
+    @Column(nullable = false)
+    private long commentCount;
+
+    // The part of postCount, likesReceived and commentCount that lives in the post archive, which
+    // reconciliation cannot recount from the base tables.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long archivedPosts;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long archivedLikesReceived;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long archivedComments;
+
+    public UserStats() {
+    }
+
+    public UserStats(Long userId, long postCount, long likesReceived, long friendCount, long commentCount) {
+        this.userId = userId;
+        this.postCount = postCount;
+        this.likesReceived = likesReceived;
+        this.friendCount = friendCount;
+        this.commentCount = commentCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getPostCount() {
+        return postCount;
+    }
+
+    public void setPostCount(long postCount) {
+        this.postCount = postCount;
+    }
+
+    public long getLikesReceived() {
+        return likesReceived;
+    }
+
+    public void setLikesReceived(long likesReceived) {
+        this.likesReceived = likesReceived;
+    }
+
+    public long getFriendCount() {
+        return friendCount;
+    }
+
+    public void setFriendCount(long friendCount) {
+        this.friendCount = friendCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public long getArchivedPosts() {
+        return archivedPosts;
+    }
+
+    public long getArchivedLikesReceived() {
+        return archivedLikesReceived;
+    }
+
+    public long getArchivedComments() {
+        return archivedComments;
+    }
+
+    // Adds the archived part of the stored row to counts recomputed from the base tables.
+    public void addArchived(UserStats stored) {
+        archivedPosts = stored.archivedPosts;
+        archivedLikesReceived = stored.archivedLikesReceived;
+        archivedComments = stored.archivedComments;
+        postCount += archivedPosts;
+        likesReceived += archivedLikesReceived;
+        commentCount += archivedComments;
+    }
+
+    public boolean sameCounts(UserStats other) {
+        return postCount == other.postCount && likesReceived == other.likesReceived
+                && friendCount == other.friendCount && commentCount == other.commentCount;
+    }
+}
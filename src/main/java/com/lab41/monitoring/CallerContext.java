@@ -0,0 +1,36 @@
+package com.lab41.monitoring;
+
+/**
+ * The innermost service method running on the current thread, set by {@link MethodMetricsAspect}
+ * and read by {@link SqlStatementRecorder} to attribute each statement to the method that issued it.
+ */
+public final class CallerContext {
+    public static final String UNATTRIBUTED = "(none)";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CallerContext() {
+    }
+
+    public static String current() {
+        String caller = CURRENT.get();
+        return caller != null ? caller : UNATTRIBUTED;
+    }
+
+    /**
+     * @return the caller that was current before, to be handed back to {@link #restore}
+     */
+    public static String enter(String caller) {
+        String previous = CURRENT.get();
+        CURRENT.set(caller);
+        return previous;
+    }
+
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
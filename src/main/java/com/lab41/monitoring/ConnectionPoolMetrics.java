@@ -0,0 +1,113 @@
+package com.lab41.monitoring;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hikari metrics tracker that keeps connection-acquire and usage histograms per pool and reads
+ * the live active/idle/pending counts straight from the pool. When {@code acquire p99} grows while
+ * statement time does not, service calls are queueing for connections rather than for SQL.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMetrics.class);
+
+    private final Map<String, PoolTracker> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolTracker tracker = new PoolTracker(poolStats);
+        pools.put(poolName, tracker);
+        return tracker;
+    }
+
+    public Map<String, PoolSnapshot> snapshot() {
+        Map<String, PoolSnapshot> result = new ConcurrentHashMap<>();
+        pools.forEach((name, tracker) -> result.put(name, tracker.snapshot(name)));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.pool.report-interval:PT1M}")
+    public void report() {
+        pools.forEach((name, tracker) -> {
+            PoolSnapshot snapshot = tracker.snapshot(name);
+            tracker.resetWindow();
+            if (snapshot.pendingThreads() > 0 || snapshot.timeouts() > 0) {
+                log.warn("Connection pool saturated: {}", snapshot);
+            } else if (log.isDebugEnabled()) {
+                log.debug("Connection pool: {}", snapshot);
+            }
+        });
+    }
+
+    public record PoolSnapshot(String poolName,
+                               int activeConnections,
+                               int idleConnections,
+                               int totalConnections,
+                               int pendingThreads,
+                               int maxConnections,
+                               long acquireCount,
+                               long acquireP50Micros,
+                               long acquireP95Micros,
+                               long acquireP99Micros,
+                               long acquireMaxMicros,
+                               long usageP95Millis,
+                               long timeouts) {
+    }
+
+    private static final class PoolTracker implements IMetricsTracker {
+        private final PoolStats poolStats;
+        private final LatencyHistogram acquire = new LatencyHistogram();
+        private final LatencyHistogram usage = new LatencyHistogram();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        private PoolTracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usage.record(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.incrementAndGet();
+        }
+
+        private PoolSnapshot snapshot(String poolName) {
+            return new PoolSnapshot(poolName,
+                    poolStats.getActiveConnections(),
+                    poolStats.getIdleConnections(),
+                    poolStats.getTotalConnections(),
+                    poolStats.getPendingThreads(),
+                    poolStats.getMaxConnections(),
+                    acquire.count(),
+                    TimeUnit.NANOSECONDS.toMicros(acquire.percentile(0.50)),
+                    TimeUnit.NANOSECONDS.toMicros(acquire.percentile(0.95)),
+                    TimeUnit.NANOSECONDS.toMicros(acquire.percentile(0.99)),
+                    TimeUnit.NANOSECONDS.toMicros(acquire.max()),
+                    usage.percentile(0.95),
+                    timeouts.get());
+        }
+
+        private void resetWindow() {
+            acquire.reset();
+            usage.reset();
+            timeouts.set(0);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.lab41.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-method Micrometer instruments for service and repository calls: a {@code lab41.method} timer
+ * with a percentile histogram, a {@code lab41.method.errors} counter per exception type and a
+ * {@code lab41.method.result.size} summary for methods returning collections. All are tagged with
+ * {@code layer}, {@code class} and {@code method}, so a regression can be pinned to one method.
+ * <p>
+ * Meters are registered on first call and cached, so recording a call is a map lookup plus the
+ * timer update. The scheduled report logs the slowest methods of the last interval by p99.
+ */
+public class MethodMetrics {
+    private static final Logger log = LoggerFactory.getLogger(MethodMetrics.class);
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final int reportTop;
+    private final Map<String, Instruments> instruments = new ConcurrentHashMap<>();
+
+    public MethodMetrics(MeterRegistry registry, int reportTop) {
+        this.registry = registry;
+        this.reportTop = reportTop;
+    }
+
+    public Instruments forMethod(String layer, String className, String methodName) {
+        return instruments.computeIfAbsent(layer + ':' + className + '.' + methodName,
+                key -> new Instruments(layer, className, methodName));
+    }
+
+    public List<MethodSnapshot> snapshot() {
+        List<MethodSnapshot> result = new ArrayList<>(instruments.size());
+        instruments.values().forEach(method -> result.add(method.snapshot()));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.metrics.report-interval:PT1M}")
+    public void report() {
+        List<MethodSnapshot> active = new ArrayList<>();
+        for (Instruments method : instruments.values()) {
+            MethodSnapshot snapshot = method.snapshot();
+            long calls = snapshot.count() - method.reportedCount;
+            method.reportedCount = snapshot.count();
+            if (calls > 0) {
+                active.add(snapshot);
+            }
+        }
+        if (active.isEmpty() || !log.isInfoEnabled()) {
+            return;
+        }
+        active.sort(Comparator.comparingDouble(MethodSnapshot::p99Millis).reversed());
+        StringBuilder summary = new StringBuilder("Slowest methods by p99 (")
+                .append(active.size()).append(" called since last report):");
+        active.stream().limit(reportTop).forEach(method -> summary.append(System.lineSeparator())
+                .append(String.format("  %-60s calls=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms errors=%d",
+                        method.layer() + ' ' + method.className() + '.' + method.methodName(), method.count(),
+                        method.p50Millis(), method.p95Millis(), method.p99Millis(), method.maxMillis(),
+                        method.errors())));
+        log.info(summary.toString());
+    }
+
+    public record MethodSnapshot(String layer,
+                                 String className,
+                                 String methodName,
+                                 long count,
+                                 double p50Millis,
+                                 double p95Millis,
+                                 double p99Millis,
+                                 double maxMillis,
+                                 long errors) {
+    }
+
+    public final class Instruments {
+        private final String layer;
+        private final String className;
+        private final String methodName;
+        private final Timer timer;
+        private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+        private volatile DistributionSummary resultSize;
+        // Only touched by report(), which the scheduler never runs concurrently.
+        private long reportedCount;
+
+        private Instruments(String layer, String className, String methodName) {
+            this.layer = layer;
+            this.className = className;
+            this.methodName = methodName;
+            this.timer = Timer.builder("lab41.method")
+                    .description("Latency of service and repository calls")
+                    .tags("layer", layer, "class", className, "method", methodName)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        public String className() {
+            return className;
+        }
+
+        public String methodName() {
+            return methodName;
+        }
+
+        public String label() {
+            return className + '.' + methodName;
+        }
+
+        public void record(long nanos, Object result) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            int size = sizeOf(result);
+            if (size >= 0) {
+                resultSize().record(size);
+            }
+        }
+
+        public void recordError(long nanos, Throwable error) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            errors.computeIfAbsent(error.getClass(), type -> Counter.builder("lab41.method.errors")
+                    .description("Exceptions thrown by service and repository calls")
+                    .tags("layer", layer, "class", className, "method", methodName,
+                            "exception", type.getSimpleName())
+                    .register(registry)).increment();
+        }
+
+        private DistributionSummary resultSize() {
+            DistributionSummary summary = resultSize;
+            if (summary == null) {
+                summary = DistributionSummary.builder("lab41.method.result.size")
+                        .description("Number of elements returned by service and repository calls")
+                        .tags("layer", layer, "class", className, "method", methodName)
+                        .publishPercentiles(PERCENTILES)
+                        .register(registry);
+                resultSize = summary;
+            }
+            return summary;
+        }
+
+        private MethodSnapshot snapshot() {
+            HistogramSnapshot histogram = timer.takeSnapshot();
+            double[] millis = new double[PERCENTILES.length];
+            for (ValueAtPercentile value : histogram.percentileValues()) {
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    if (value.percentile() == PERCENTILES[i]) {
+                        millis[i] = value.value(TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            long errorCount = 0;
+            for (Counter counter : errors.values()) {
+                errorCount += (long) counter.count();
+            }
+            return new MethodSnapshot(layer, className, methodName, histogram.count(),
+                    millis[0], millis[1], millis[2], histogram.max(TimeUnit.MILLISECONDS), errorCount);
+        }
+    }
+
+    static int sizeOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result != null && result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,100 @@
+package com.lab41.monitoring;
+
+import com.lab41.monitoring.jfr.RepositoryQueryEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public method of the service beans and every Spring Data repository call through
+ * {@link MethodMetrics}. Calls a bean makes on itself bypass the proxy and are counted as part of
+ * the outer method only. While a service method runs it is the thread's {@link CallerContext}.
+ * Repository calls are also emitted as {@link RepositoryQueryEvent}s when a JFR recording asks for them.
+ * Spans for the same calls come from {@link TracingAspect}, which is registered on its own.
+ */
+@Aspect
+public class MethodMetricsAspect {
+    static final String SERVICE = "service";
+    static final String REPOSITORY = "repository";
+
+    private final MethodMetrics metrics;
+    // Resolving the owning class walks the proxy's interfaces, so cache it per proxy class and method.
+    private final Map<CallSite, MethodMetrics.Instruments> sites = new ConcurrentHashMap<>();
+
+    public MethodMetricsAspect(MethodMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // PostService and a few helpers are plain @Components, so match both stereotypes in the service package.
+    @Around("within(com.lab41.service..*) && execution(public * *(..)) && "
+            + "(@within(org.springframework.stereotype.Service) || @within(org.springframework.stereotype.Component))")
+    public Object timeService(ProceedingJoinPoint call) throws Throwable {
+        return time(call, SERVICE);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint call) throws Throwable {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        Object result = time(call, REPOSITORY);
+        event.end();
+        if (event.shouldCommit()) {
+            MethodMetrics.Instruments instruments = instrumentsFor(call, REPOSITORY);
+            event.repository = instruments.className();
+            event.method = instruments.methodName();
+            event.caller = CallerContext.current();
+            event.rows = MethodMetrics.sizeOf(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    private Object time(ProceedingJoinPoint call, String layer) throws Throwable {
+        MethodMetrics.Instruments instruments = instrumentsFor(call, layer);
+        String previousCaller = SERVICE.equals(layer) ? CallerContext.enter(instruments.label()) : null;
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call.proceed();
+        } catch (Throwable e) {
+            instruments.recordError(System.nanoTime() - start, e);
+            throw e;
+        } finally {
+            if (SERVICE.equals(layer)) {
+                CallerContext.restore(previousCaller);
+            }
+        }
+        instruments.record(System.nanoTime() - start, result);
+        return result;
+    }
+
+    private MethodMetrics.Instruments instrumentsFor(ProceedingJoinPoint call, String layer) {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Class<?> proxyClass = call.getThis().getClass();
+        return sites.computeIfAbsent(new CallSite(proxyClass, method),
+                site -> metrics.forMethod(layer, ownerName(proxyClass, layer), method.getName()));
+    }
+
+    // Repositories are JDK proxies, so report the application's repository interface (PostRepository)
+    // rather than the Spring Data interface that happens to declare the method (CrudRepository).
+    static String ownerName(Class<?> proxyClass, String layer) {
+        if (REPOSITORY.equals(layer)) {
+            for (Class<?> type : ClassUtils.getAllInterfacesForClass(proxyClass)) {
+                if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(proxyClass).getSimpleName();
+    }
+
+    private record CallSite(Class<?> proxyClass, Method method) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.lab41.monitoring;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link PrometheusMeterRegistry#scrape()} on {@code GET /metrics} from the JDK's built-in
+ * HTTP server; the application has no web layer of its own. Off unless
+ * {@code lab41.metrics.endpoint.enabled} is set, and bound to the loopback address by default. Failing to bind, e.g. because another instance on the host holds the port, is logged
+ * and does not stop the application.
+ */
+public class PrometheusEndpoint implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PrometheusEndpoint.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry registry;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-endpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpServer server;
+
+    public PrometheusEndpoint(PrometheusMeterRegistry registry, String host, int port) {
+        this.registry = registry;
+        this.server = start(host, port);
+        if (server == null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return the bound port, or -1 when the endpoint could not be started
+     */
+    public int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        executor.shutdownNow();
+    }
+
+    private HttpServer start(String host, int port) {
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress(host, port), 0);
+            http.createContext("/metrics", this::scrape);
+            http.setExecutor(executor);
+            http.start();
+            log.info("Prometheus metrics served on http://{}:{}/metrics", host, http.getAddress().getPort());
+            return http;
+        } catch (IOException e) {
+            log.warn("Could not start the metrics endpoint on {}:{}; metrics are only logged", host, port, e);
+            return null;
+        }
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
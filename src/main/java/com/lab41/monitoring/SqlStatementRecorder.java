@@ -0,0 +1,271 @@
+package com.lab41.monitoring;
+
+import com.lab41.monitoring.tracing.Span;
+import com.lab41.monitoring.tracing.SpanKind;
+import com.lab41.monitoring.tracing.Tracer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * datasource-proxy listener that times every statement, counts the rows it returned or changed and
+ * charges both to the service method that issued it ({@link CallerContext}). Statements slower than
+ * the threshold are logged with their bind parameters; per-method totals are kept for the current
+ * report interval and logged, slowest first, when it ends.
+ * <p>
+ * Time is the execution of the statement only. Rows of a query are counted as they are read and
+ * the statement is recorded when its result set is closed; result sets left open are recorded
+ * when their connection closes.
+ * <p>
+ * Inside a sampled trace every statement also becomes a child span of the call that issued it,
+ * so a slow request can be followed down to its SQL; slow statements are logged with the trace id.
+ */
+public class SqlStatementRecorder extends JdbcLifecycleEventListenerAdapter {
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementRecorder.class);
+    private static final String START = "lab41.start";
+    private static final int MAX_LOGGED_BATCH_ENTRIES = 3;
+    private static final int MAX_SPAN_STATEMENT_LENGTH = 2000;
+
+    private final long slowThresholdNanos;
+    private final int maxParameterLength;
+    private final int reportTop;
+    private final Tracer tracer;
+    private volatile Map<String, CallerStats> window = new ConcurrentHashMap<>();
+    // Per connection id, keyed by the result set proxy handed to the caller. A connection is used by
+    // one thread at a time, so the inner maps need no locking.
+    private final Map<String, Map<Object, OpenQuery>> openQueries = new ConcurrentHashMap<>();
+
+    public SqlStatementRecorder(Duration slowThreshold, int maxParameterLength, int reportTop, Tracer tracer) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxParameterLength = maxParameterLength;
+        this.reportTop = reportTop;
+        this.tracer = tracer;
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name("lab41")
+                .listener(this)
+                .proxyResultSet()
+                .build();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        long nanos = start == null ? 0 : System.nanoTime() - start;
+        Span span = Tracer.currentSpan();
+        OpenQuery query = new OpenQuery(CallerContext.current(), nanos, queryInfoList);
+        if (span != null && span.isRecording()) {
+            query.span = span;
+            query.startEpochNanos = tracer.nowEpochNanos() - nanos;
+        }
+        if (execInfo.getResult() instanceof ResultSet resultSet) {
+            openQueries.computeIfAbsent(execInfo.getConnectionId(), id -> new IdentityHashMap<>()).put(resultSet, query);
+        } else {
+            query.rows = rowsOf(execInfo.getResult());
+            record(query);
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext executionContext) {
+        if (Boolean.TRUE.equals(executionContext.getResult())) {
+            Map<Object, OpenQuery> open = openQueries.get(connectionId(executionContext));
+            OpenQuery query = open == null ? null : open.get(executionContext.getProxy());
+            if (query != null) {
+                query.rows++;
+            }
+        }
+    }
+
+    @Override
+    public void afterClose(MethodExecutionContext executionContext) {
+        Object target = executionContext.getTarget();
+        if (target instanceof ResultSet) {
+            Map<Object, OpenQuery> open = openQueries.get(connectionId(executionContext));
+            OpenQuery query = open == null ? null : open.remove(executionContext.getProxy());
+            if (query != null) {
+                record(query);
+            }
+        } else if (target instanceof Connection) {
+            Map<Object, OpenQuery> open = openQueries.remove(connectionId(executionContext));
+            if (open != null) {
+                open.values().forEach(this::record);
+            }
+        }
+    }
+
+    private static String connectionId(MethodExecutionContext executionContext) {
+        return executionContext.getConnectionInfo().getConnectionId();
+    }
+
+    /**
+     * @return per-method totals of the current report interval, most SQL time first
+     */
+    public List<CallerSnapshot> snapshot() {
+        return snapshot(window);
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.sql.report-interval:PT1M}")
+    public void report() {
+        List<CallerSnapshot> callers = snapshot(window);
+        window = new ConcurrentHashMap<>();
+        if (callers.isEmpty() || !log.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder("SQL by calling method (")
+                .append(callers.size()).append(" methods since last report):");
+        callers.stream().limit(reportTop).forEach(caller -> summary.append(System.lineSeparator())
+                .append(String.format("  %-60s statements=%d total=%.2fms max=%.2fms rows=%d",
+                        caller.caller(), caller.statements(), caller.totalMillis(), caller.maxMillis(),
+                        caller.rows())));
+        log.info(summary.toString());
+    }
+
+    public record CallerSnapshot(String caller, long statements, double totalMillis, double maxMillis, long rows) {
+    }
+
+    private void record(OpenQuery query) {
+        window.computeIfAbsent(query.caller, caller -> new CallerStats()).add(query.nanos, Math.max(0, query.rows));
+        if (query.span != null) {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("db.statement", statementText(query.statements));
+            attributes.put("db.rows", query.rows);
+            attributes.put("lab41.caller", query.caller);
+            tracer.recordChild(query.span, "SQL", SpanKind.CLIENT, query.startEpochNanos, query.nanos, attributes);
+        }
+        if (query.nanos >= slowThresholdNanos && log.isWarnEnabled()) {
+            log.warn("Slow SQL ({} ms, {} rows) from {} [trace {}]: {}", TimeUnit.NANOSECONDS.toMillis(query.nanos),
+                    query.rows < 0 ? "?" : query.rows, query.caller,
+                    query.span != null ? query.span.getTraceId() : "-", describe(query.statements));
+        }
+    }
+
+    private static String statementText(List<QueryInfo> statements) {
+        String text = statements.size() == 1 ? statements.get(0).getQuery()
+                : String.join(";\n", statements.stream().map(QueryInfo::getQuery).toList());
+        return text.length() <= MAX_SPAN_STATEMENT_LENGTH ? text : text.substring(0, MAX_SPAN_STATEMENT_LENGTH) + "...";
+    }
+
+    private String describe(List<QueryInfo> statements) {
+        StringBuilder text = new StringBuilder();
+        for (QueryInfo statement : statements) {
+            text.append(System.lineSeparator()).append("  ").append(statement.getQuery());
+            List<List<ParameterSetOperation>> batches = statement.getParametersList();
+            for (int i = 0; i < Math.min(batches.size(), MAX_LOGGED_BATCH_ENTRIES); i++) {
+                text.append(System.lineSeparator()).append("    params ").append(parameters(batches.get(i)));
+            }
+            if (batches.size() > MAX_LOGGED_BATCH_ENTRIES) {
+                text.append(System.lineSeparator()).append("    ... ")
+                        .append(batches.size() - MAX_LOGGED_BATCH_ENTRIES).append(" more batch entries");
+            }
+        }
+        return text.toString();
+    }
+
+    private String parameters(List<ParameterSetOperation> operations) {
+        List<String> values = new ArrayList<>(operations.size());
+        for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+                values.add("null");
+            } else if (args != null && args.length > 1) {
+                values.add(format(args[1]));
+            }
+        }
+        return values.toString();
+    }
+
+    private String format(Object value) {
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = String.valueOf(value);
+        return text.length() <= maxParameterLength ? text : text.substring(0, maxParameterLength) + "...";
+    }
+
+    private static List<CallerSnapshot> snapshot(Map<String, CallerStats> stats) {
+        List<CallerSnapshot> callers = new ArrayList<>(stats.size());
+        stats.forEach((caller, totals) -> callers.add(new CallerSnapshot(caller, totals.statements.sum(),
+                totals.nanos.sum() / 1e6, totals.maxNanos.get() / 1e6, totals.rows.sum())));
+        callers.sort(Comparator.comparingDouble(CallerSnapshot::totalMillis).reversed());
+        return callers;
+    }
+
+    // Update counts for executeUpdate/executeBatch; -1 when the driver did not report one.
+    private static long rowsOf(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    private static final class OpenQuery {
+        final String caller;
+        final long nanos;
+        final List<QueryInfo> statements;
+        long rows;
+        Span span;
+        long startEpochNanos;
+
+        OpenQuery(String caller, long nanos, List<QueryInfo> statements) {
+            this.caller = caller;
+            this.nanos = nanos;
+            this.statements = statements;
+        }
+    }
+
+    private static final class CallerStats {
+        final LongAdder statements = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long elapsedNanos, long rowCount) {
+            statements.increment();
+            nanos.add(elapsedNanos);
+            rows.add(rowCount);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+    }
+}
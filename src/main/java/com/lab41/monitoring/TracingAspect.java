@@ -0,0 +1,94 @@
+package com.lab41.monitoring;
+
+import com.lab41.monitoring.tracing.Span;
+import com.lab41.monitoring.tracing.SpanKind;
+import com.lab41.monitoring.tracing.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes every public method of the service beans and every Spring Data repository call a span of
+ * the thread's trace when the {@link Tracer} samples it, carrying the entity id arguments
+ * ({@code postId}, {@code userIds}, ...) and the number of rows returned. Matches the same calls as
+ * {@link MethodMetricsAspect}, so spans and metrics use the same names.
+ */
+@Aspect
+public class TracingAspect {
+    private final Tracer tracer;
+    private final Map<CallSite, String> labels = new ConcurrentHashMap<>();
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(com.lab41.service..*) && execution(public * *(..)) && "
+            + "(@within(org.springframework.stereotype.Service) || @within(org.springframework.stereotype.Component))")
+    public Object traceService(ProceedingJoinPoint call) throws Throwable {
+        return trace(call, MethodMetricsAspect.SERVICE, SpanKind.INTERNAL);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint call) throws Throwable {
+        return trace(call, MethodMetricsAspect.REPOSITORY, SpanKind.CLIENT);
+    }
+
+    private Object trace(ProceedingJoinPoint call, String layer, SpanKind kind) throws Throwable {
+        Span previousSpan = Tracer.currentSpan();
+        Span span = tracer.start(labelFor(call, layer), kind);
+        if (span.isRecording()) {
+            addArguments(span, call);
+        }
+        try {
+            Object result = call.proceed();
+            if (span.isRecording()) {
+                addResult(span, result);
+            }
+            return result;
+        } catch (Throwable e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            tracer.end(span, previousSpan);
+        }
+    }
+
+    private static void addArguments(Span span, ProceedingJoinPoint call) {
+        String[] names = ((MethodSignature) call.getSignature()).getParameterNames();
+        Object[] args = call.getArgs();
+        for (int i = 0; i < args.length; i++) {
+            String name = names != null && i < names.length ? names[i] : "arg" + i;
+            if (args[i] instanceof Number id && (name.equals("id") || name.endsWith("Id"))) {
+                span.setAttribute("lab41." + name, id);
+            } else if (args[i] instanceof Collection<?> ids && (name.equals("ids") || name.endsWith("Ids"))) {
+                span.setAttribute("lab41." + name + ".count", ids.size());
+            }
+        }
+    }
+
+    private static void addResult(Span span, Object result) {
+        int rows = MethodMetrics.sizeOf(result);
+        if (rows >= 0) {
+            span.setAttribute("lab41.rows", rows);
+        } else if (result instanceof Optional<?> found) {
+            span.setAttribute("lab41.found", found.isPresent());
+        }
+    }
+
+    private String labelFor(ProceedingJoinPoint call, String layer) {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Class<?> proxyClass = call.getThis().getClass();
+        return labels.computeIfAbsent(new CallSite(proxyClass, method),
+                site -> MethodMetricsAspect.ownerName(proxyClass, layer) + "." + method.getName());
+    }
+
+    private record CallSite(Class<?> proxyClass, Method method) {
+    }
+}
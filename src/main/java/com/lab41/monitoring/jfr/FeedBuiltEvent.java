@@ -0,0 +1,23 @@
+package com.lab41.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.lab41.FeedBuilt")
+@Label("Feed Built")
+@Description("One page of a user's post summaries")
+@Category({"Lab41", "Service"})
+@StackTrace(false)
+public class FeedBuiltEvent extends jdk.jfr.Event {
+    @Label("User Id")
+    public long userId;
+
+    @Label("Page")
+    public int page;
+
+    @Label("Posts")
+    public int posts;
+}
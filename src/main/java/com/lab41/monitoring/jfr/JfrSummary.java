@@ -0,0 +1,134 @@
+package com.lab41.monitoring.jfr;
+
+import com.lab41.monitoring.LatencyHistogram;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summarizes the {@code com.lab41.*} events of a JFR recording into one latency histogram per
+ * operation. Repository queries are split by repository method, e.g.
+ * {@code RepositoryQuery PostRepository.findById}.
+ * <pre>
+ * java -cp target/classes com.lab41.monitoring.jfr.JfrSummary recording.jfr
+ * </pre>
+ */
+public final class JfrSummary {
+    private static final String EVENT_PREFIX = "com.lab41.";
+    private static final int BUCKETS = 16;
+
+    private JfrSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrSummary <recording.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    /**
+     * @return one entry per operation, most total time first
+     */
+    public static List<Operation> summarize(Path recording) throws IOException {
+        Map<String, Accumulator> operations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (type.startsWith(EVENT_PREFIX)) {
+                    operations.computeIfAbsent(operationOf(event, type.substring(EVENT_PREFIX.length())),
+                            name -> new Accumulator()).add(event.getDuration().toNanos(), rowsOf(event));
+                }
+            }
+        }
+        List<Operation> result = new ArrayList<>(operations.size());
+        operations.forEach((name, accumulator) -> result.add(accumulator.toOperation(name)));
+        result.sort(Comparator.comparingDouble(Operation::totalMillis).reversed());
+        return result;
+    }
+
+    public static void print(List<Operation> operations, PrintStream out) {
+        for (Operation operation : operations) {
+            out.printf("%s%n  count=%d total=%.2fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms rows=%d%n",
+                    operation.name(), operation.count(), operation.totalMillis(), operation.p50Millis(),
+                    operation.p95Millis(), operation.p99Millis(), operation.maxMillis(), operation.rows());
+            long widest = operation.histogram().values().stream().mapToLong(Long::longValue).max().orElse(1);
+            operation.histogram().forEach((upperMillis, count) -> out.printf("  %10s %8d %s%n",
+                    "<= " + upperMillis + "ms", count, "#".repeat((int) Math.max(1, 40 * count / widest))));
+        }
+    }
+
+    /**
+     * @param histogram event count per power-of-two bucket, keyed by the bucket's upper bound in
+     *                  milliseconds; only non-empty buckets are present, and the last bucket also
+     *                  holds everything slower
+     */
+    public record Operation(String name,
+                            long count,
+                            double totalMillis,
+                            double p50Millis,
+                            double p95Millis,
+                            double p99Millis,
+                            double maxMillis,
+                            long rows,
+                            Map<Long, Long> histogram) {
+    }
+
+    private static String operationOf(RecordedEvent event, String type) {
+        if (event.hasField("repository") && event.hasField("method")) {
+            return type + " " + event.getString("repository") + "." + event.getString("method");
+        }
+        return type;
+    }
+
+    private static long rowsOf(RecordedEvent event) {
+        if (event.hasField("rows")) {
+            return Math.max(0, event.getInt("rows"));
+        }
+        if (event.hasField("posts")) {
+            return event.getInt("posts");
+        }
+        return 0;
+    }
+
+    private static final class Accumulator {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        // Bucket i counts durations up to 2^i ms; the last one takes everything above.
+        private final long[] buckets = new long[BUCKETS];
+        private long totalNanos;
+        private long rows;
+
+        void add(long nanos, long rowCount) {
+            latency.record(nanos);
+            totalNanos += nanos;
+            rows += rowCount;
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = millis <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(millis - 1);
+            buckets[Math.min(bucket, BUCKETS - 1)]++;
+        }
+
+        Operation toOperation(String name) {
+            Map<Long, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKETS; i++) {
+                if (buckets[i] > 0) {
+                    histogram.put(1L << i, buckets[i]);
+                }
+            }
+            return new Operation(name, latency.count(), totalNanos / 1e6, latency.percentile(0.50) / 1e6,
+                    latency.percentile(0.95) / 1e6, latency.percentile(0.99) / 1e6, latency.max() / 1e6,
+                    rows, histogram);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.lab41.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.lab41.LikeAdded")
+@Label("Like Added")
+@Description("A committed like written by PostService, directly or as the final state of coalesced toggles")
+@Category({"Lab41", "Service"})
+@StackTrace(false)
+public class LikeAddedEvent extends jdk.jfr.Event {
+    @Label("Post Id")
+    public long postId;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Coalesced")
+    @Description("Written by LikeToggleCoalescer rather than by addLikeToPost")
+    public boolean coalesced;
+}
@@ -0,0 +1,23 @@
+package com.lab41.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.lab41.PostCreated")
+@Label("Post Created")
+@Description("PostService.createPost from rate limit check to transaction commit; rolled back posts emit nothing")
+@Category({"Lab41", "Service"})
+@StackTrace(false)
+public class PostCreatedEvent extends jdk.jfr.Event {
+    @Label("Post Id")
+    public long postId;
+
+    @Label("Author Id")
+    public long authorId;
+
+    @Label("Content Length")
+    public int contentLength;
+}
@@ -0,0 +1,27 @@
+package com.lab41.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.lab41.RepositoryQuery")
+@Label("Repository Query")
+@Description("A Spring Data repository call, with the service method that made it")
+@Category({"Lab41", "Repository"})
+@StackTrace(false)
+public class RepositoryQueryEvent extends jdk.jfr.Event {
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Caller")
+    public String caller;
+
+    @Label("Rows")
+    @Description("Elements returned, or -1 when the result is not a collection")
+    public int rows;
+}
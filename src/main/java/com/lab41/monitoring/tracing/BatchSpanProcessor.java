@@ -0,0 +1,97 @@
+package com.lab41.monitoring.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands ended spans to a {@link SpanExporter} off the request threads. Ending a span only offers it
+ * to a bounded queue; when the exporter falls behind and the queue is full the span is dropped and
+ * counted rather than slowing the caller down. A daemon thread drains the queue every
+ * {@code exportInterval} in batches of at most {@code batchSize}.
+ */
+public class BatchSpanProcessor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(BatchSpanProcessor.class);
+
+    private final SpanExporter exporter;
+    private final BlockingQueue<Span> queue;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public BatchSpanProcessor(SpanExporter exporter, int queueSize, int batchSize, Duration exportInterval) {
+        this.exporter = exporter;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.intervalMillis = exportInterval.toMillis();
+        this.worker = new Thread(this::run, "span-exporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void onEnd(Span span) {
+        if (!queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Exports everything queued so far from the calling thread.
+     */
+    public void flush() {
+        List<Span> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            export(batch);
+            batch.clear();
+        }
+    }
+
+    public long droppedSpans() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(intervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (dropped.get() > 0) {
+            log.warn("{} spans were dropped because the export queue was full", dropped.get());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    // Exports are serialized so a flush from a caller never interleaves with the worker's batch.
+    private synchronized void export(List<Span> batch) {
+        try {
+            exporter.export(batch);
+        } catch (IOException | RuntimeException e) {
+            dropped.addAndGet(batch.size());
+            log.warn("Could not export {} spans", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.lab41.monitoring.tracing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends each batch as one OTLP/JSON {@code ExportTraceServiceRequest} per line, the format read
+ * by the OpenTelemetry Collector's {@code otlpjsonfile} receiver, so the file can be replayed into
+ * any tracing backend. A batch is written with a single append, so several processes or contexts
+ * can share the file.
+ * <p>
+ * Once the file would grow past {@code maxBytes} it is renamed to {@code <file>.1}, replacing the
+ * previous one, and a new file is started; spans take at most twice {@code maxBytes} on disk.
+ */
+public class OtlpJsonFileExporter implements SpanExporter {
+    private final Path file;
+    private final Path rotated;
+    private final String serviceName;
+    private final long maxBytes;
+
+    public OtlpJsonFileExporter(Path file, String serviceName, long maxBytes) {
+        this.file = file;
+        this.rotated = file.resolveSibling(file.getFileName() + ".1");
+        this.serviceName = serviceName;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void export(List<Span> spans) throws IOException {
+        if (spans.isEmpty()) {
+            return;
+        }
+        StringBuilder json = new StringBuilder(256 * spans.size());
+        json.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        attribute(json, "service.name", serviceName);
+        json.append("]},\"scopeSpans\":[{\"scope\":{\"name\":\"com.lab41\"},\"spans\":[");
+        for (int i = 0; i < spans.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            span(json, spans.get(i));
+        }
+        json.append("]}]}]}\n");
+        byte[] line = json.toString().getBytes(StandardCharsets.UTF_8);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        rotateIfFull(line.length);
+        Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    private void rotateIfFull(int appending) throws IOException {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        if (size > 0 && size + appending > maxBytes) {
+            try {
+                Files.move(file, rotated, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                // another process sharing the file rotated it first
+            }
+        }
+    }
+
+    private static void span(StringBuilder json, Span span) {
+        json.append("{\"traceId\":");
+        string(json, span.getTraceId());
+        json.append(",\"spanId\":");
+        string(json, span.getSpanId());
+        if (span.getParentSpanId() != null) {
+            json.append(",\"parentSpanId\":");
+            string(json, span.getParentSpanId());
+        }
+        json.append(",\"name\":");
+        string(json, span.getName());
+        json.append(",\"kind\":").append(span.getKind().otlpCode())
+                .append(",\"startTimeUnixNano\":\"").append(span.getStartEpochNanos())
+                .append("\",\"endTimeUnixNano\":\"").append(span.getEndEpochNanos())
+                .append("\",\"attributes\":[");
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : span.getAttributes().entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            attribute(json, entry.getKey(), entry.getValue());
+        }
+        json.append("],\"status\":{");
+        if (span.isError()) {
+            json.append("\"code\":2");
+            if (span.getStatusMessage() != null) {
+                json.append(",\"message\":");
+                string(json, span.getStatusMessage());
+            }
+        }
+        json.append("}}");
+    }
+
+    // int64 values are strings in OTLP/JSON.
+    private static void attribute(StringBuilder json, String key, Object value) {
+        json.append("{\"key\":");
+        string(json, key);
+        json.append(",\"value\":{");
+        if (value instanceof Boolean bool) {
+            json.append("\"boolValue\":").append(bool);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            json.append("\"intValue\":\"").append(value).append('"');
+        } else if (value instanceof Number number) {
+            json.append("\"doubleValue\":").append(number.doubleValue());
+        } else {
+            json.append("\"stringValue\":");
+            string(json, String.valueOf(value));
+        }
+        json.append("}}");
+    }
+
+    private static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
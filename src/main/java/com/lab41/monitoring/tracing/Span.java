@@ -0,0 +1,98 @@
+package com.lab41.monitoring.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation of a trace. A span is written only by the thread that started it until it
+ * ends, and read by the exporter after that. Spans of unsampled traces are all the shared
+ * {@link #NOT_SAMPLED} instance, which ignores every write, so an unsampled call allocates nothing.
+ */
+public final class Span {
+    static final Span NOT_SAMPLED = new Span(null, null, null, null, SpanKind.INTERNAL, 0);
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final SpanKind kind;
+    private final long startEpochNanos;
+    private final Map<String, Object> attributes;
+    private long endEpochNanos;
+    private boolean error;
+    private String statusMessage;
+
+    Span(String traceId, String spanId, String parentSpanId, String name, SpanKind kind, long startEpochNanos) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startEpochNanos = startEpochNanos;
+        this.attributes = traceId == null ? Collections.emptyMap() : new LinkedHashMap<>();
+    }
+
+    public boolean isRecording() {
+        return this != NOT_SAMPLED;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (isRecording() && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public void recordException(Throwable exception) {
+        if (isRecording()) {
+            error = true;
+            statusMessage = exception.getMessage();
+            attributes.put("exception.type", exception.getClass().getName());
+        }
+    }
+
+    void end(long epochNanos) {
+        endEpochNanos = epochNanos;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SpanKind getKind() {
+        return kind;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+}
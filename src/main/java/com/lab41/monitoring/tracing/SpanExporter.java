@@ -0,0 +1,12 @@
+package com.lab41.monitoring.tracing;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives ended spans in batches from {@link BatchSpanProcessor}'s export thread.
+ */
+public interface SpanExporter {
+
+    void export(List<Span> spans) throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.lab41.monitoring.tracing;
+
+/**
+ * Subset of the OpenTelemetry span kinds; {@link #otlpCode} is the value used in OTLP JSON.
+ */
+public enum SpanKind {
+    INTERNAL(1),
+    CLIENT(3);
+
+    private final int otlpCode;
+
+    SpanKind(int otlpCode) {
+        this.otlpCode = otlpCode;
+    }
+
+    public int otlpCode() {
+        return otlpCode;
+    }
+}
@@ -0,0 +1,154 @@
+package com.lab41.monitoring.tracing;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts and ends spans around service and repository calls. The sampling decision is made once
+ * per trace, when its root span starts: a {@code sampleRatio} share of roots is kept, capped at
+ * {@code maxTracesPerSecond}. Every span below an unsampled root is {@link Span#NOT_SAMPLED}, so
+ * the cost of an unsampled call is a thread-local read and write.
+ * <p>
+ * The current span is thread-local. Callers keep the span that was current before {@link #start}
+ * and hand it back to {@link #end}:
+ * <pre>
+ * Span previous = Tracer.currentSpan();
+ * Span span = tracer.start("PostService.createPost", SpanKind.INTERNAL);
+ * try { ... } finally { tracer.end(span, previous); }
+ * </pre>
+ */
+public class Tracer implements AutoCloseable {
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final double sampleRatio;
+    private final int maxTracesPerSecond;
+    private final BatchSpanProcessor processor;
+    private final long epochAnchorNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private final long nanoAnchor = System.nanoTime();
+    private final AtomicLong rateWindow = new AtomicLong();
+    private final AtomicInteger tracesInWindow = new AtomicInteger();
+
+    public Tracer(double sampleRatio, int maxTracesPerSecond, BatchSpanProcessor processor) {
+        this.sampleRatio = sampleRatio;
+        this.maxTracesPerSecond = maxTracesPerSecond;
+        this.processor = processor;
+    }
+
+    /**
+     * Tracer that never samples. Used when tracing is disabled.
+     */
+    public static Tracer disabled() {
+        return new Tracer(0, 0, null);
+    }
+
+    public static Span currentSpan() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes {@code span} current on this thread, e.g. in a task forked from a traced call.
+     *
+     * @return the span that was current before, to be restored the same way
+     */
+    public static Span makeCurrent(Span span) {
+        Span previous = CURRENT.get();
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+        return previous;
+    }
+
+    public Span start(String name, SpanKind kind) {
+        if (processor == null) {
+            return Span.NOT_SAMPLED;
+        }
+        Span parent = CURRENT.get();
+        Span span;
+        if (parent == null) {
+            span = sampleRoot() ? new Span(newTraceId(), newSpanId(), null, name, kind, nowEpochNanos()) : Span.NOT_SAMPLED;
+        } else if (!parent.isRecording()) {
+            return parent;
+        } else {
+            span = new Span(parent.getTraceId(), newSpanId(), parent.getSpanId(), name, kind, nowEpochNanos());
+        }
+        CURRENT.set(span);
+        return span;
+    }
+
+    public void end(Span span, Span previous) {
+        if (processor == null) {
+            return;
+        }
+        makeCurrent(previous);
+        if (span.isRecording()) {
+            span.end(nowEpochNanos());
+            processor.onEnd(span);
+        }
+    }
+
+    /**
+     * Records an already finished operation, e.g. a SQL statement timed elsewhere, as a child of
+     * {@code parent}.
+     */
+    public void recordChild(Span parent, String name, SpanKind kind, long startEpochNanos, long durationNanos,
+                            Map<String, Object> attributes) {
+        if (processor == null || parent == null || !parent.isRecording()) {
+            return;
+        }
+        Span span = new Span(parent.getTraceId(), newSpanId(), parent.getSpanId(), name, kind, startEpochNanos);
+        attributes.forEach(span::setAttribute);
+        span.end(startEpochNanos + durationNanos);
+        processor.onEnd(span);
+    }
+
+    public long nowEpochNanos() {
+        return epochAnchorNanos + (System.nanoTime() - nanoAnchor);
+    }
+
+    public void flush() {
+        if (processor != null) {
+            processor.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (processor != null) {
+            processor.close();
+        }
+    }
+
+    private boolean sampleRoot() {
+        if (sampleRatio <= 0 || (sampleRatio < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRatio)) {
+            return false;
+        }
+        if (maxTracesPerSecond <= 0) {
+            return true;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long window = rateWindow.get();
+        if (window != second && rateWindow.compareAndSet(window, second)) {
+            tracesInWindow.set(0);
+        }
+        return tracesInWindow.incrementAndGet() <= maxTracesPerSecond;
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return hex(random.nextLong() | 1) + hex(random.nextLong());
+    }
+
+    private static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong() | 1);
+    }
+
+    private static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return digits.length() == 16 ? digits : "0".repeat(16 - digits.length()) + digits;
+    }
+}
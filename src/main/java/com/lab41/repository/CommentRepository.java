@@ -1,11 +1,97 @@
 package com.lab41.repository;
 
+import com.lab41.dto.CommentRef;
+import com.lab41.dto.CommentView;
+import com.lab41.dto.PostActivity;
 import com.lab41.model.Comment;
 import com.lab41.model.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CommentRepository extends CrudRepository<Comment, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Comment> findByPostOrderByCreatedAtAsc(Post post);
+
+    @Query("select new com.lab41.dto.CommentView(c.commentId, c.post.postId, u.userId, u.username, c.content, c.createdAt) " +
+            "from Comment c join c.user u where c.post.postId = :postId " +
+            "order by c.createdAt asc, c.commentId asc")
+    List<CommentView> findViewsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("select new com.lab41.dto.CommentView(c.commentId, c.post.postId, u.userId, u.username, c.content, c.createdAt) " +
+            "from Comment c join c.user u where c.post.postId in :postIds " +
+            "order by c.post.postId, c.createdAt asc, c.commentId asc")
+    List<CommentView> findViewsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select new com.lab41.dto.CommentView(c.commentId, c.post.postId, u.userId, u.username, c.content, c.createdAt) " +
+            "from Comment c join c.user u where c.commentId = :commentId")
+    Optional<CommentView> findViewById(@Param("commentId") Long commentId);
+
+    // The redundant createdAt bound gives the planner a range on idx_comments_post_created to seek
+    // to; the or-predicate alone is not sargable and leaves it scanning the whole thread.
+    @Query("select new com.lab41.dto.CommentView(c.commentId, c.post.postId, u.userId, u.username, c.content, c.createdAt) " +
+            "from Comment c join c.user u where c.post.postId = :postId and c.createdAt >= :createdAt " +
+            "and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.commentId > :commentId)) " +
+            "order by c.createdAt asc, c.commentId asc")
+    List<CommentView> findViewsAfter(@Param("postId") Long postId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("commentId") Long commentId,
+                                     Pageable pageable);
+
+    // Newest first; callers reverse the slice to keep pages in chronological order.
+    @Query("select new com.lab41.dto.CommentView(c.commentId, c.post.postId, u.userId, u.username, c.content, c.createdAt) " +
+            "from Comment c join c.user u where c.post.postId = :postId and c.createdAt <= :createdAt " +
+            "and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.commentId < :commentId)) " +
+            "order by c.createdAt desc, c.commentId desc")
+    List<CommentView> findViewsBefore(@Param("postId") Long postId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("commentId") Long commentId,
+                                      Pageable pageable);
+
+    // Newest first, like findViewsBefore without a cursor.
+    @Query("select new com.lab41.dto.CommentView(c.commentId, c.post.postId, u.userId, u.username, c.content, c.createdAt) " +
+            "from Comment c join c.user u where c.post.postId = :postId " +
+            "order by c.createdAt desc, c.commentId desc")
+    List<CommentView> findNewestViewsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("select new com.lab41.dto.CommentRef(c.post.postId, c.user.userId, c.createdAt) from Comment c " +
+            "where c.commentId = :commentId")
+    Optional<CommentRef> findRefById(@Param("commentId") Long commentId);
+
+    // Comments written by the user and comments left on the user's posts.
+    @Query("select c.commentId from Comment c where c.user.userId = :userId or c.post.user.userId = :userId")
+    List<Long> findIdsInvolvingUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Comment c where c.commentId in :commentIds")
+    int deleteByCommentIdIn(@Param("commentIds") Collection<Long> commentIds);
+
+    @Query("select new com.lab41.dto.PostActivity(c.post.postId, c.createdAt) from Comment c where c.createdAt >= :since")
+    Stream<PostActivity> streamActivitySince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("delete from Comment c where c.post.postId in :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    // One round trip for a whole feed page: rank each post's comments newest first and keep the
+    // top perPost of every partition, served by the (post_id, created_at, comment_id) index.
+    @Query("select new com.lab41.dto.CommentView(r.id, r.postId, r.authorId, r.authorName, r.content, r.createdAt) " +
+            "from (select c.commentId as id, c.post.postId as postId, u.userId as authorId, u.username as authorName, " +
+            "c.content as content, c.createdAt as createdAt, " +
+            "row_number() over (partition by c.post.postId order by c.createdAt desc, c.commentId desc) as rn " +
+            "from Comment c join c.user u where c.post.postId in :postIds) r " +
+            "where r.rn <= :perPost " +
+            "order by r.postId, r.createdAt asc, r.id asc")
+    List<CommentView> findLatestViewsByPostIds(@Param("postIds") Collection<Long> postIds, @Param("perPost") int perPost);
 }
@@ -3,7 +3,10 @@ package com.lab41.repository;
 import com.lab41.model.Friend;
 import com.lab41.model.FriendStatus;
 import com.lab41.model.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,4 +22,8 @@ public interface FriendRepository extends CrudRepository<Friend, Long> {
 
     List<Friend> findByUserOrFriendAndStatus(User user, User friend, FriendStatus status);
 
+    @Modifying
+    @Query("delete from Friend f where f.user.userId = :userId or f.friend.userId = :userId")
+    int deleteAllInvolving(@Param("userId") Long userId);
+
 }
@@ -0,0 +1,24 @@
+package com.lab41.repository;
+
+import com.lab41.model.InteractionSketch;
+import com.lab41.model.InteractionSketchId;
+import com.lab41.model.SketchScope;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface InteractionSketchRepository extends CrudRepository<InteractionSketch, InteractionSketchId> {
+
+    @Query("select s from InteractionSketch s where s.scope = :scope and s.entityId = :entityId " +
+            "and s.day >= :from and s.day <= :to")
+    List<InteractionSketch> findDays(@Param("scope") SketchScope scope, @Param("entityId") Long entityId,
+                                     @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from InteractionSketch s where s.day < :day")
+    int deleteByDayBefore(@Param("day") LocalDate day);
+}
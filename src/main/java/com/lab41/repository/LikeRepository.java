@@ -1,18 +1,64 @@
 package com.lab41.repository;
 
+import com.lab41.dto.IdCount;
+import com.lab41.dto.LikeView;
+import com.lab41.dto.PostActivity;
 import com.lab41.model.Like;
 import com.lab41.model.Post;
 import com.lab41.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LikeRepository extends CrudRepository<Like, Long> {
     Optional<Like> findByUserAndPost (User user, Post post);
 
+    @Query("select count(l) > 0 from Like l where l.user.userId = :userId and l.post.postId = :postId")
+    boolean existsByUserIdAndPostId(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Like> findByUser (User user);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Like> findByPost (Post post);
+
+    @Query("select new com.lab41.dto.LikeView(l.likeId, l.post.postId, u.userId, u.username, l.createdAt) " +
+            "from Like l join l.user u where l.post.postId = :postId " +
+            "order by l.createdAt desc, l.likeId desc")
+    List<LikeView> findViewsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("select new com.lab41.dto.IdCount(l.post.postId, count(l)) from Like l " +
+            "where l.post.postId in :postIds group by l.post.postId")
+    List<IdCount> countByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // Likes given by the user and likes received on the user's posts.
+    @Query("select l.likeId from Like l where l.user.userId = :userId or l.post.user.userId = :userId")
+    List<Long> findIdsInvolvingUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Like l where l.likeId in :likeIds")
+    int deleteByLikeIdIn(@Param("likeIds") Collection<Long> likeIds);
+
+    @Query("select new com.lab41.dto.PostActivity(l.post.postId, l.createdAt) from Like l"
+            + " where l.createdAt >= :from and l.createdAt < :to")
+    Stream<PostActivity> streamActivityBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.lab41.dto.PostActivity(l.post.postId, l.createdAt) from Like l where l.createdAt >= :since")
+    Stream<PostActivity> streamActivitySince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("delete from Like l where l.post.postId in :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
 }
@@ -0,0 +1,54 @@
+package com.lab41.repository;
+
+import com.lab41.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends CrudRepository<OutboxEvent, Long> {
+
+    @Query("select e.eventId from OutboxEvent e " +
+            "where e.processedAt is null and e.attempts < :maxAttempts " +
+            "and (e.claimedAt is null or e.claimedAt < :leaseExpiry) " +
+            "and (e.nextAttemptAt is null or e.nextAttemptAt <= :now) " +
+            "order by e.eventId")
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now,
+                                @Param("leaseExpiry") LocalDateTime leaseExpiry,
+                                @Param("maxAttempts") int maxAttempts,
+                                Pageable pageable);
+
+    // The claim re-checks the lease predicate, so of two pollers racing for the same rows only
+    // the first update wins and the second one skips them instead of blocking on the row locks.
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedBy = :owner, e.claimedAt = :now " +
+            "where e.eventId in :ids and e.processedAt is null " +
+            "and (e.claimedAt is null or e.claimedAt < :leaseExpiry)")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("leaseExpiry") LocalDateTime leaseExpiry);
+
+    List<OutboxEvent> findByClaimedByAndProcessedAtIsNullOrderByEventIdAsc(String claimedBy);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.processedAt = :now where e.eventId in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedBy = null, e.claimedAt = null, e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :nextAttemptAt where e.eventId in :ids")
+    int release(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Query("select count(e) from OutboxEvent e where e.processedAt is null and e.attempts >= :maxAttempts")
+    long countParked(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,14 +1,86 @@
 package com.lab41.repository;
 
+import com.lab41.compression.ContentCodec;
+import com.lab41.dto.PostSummary;
+import com.lab41.dto.PostText;
 import com.lab41.model.Post;
 import com.lab41.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PostRepository extends CrudRepository<Post, Long> {
+    // List finders only feed read paths, so their results are loaded read-only even when called
+    // outside a read-only transaction: no dirty-checking snapshot is kept per row.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Post> findByUserOrderByCreatedAtDesc(User user);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Post> findByContentContainingIgnoreCase(String content);
+
+    // Compressed posts after a post id, decoded by the converter but not loaded as entities. The
+    // marker is inlined: a bound parameter compared to content would go through the converter too.
+    @Query("select new com.lab41.dto.PostText(p.postId, p.content) from Post p " +
+            "where locate('" + ContentCodec.MARKER + "', p.content) > 0 and p.postId > :after order by p.postId")
+    List<PostText> findEncodedTextsAfter(@Param("after") Long after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Post> findByCreatedAtBetweenOrderByCreatedAtDesc(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("select new com.lab41.dto.PostSummary(p.postId, u.userId, u.username, " +
+            "substring(p.content, 1, " + PostSummary.SNIPPET_LENGTH + "), p.createdAt, " +
+            "(select count(l) from Like l where l.post = p), p.commentCount) " +
+            "from Post p join p.user u where u.userId = :userId " +
+            "order by p.createdAt desc, p.postId desc")
+    List<PostSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select p from Post p join fetch p.user where p.postId in :postIds")
+    List<Post> findAllWithUserByIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("update Post p set p.commentCount = p.commentCount + :delta where p.postId = :postId")
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    // Keeps commentCount right for posts that survive a bulk comment delete; run before the delete.
+    @Modifying
+    @Query("update Post p set p.commentCount = p.commentCount - " +
+            "(select count(c) from Comment c where c.post = p and c.commentId in :commentIds) " +
+            "where p.postId in (select c.post.postId from Comment c where c.commentId in :commentIds)")
+    int subtractComments(@Param("commentIds") Collection<Long> commentIds);
+
+    // Sets commentCount from the comments table, writing only the rows that differ.
+    @Modifying
+    @Query("update Post p set p.commentCount = (select count(c) from Comment c where c.post = p) " +
+            "where p.postId in :postIds and p.commentCount <> (select count(c) from Comment c where c.post = p)")
+    int recountComments(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select p.postId from Post p where p.postId > :after order by p.postId")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select p.user.userId from Post p where p.postId = :postId")
+    Optional<Long> findUserIdByPostId(@Param("postId") Long postId);
+
+    @Query("select p.postId from Post p where p.user.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select p.postId from Post p where p.postId in :postIds")
+    List<Long> findExistingIds(@Param("postIds") Collection<Long> postIds);
+
+    // Oldest first, walking idx_posts_created, so each retention batch is a short index range scan.
+    @Query("select p.postId from Post p where p.createdAt < :cutoff order by p.createdAt, p.postId")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Post p where p.postId in :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
 }
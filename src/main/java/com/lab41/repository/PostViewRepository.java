@@ -0,0 +1,21 @@
+package com.lab41.repository;
+
+import com.lab41.dto.IdCount;
+import com.lab41.model.PostViewCount;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PostViewRepository extends CrudRepository<PostViewCount, Long> {
+
+    @Query("select new com.lab41.dto.IdCount(v.postId, v.viewCount) from PostViewCount v where v.postId in :postIds")
+    List<IdCount> findCountsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("delete from PostViewCount v where v.postId in :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+}
@@ -1,10 +1,38 @@
 package com.lab41.repository;
 
+import com.lab41.dto.DeletedUser;
 import com.lab41.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface UserRepository extends CrudRepository<User, Long> {
     public User findByUsername(String username);
     public User findByEmail(String email);
+
+    @Modifying
+    @Query("update User u set u.deletedAt = :now where u.userId = :userId and u.deletedAt is null")
+    int markDeleted(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query("select new com.lab41.dto.DeletedUser(u.userId, u.deletedAt) from User u " +
+            "where u.deletedAt is not null order by u.deletedAt, u.userId")
+    List<DeletedUser> findDeleted(Pageable pageable);
+
+    @Query("select new com.lab41.dto.DeletedUser(u.userId, u.deletedAt) from User u " +
+            "where u.deletedAt is not null " +
+            "and (u.deletedAt > :deletedAt or (u.deletedAt = :deletedAt and u.userId > :userId)) " +
+            "order by u.deletedAt, u.userId")
+    List<DeletedUser> findDeletedAfter(@Param("deletedAt") LocalDateTime deletedAt,
+                                       @Param("userId") Long userId,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("delete from User u where u.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
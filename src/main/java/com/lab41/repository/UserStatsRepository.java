@@ -0,0 +1,95 @@
+package com.lab41.repository;
+
+import com.lab41.dto.IdCount;
+import com.lab41.model.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface UserStatsRepository extends CrudRepository<UserStats, Long> {
+
+    @Modifying
+    @Query("update UserStats s set s.postCount = s.postCount + :posts, s.likesReceived = s.likesReceived + :likes, " +
+            "s.friendCount = s.friendCount + :friends, s.commentCount = s.commentCount + :comments " +
+            "where s.userId = :userId")
+    int adjust(@Param("userId") Long userId, @Param("posts") long posts, @Param("likes") long likes,
+               @Param("friends") long friends, @Param("comments") long comments);
+
+    // Marks part of the row's counts as archived; the totals above are not changed.
+    @Modifying
+    @Query("update UserStats s set s.archivedPosts = s.archivedPosts + :posts, " +
+            "s.archivedLikesReceived = s.archivedLikesReceived + :likes, " +
+            "s.archivedComments = s.archivedComments + :comments where s.userId = :userId")
+    int adjustArchived(@Param("userId") Long userId, @Param("posts") long posts, @Param("likes") long likes,
+                       @Param("comments") long comments);
+
+    // Ordered by id so two reconcilers lock overlapping chunks in the same order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserStats s where s.userId in :userIds order by s.userId")
+    List<UserStats> lockAllById(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("delete from UserStats s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("select u.userId from User u where u.userId > :after and u.deletedAt is null order by u.userId")
+    List<Long> findActiveUserIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select u.userId from User u where u.userId in :userIds and u.deletedAt is null")
+    List<Long> findActiveUserIdsIn(@Param("userIds") Collection<Long> userIds);
+
+    // Counts from the base tables, per user, for recomputing rows.
+
+    @Query("select new com.lab41.dto.IdCount(p.user.userId, count(p)) from Post p " +
+            "where p.user.userId in :userIds group by p.user.userId")
+    List<IdCount> countPosts(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select new com.lab41.dto.IdCount(p.user.userId, count(l)) from Like l join l.post p " +
+            "where p.user.userId in :userIds group by p.user.userId")
+    List<IdCount> countLikesReceived(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select new com.lab41.dto.IdCount(c.user.userId, count(c)) from Comment c " +
+            "where c.user.userId in :userIds group by c.user.userId")
+    List<IdCount> countComments(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select new com.lab41.dto.IdCount(f.user.userId, count(f)) from Friend f " +
+            "where f.user.userId in :userIds and f.status = com.lab41.model.FriendStatus.ACCEPTED group by f.user.userId")
+    List<IdCount> countFriendsAsSender(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select new com.lab41.dto.IdCount(f.friend.userId, count(f)) from Friend f " +
+            "where f.friend.userId in :userIds and f.status = com.lab41.model.FriendStatus.ACCEPTED group by f.friend.userId")
+    List<IdCount> countFriendsAsReceiver(@Param("userIds") Collection<Long> userIds);
+
+    // What a bulk delete is about to remove, per affected user, so their rows can be decremented.
+
+    @Query("select new com.lab41.dto.IdCount(p.user.userId, count(p)) from Post p " +
+            "where p.postId in :postIds group by p.user.userId")
+    List<IdCount> countPostsByAuthor(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select new com.lab41.dto.IdCount(p.user.userId, count(l)) from Like l join l.post p " +
+            "where p.postId in :postIds group by p.user.userId")
+    List<IdCount> countLikesByAuthorOfPosts(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select new com.lab41.dto.IdCount(c.user.userId, count(c)) from Comment c " +
+            "where c.post.postId in :postIds group by c.user.userId")
+    List<IdCount> countCommentsByAuthorOnPosts(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select new com.lab41.dto.IdCount(p.user.userId, count(l)) from Like l join l.post p " +
+            "where l.likeId in :likeIds group by p.user.userId")
+    List<IdCount> countLikesByAuthor(@Param("likeIds") Collection<Long> likeIds);
+
+    @Query("select new com.lab41.dto.IdCount(c.user.userId, count(c)) from Comment c " +
+            "where c.commentId in :commentIds group by c.user.userId")
+    List<IdCount> countCommentsByAuthor(@Param("commentIds") Collection<Long> commentIds);
+
+    @Query("select case when f.user.userId = :userId then f.friend.userId else f.user.userId end from Friend f " +
+            "where (f.user.userId = :userId or f.friend.userId = :userId) and f.status = com.lab41.model.FriendStatus.ACCEPTED")
+    List<Long> findFriendIds(@Param("userId") Long userId);
+}
@@ -0,0 +1,127 @@
+package com.lab41.service;
+
+import com.lab41.dto.PostActivity;
+import com.lab41.dto.PostEstimate;
+import com.lab41.repository.LikeRepository;
+import com.lab41.sketch.HeavyHitter;
+import com.lab41.sketch.WindowedHeavyHitters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Approximate like and view counts per post. Estimates come from Count-Min sketches, so they cost
+ * the same for every post and never undercount. They overcount by at most {@code epsilon} times all
+ * likes (or views) seen, with probability {@code 1 - delta}. Top posts per window come from
+ * Space-Saving summaries kept per time bucket.
+ * <p>
+ * Likes count once their transaction commits. On startup the like sketches are rebuilt in the
+ * background from the likes of the last {@code buckets * bucket}, so after a restart the all-time
+ * estimates only cover that lookback plus the likes since. Views are not persisted, so view counts
+ * start over with every restart.
+ */
+@Service
+public class ApproximateCountService {
+    private static final Logger log = LoggerFactory.getLogger(ApproximateCountService.class);
+
+    private final LikeRepository likeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final WindowedHeavyHitters likes;
+    private final WindowedHeavyHitters views;
+    private final Duration lookback;
+    // Likes from here on are counted as they commit, so the rebuild replays only what came before.
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    @Autowired
+    public ApproximateCountService(LikeRepository likeRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${lab41.sketch.epsilon:0.001}") double epsilon,
+                                   @Value("${lab41.sketch.delta:0.01}") double delta,
+                                   @Value("${lab41.sketch.capacity:500}") int capacity,
+                                   @Value("${lab41.sketch.bucket:PT1H}") Duration bucket,
+                                   @Value("${lab41.sketch.buckets:24}") int buckets) {
+        this.likeRepository = likeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.likes = new WindowedHeavyHitters(epsilon, delta, capacity, bucket.toMillis(), buckets);
+        this.views = new WindowedHeavyHitters(epsilon, delta, capacity, bucket.toMillis(), buckets);
+        this.lookback = bucket.multipliedBy(buckets);
+    }
+
+    public void recordLike(Long postId) {
+        AfterCommit.run(() -> likes.add(postId, 1, System.currentTimeMillis()));
+    }
+
+    // Unlikes are taken back from the sketches; window rankings only drop the post as buckets expire.
+    public void recordUnlike(Long postId) {
+        AfterCommit.run(() -> likes.add(postId, -1, System.currentTimeMillis()));
+    }
+
+    public void recordView(Long postId) {
+        views.add(postId, 1, System.currentTimeMillis());
+    }
+
+    public PostEstimate estimateLikes(Long postId) {
+        return new PostEstimate(postId, likes.estimate(postId), likes.errorBound());
+    }
+
+    public PostEstimate estimateViews(Long postId) {
+        return new PostEstimate(postId, views.estimate(postId), views.errorBound());
+    }
+
+    public List<PostEstimate> topLiked(Duration window, int limit) {
+        return top(likes, window, limit);
+    }
+
+    public List<PostEstimate> topViewed(Duration window, int limit) {
+        return top(views, window, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "sketch-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        long replayed;
+        try {
+            replayed = readOnlyTransaction.execute(status -> {
+                try (Stream<PostActivity> activity =
+                             likeRepository.streamActivityBetween(startedAt.minus(lookback), startedAt)) {
+                    return activity.mapToLong(like -> {
+                        long at = like.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                        likes.add(like.postId(), 1, at);
+                        return 1;
+                    }).sum();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild like sketches; counting new likes only", e);
+            return;
+        }
+        log.info("Like sketches rebuilt from {} likes of the last {}", replayed, lookback);
+    }
+
+    private List<PostEstimate> top(WindowedHeavyHitters counts, Duration window, int limit) {
+        if (window.isNegative() || window.isZero() || window.toMillis() > counts.maxWindowMillis()) {
+            throw new IllegalArgumentException("Window " + window + " must be positive and at most "
+                    + Duration.ofMillis(counts.maxWindowMillis()) + ".");
+        }
+        List<HeavyHitter> top = counts.top(limit, window.toMillis(), System.currentTimeMillis());
+        return top.stream().map(hitter -> new PostEstimate(hitter.id(), hitter.count(), hitter.error())).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.lab41.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * DataLoader-style coalescing of single-key lookups. Keys requested through {@link #load} are
+ * queued and resolved together by one call to the batch function the first time any of their
+ * results is read; resolved values are cached for the lifetime of the loader, i.e. one request.
+ * Not thread-safe: a loader belongs to the thread serving the request.
+ */
+public class BatchLoader<K, V> {
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final Map<K, V> resolved = new HashMap<>();
+    private final Set<K> pending = new LinkedHashSet<>();
+    private int batches;
+
+    public BatchLoader(Function<Collection<K>, Map<K, V>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    public Deferred<V> load(K key) {
+        if (!resolved.containsKey(key)) {
+            pending.add(key);
+        }
+        return () -> {
+            if (pending.contains(key)) {
+                dispatch();
+            }
+            return Optional.ofNullable(resolved.get(key));
+        };
+    }
+
+    public Map<K, V> loadMany(Collection<K> keys) {
+        keys.forEach(this::load);
+        dispatch();
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = resolved.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<K> keys = new LinkedHashSet<>(pending);
+        pending.clear();
+        Map<K, V> values = batchFunction.apply(keys);
+        batches++;
+        // Remember misses too, so asking again for an unknown id does not trigger another query.
+        keys.forEach(key -> resolved.put(key, values.get(key)));
+    }
+
+    public int batchCount() {
+        return batches;
+    }
+
+    @FunctionalInterface
+    public interface Deferred<V> {
+        Optional<V> get();
+    }
+}
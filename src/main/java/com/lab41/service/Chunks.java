@@ -0,0 +1,31 @@
+package com.lab41.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Splits id lists for {@code IN (...)} queries. Large IN lists defeat statement caching (every
+ * length is a new statement) and some databases cap the number of bind parameters.
+ */
+public final class Chunks {
+    public static final int IN_LIST_SIZE = 500;
+
+    private Chunks() {
+    }
+
+    /**
+     * @return distinct, non-null ids of {@code ids} in encounter order, split into lists of at most {@code size}
+     */
+    public static <T> List<List<T>> of(Collection<T> ids, int size) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.removeIf(Objects::isNull);
+        List<List<T>> chunks = new ArrayList<>((distinct.size() + size - 1) / size);
+        for (int from = 0; from < distinct.size(); from += size) {
+            chunks.add(distinct.subList(from, Math.min(from + size, distinct.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lab41.service;
+
+import com.lab41.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Recomputes {@code posts.comment_count} from the comments table. The column starts at 0 for posts
+ * created before it existed, so the first run after startup doubles as the backfill; later runs
+ * correct drift, e.g. from comments removed by hand.
+ */
+@Service
+public class CommentCountReconciler {
+    private static final Logger log = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    @Autowired
+    public CommentCountReconciler(PostRepository postRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${lab41.posts.comment-count-reconcile-chunk-size:500}") int chunkSize) {
+        this.postRepository = postRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.min(chunkSize, Chunks.IN_LIST_SIZE);
+    }
+
+    /**
+     * Walks all posts in id order, one chunk per transaction.
+     *
+     * @return number of posts whose count was corrected
+     */
+    @Scheduled(fixedDelayString = "${lab41.posts.comment-count-reconcile-interval:PT6H}")
+    public long reconcile() {
+        long fixed = 0;
+        Long after = 0L;
+        PageRequest page = PageRequest.of(0, chunkSize);
+        List<Long> postIds;
+        while (!(postIds = postRepository.findIdsAfter(after, page)).isEmpty()) {
+            List<Long> chunk = postIds;
+            fixed += chunkTransaction.execute(status -> postRepository.recountComments(chunk));
+            after = chunk.get(chunk.size() - 1);
+        }
+        if (fixed > 0) {
+            log.info("Post comment counts reconciled: {} posts corrected", fixed);
+        }
+        return fixed;
+    }
+}
@@ -0,0 +1,184 @@
+package com.lab41.service;
+
+import com.lab41.dto.TrendingPost;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Exponentially decayed scores per id with a running top-{@code capacity} board.
+ * <p>
+ * Uses forward decay: a point scored at time t is stored as {@code w * 2^((t - landmark) / halfLife)}
+ * instead of decaying every score as time passes. All stored scores share the same decay factor,
+ * so an update only touches its own id, the board order never goes stale, and a query reads the
+ * board without locking. {@link #rescale} moves the landmark forward before the stored values grow
+ * too large, and drops ids whose score has decayed to nothing.
+ */
+public final class DecayingLeaderboard {
+    private static final double MAX_EXPONENT = 32;
+
+    private final double halfLifeMillis;
+    private final int capacity;
+    // Updates share the read lock; only rescale, which swaps in a new state, takes the write lock.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile State state;
+
+    public DecayingLeaderboard(long halfLifeMillis, int capacity, long nowMillis) {
+        this.halfLifeMillis = halfLifeMillis;
+        this.capacity = capacity;
+        this.state = new State(nowMillis);
+    }
+
+    public void add(long id, double weight, long atMillis) {
+        boolean rescaleNeeded;
+        lock.readLock().lock();
+        try {
+            State current = state;
+            double forward = weight * Math.pow(2, (atMillis - current.landmark) / halfLifeMillis);
+            current.scores.compute(id, (key, entry) -> {
+                Entry updated = entry == null ? new Entry() : entry;
+                updated.score = Math.max(0, updated.score + forward);
+                current.unrank(updated);
+                if (updated.score > 0 && current.qualifies(updated.score, capacity)) {
+                    current.rank(updated, id);
+                }
+                return updated.score > 0 ? updated : null;
+            });
+            current.trim(capacity);
+            rescaleNeeded = (atMillis - current.landmark) / halfLifeMillis > MAX_EXPONENT;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (rescaleNeeded) {
+            rescale(atMillis, 0);
+        }
+    }
+
+    public void remove(long id) {
+        lock.readLock().lock();
+        try {
+            State current = state;
+            current.scores.computeIfPresent(id, (key, entry) -> {
+                current.unrank(entry);
+                return null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the {@code k} highest scores decayed to {@code nowMillis}, highest first
+     */
+    public List<TrendingPost> top(int k, long nowMillis) {
+        State current = state;
+        double decay = Math.pow(2, -(nowMillis - current.landmark) / halfLifeMillis);
+        List<TrendingPost> top = new ArrayList<>(Math.min(k, capacity));
+        Iterator<Rank> ranks = current.board.descendingIterator();
+        while (top.size() < k && ranks.hasNext()) {
+            Rank rank = ranks.next();
+            top.add(new TrendingPost(rank.id(), rank.score() * decay));
+        }
+        return top;
+    }
+
+    public double score(long id, long nowMillis) {
+        State current = state;
+        Entry entry = current.scores.get(id);
+        return entry == null ? 0 : entry.score * Math.pow(2, -(nowMillis - current.landmark) / halfLifeMillis);
+    }
+
+    public int size() {
+        return state.scores.size();
+    }
+
+    /**
+     * Re-bases every score on {@code nowMillis}, drops those below {@code minScore} and rebuilds the board.
+     *
+     * @return number of ids dropped
+     */
+    public int rescale(long nowMillis, double minScore) {
+        lock.writeLock().lock();
+        try {
+            State old = state;
+            double decay = Math.pow(2, -(nowMillis - old.landmark) / halfLifeMillis);
+            State next = new State(nowMillis);
+            old.scores.forEach((id, entry) -> {
+                double score = entry.score * decay;
+                if (score >= minScore && score > 0) {
+                    Entry moved = new Entry();
+                    moved.score = score;
+                    next.scores.put(id, moved);
+                    next.rank(moved, id);
+                }
+            });
+            next.trim(capacity);
+            state = next;
+            return old.scores.size() - next.scores.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Rank(double score, long id) implements Comparable<Rank> {
+        @Override
+        public int compareTo(Rank other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+    }
+
+    // Guarded by ConcurrentHashMap.compute on its id.
+    private static final class Entry {
+        double score;
+        Rank rank;
+    }
+
+    private static final class State {
+        final long landmark;
+        final ConcurrentHashMap<Long, Entry> scores = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<Rank> board = new ConcurrentSkipListSet<>();
+        final AtomicInteger boardSize = new AtomicInteger();
+
+        State(long landmark) {
+            this.landmark = landmark;
+        }
+
+        boolean qualifies(double score, int capacity) {
+            if (boardSize.get() < capacity) {
+                return true;
+            }
+            Iterator<Rank> ascending = board.iterator();
+            Rank lowest = ascending.hasNext() ? ascending.next() : null;
+            return lowest == null || score > lowest.score();
+        }
+
+        void rank(Entry entry, long id) {
+            entry.rank = new Rank(entry.score, id);
+            if (board.add(entry.rank)) {
+                boardSize.incrementAndGet();
+            }
+        }
+
+        void unrank(Entry entry) {
+            if (entry.rank != null && board.remove(entry.rank)) {
+                boardSize.decrementAndGet();
+            }
+            entry.rank = null;
+        }
+
+        // An evicted id keeps its score and re-enters the board on its next update if it qualifies.
+        // Removals can leave room for it earlier; the next rescale rebuilds the board from all scores.
+        void trim(int capacity) {
+            while (boardSize.get() > capacity && board.pollFirst() != null) {
+                boardSize.decrementAndGet();
+            }
+        }
+    }
+}
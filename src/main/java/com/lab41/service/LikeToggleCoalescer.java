@@ -0,0 +1,131 @@
+package com.lab41.service;
+
+import com.lab41.repository.LikeRepository;
+import com.lab41.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses like/unlike toggles of one user on one post. A toggle only records the wanted state in
+ * memory; once {@code window} has passed since the first toggle, the final state is written through
+ * {@link PostService#applyLikeState}, which skips the write entirely if the like already is in that
+ * state. Twenty taps in two seconds become at most one INSERT or DELETE, often none.
+ * <p>
+ * Toggles are rate limited like the other writes. Only the first toggle of a window checks that the
+ * post exists; a post or user gone by flush time just drops the toggle. Pending toggles are flushed
+ * on shutdown and lost if the process dies.
+ */
+@Service
+public class LikeToggleCoalescer {
+    private static final Logger log = LoggerFactory.getLogger(LikeToggleCoalescer.class);
+
+    private final PostService postService;
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final RateLimiter rateLimiter;
+    private final long windowNanos;
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LikeToggleCoalescer(PostService postService,
+                               PostRepository postRepository,
+                               LikeRepository likeRepository,
+                               RateLimiter rateLimiter,
+                               @Value("${lab41.like-coalescing.window:PT2S}") Duration window) {
+        this.postService = postService;
+        this.postRepository = postRepository;
+        this.likeRepository = likeRepository;
+        this.rateLimiter = rateLimiter;
+        this.windowNanos = window.toNanos();
+    }
+
+    public void setLiked(Long postId, Long userId, boolean liked) {
+        rateLimiter.acquire(userId);
+        Key key = new Key(userId, postId);
+        if (!pending.containsKey(key) && !postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post with ID " + postId + " not found.");
+        }
+        long now = System.nanoTime();
+        pending.compute(key, (k, toggle) -> {
+            Pending updated = toggle == null ? new Pending(now) : toggle;
+            updated.liked = liked;
+            updated.toggles++;
+            return updated;
+        });
+    }
+
+    // Read-your-writes: a pending toggle wins over the stored like.
+    public boolean isLiked(Long postId, Long userId) {
+        Pending toggle = pending.get(new Key(userId, postId));
+        return toggle != null ? toggle.liked : likeRepository.existsByUserIdAndPostId(userId, postId);
+    }
+
+    /**
+     * Writes the final state of every toggle whose window has passed.
+     *
+     * @return number of likes actually added or removed
+     */
+    @Scheduled(fixedDelayString = "${lab41.like-coalescing.flush-interval:PT1S}")
+    public int flush() {
+        return flush(false);
+    }
+
+    @PreDestroy
+    public int flushAll() {
+        return flush(true);
+    }
+
+    private synchronized int flush(boolean all) {
+        long now = System.nanoTime();
+        int toggles = 0;
+        int writes = 0;
+        for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            Pending toggle = entry.getValue();
+            // remove(key, value) serializes with compute, so the toggle cannot change once removed
+            if ((!all && now - toggle.firstAt < windowNanos) || !pending.remove(key, toggle)) {
+                continue;
+            }
+            toggles += toggle.toggles;
+            try {
+                if (postService.applyLikeState(key.postId(), key.userId(), toggle.liked)) {
+                    writes++;
+                }
+            } catch (IllegalArgumentException e) {
+                log.debug("Dropped like toggle of user {} on post {}: {}", key.userId(), key.postId(), e.getMessage());
+            } catch (RuntimeException e) {
+                // a newer toggle taken meanwhile wins; otherwise retry this one on the next flush
+                pending.putIfAbsent(key, toggle);
+                log.warn("Could not write like toggles; retrying on the next flush", e);
+                break;
+            }
+        }
+        if (toggles > 0) {
+            log.debug("Coalesced {} like toggles into {} writes", toggles, writes);
+        }
+        return writes;
+    }
+
+    private record Key(long userId, long postId) {
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute on its key; liked is also read by isLiked.
+    private static final class Pending {
+        final long firstAt;
+        volatile boolean liked;
+        int toggles;
+
+        Pending(long firstAt) {
+            this.firstAt = firstAt;
+        }
+    }
+}
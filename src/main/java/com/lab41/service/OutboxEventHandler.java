@@ -0,0 +1,15 @@
+package com.lab41.service;
+
+import com.lab41.model.OutboxEvent;
+import com.lab41.model.OutboxEventType;
+
+/**
+ * Consumer of outbox events. Delivery is at-least-once, so implementations must be idempotent
+ * or tolerate an occasional duplicate (e.g. approximate counters).
+ */
+public interface OutboxEventHandler {
+
+    boolean supports(OutboxEventType eventType);
+
+    void handle(OutboxEvent event);
+}
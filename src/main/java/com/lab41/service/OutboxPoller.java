@@ -0,0 +1,158 @@
+package com.lab41.service;
+
+import com.lab41.model.OutboxEvent;
+import com.lab41.repository.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Component
+public class OutboxPoller {
+    private static final Logger log = LoggerFactory.getLogger(OutboxPoller.class);
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectProvider<OutboxEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+    private final Duration retention;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+
+    @Autowired
+    public OutboxPoller(OutboxRepository outboxRepository,
+                        ObjectProvider<OutboxEventHandler> handlers,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${lab41.outbox.batch-size:200}") int batchSize,
+                        @Value("${lab41.outbox.max-attempts:10}") int maxAttempts,
+                        @Value("${lab41.outbox.lease:PT1M}") Duration leaseDuration,
+                        @Value("${lab41.outbox.retention:PT24H}") Duration retention,
+                        @Value("${lab41.outbox.retry-backoff:PT1S}") Duration retryBackoff,
+                        @Value("${lab41.outbox.max-retry-backoff:PT10M}") Duration maxRetryBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = leaseDuration;
+        this.retention = retention;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.outbox.poll-interval:PT1S}")
+    public void poll() {
+        int dispatched;
+        do {
+            dispatched = pollOnce();
+        } while (dispatched == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.outbox.purge-interval:PT1H}")
+    public void purgeProcessed() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteProcessedBefore(before));
+        long parked = countParked();
+        if (parked > 0) {
+            log.warn("{} outbox events exhausted {} attempts and are no longer retried", parked, maxAttempts);
+        }
+    }
+
+    /**
+     * Number of unprocessed events that failed {@code max-attempts} times. The poller leaves them
+     * alone; they need a fix in the consumer and a manual reset of their attempts.
+     */
+    public long countParked() {
+        return outboxRepository.countParked(maxAttempts);
+    }
+
+    /**
+     * Claims up to one batch of pending events, dispatches them and acknowledges the ones that
+     * every handler accepted. Failed events are released for a retry after an exponential backoff,
+     * and parked once they reach {@code max-attempts}; events whose claim
+     * expired (e.g. the poller died mid-batch) are picked up again, hence at-least-once delivery.
+     *
+     * @return number of events claimed by this call
+     */
+    public int pollOnce() {
+        String owner = UUID.randomUUID().toString();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch(owner));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> processed = new ArrayList<>(batch.size());
+        // Failed events grouped by the attempt they just failed, which determines their backoff.
+        Map<Integer, List<Long>> failed = new TreeMap<>();
+        for (OutboxEvent event : batch) {
+            if (dispatch(event)) {
+                processed.add(event.getEventId());
+            } else {
+                int attempt = event.getAttempts() + 1;
+                failed.computeIfAbsent(attempt, a -> new ArrayList<>()).add(event.getEventId());
+                if (attempt >= maxAttempts) {
+                    log.error("Outbox event {} ({}) failed {} times and is parked", event.getEventId(),
+                            event.getEventType(), attempt);
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!processed.isEmpty()) {
+                outboxRepository.markProcessed(processed, now);
+            }
+            failed.forEach((attempt, ids) -> outboxRepository.release(ids, now.plus(backoff(attempt))));
+        });
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claimBatch(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiry = now.minus(leaseDuration);
+        List<Long> ids = outboxRepository.findClaimableIds(now, leaseExpiry, maxAttempts, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (outboxRepository.claim(ids, owner, now, leaseExpiry) == 0) {
+            return List.of();
+        }
+        return outboxRepository.findByClaimedByAndProcessedAtIsNullOrderByEventIdAsc(owner);
+    }
+
+    // retry-backoff doubled for every further failed attempt, capped at max-retry-backoff.
+    Duration backoff(int attempt) {
+        int doublings = Math.min(attempt - 1, 30);
+        Duration delay = retryBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    private boolean dispatch(OutboxEvent event) {
+        try {
+            handlers.orderedStream()
+                    .filter(handler -> handler.supports(event.getEventType()))
+                    .forEach(handler -> handler.handle(event));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Outbox event {} ({}) failed on attempt {}", event.getEventId(), event.getEventType(),
+                    event.getAttempts() + 1, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.lab41.service;
+
+import com.lab41.model.OutboxEvent;
+import com.lab41.model.OutboxEventType;
+import com.lab41.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Autowired
+    public OutboxService(OutboxRepository outboxRepository, ReadYourWritesTracker readYourWritesTracker) {
+        this.outboxRepository = outboxRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    // Must join the caller's transaction: the event is only worth anything if it commits
+    // (or rolls back) together with the change it describes.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(OutboxEventType eventType, Long aggregateId, Long actorId, Long targetId) {
+        return record(eventType, aggregateId, actorId, targetId, null);
+    }
+
+    // subjectCreatedAt is when the like or comment the event is about was created; trending scores it then.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(OutboxEventType eventType, Long aggregateId, Long actorId, Long targetId,
+                              LocalDateTime subjectCreatedAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setActorId(actorId);
+        event.setTargetId(targetId);
+        event.setSubjectCreatedAt(subjectCreatedAt);
+        // Every user-initiated mutation passes through here, so this is also where the actor's
+        // subsequent reads get pinned to the primary.
+        readYourWritesTracker.markWrite(actorId);
+        return outboxRepository.save(event);
+    }
+}
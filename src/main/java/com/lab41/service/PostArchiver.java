@@ -0,0 +1,137 @@
+package com.lab41.service;
+
+import com.lab41.archive.ArchivedComment;
+import com.lab41.archive.ArchivedPost;
+import com.lab41.archive.PostArchive;
+import com.lab41.dto.CommentView;
+import com.lab41.model.OutboxEventType;
+import com.lab41.model.Post;
+import com.lab41.repository.CommentRepository;
+import com.lab41.repository.LikeRepository;
+import com.lab41.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves posts older than {@code lab41.archive.after} with their comments and like counts from the
+ * database into {@link PostArchive} segments, one segment per batch. The segment is written before
+ * the rows are deleted in the same transaction, so a failure leaves the posts in the hot tables
+ * (and possibly also in the archive, where reads ignore them).
+ * <p>
+ * Archived posts are read-only: updates, comments and likes on them fail as for unknown posts.
+ */
+@Service
+public class PostArchiver {
+    private static final Logger log = LoggerFactory.getLogger(PostArchiver.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final LikeRepository likeRepository;
+    private final PostArchive postArchive;
+    private final PostViewTracker postViewTracker;
+    private final OutboxService outboxService;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Period after;
+    private final Pageable batch;
+
+    @Autowired
+    public PostArchiver(PostRepository postRepository,
+                        CommentRepository commentRepository,
+                        LikeRepository likeRepository,
+                        PostArchive postArchive,
+                        PostViewTracker postViewTracker,
+                        OutboxService outboxService,
+                        UserStatsService userStatsService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${lab41.archive.enabled:false}") boolean enabled,
+                        @Value("${lab41.archive.after:P6M}") Period after,
+                        @Value("${lab41.archive.segment-size:5000}") int segmentSize) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.likeRepository = likeRepository;
+        this.postArchive = postArchive;
+        this.postViewTracker = postViewTracker;
+        this.outboxService = outboxService;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.after = after;
+        this.batch = PageRequest.of(0, segmentSize);
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.archive.interval:PT1H}")
+    public void archiveExpired() {
+        if (enabled) {
+            archiveOlderThan(LocalDateTime.now().minus(after));
+        }
+    }
+
+    /**
+     * @return number of posts moved to the archive
+     */
+    public long archiveOlderThan(LocalDateTime cutoff) {
+        long total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += archived;
+        } while (archived > 0);
+        if (total > 0) {
+            log.info("Archived {} posts created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> postIds = postRepository.findIdsCreatedBefore(cutoff, batch);
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        List<ArchivedPost> posts = new ArrayList<>(postIds.size());
+        for (List<Long> chunk : Chunks.of(postIds, Chunks.IN_LIST_SIZE)) {
+            Map<Long, Long> likeCounts = new HashMap<>();
+            likeRepository.countByPostIds(chunk).forEach(count -> likeCounts.put(count.id(), count.count()));
+            Map<Long, List<ArchivedComment>> comments = new HashMap<>();
+            for (CommentView comment : commentRepository.findViewsByPostIds(chunk)) {
+                comments.computeIfAbsent(comment.postId(), postId -> new ArrayList<>())
+                        .add(new ArchivedComment(comment.id(), comment.authorId(), comment.content(), comment.createdAt()));
+            }
+            for (Post post : postRepository.findAllWithUserByIdIn(chunk)) {
+                posts.add(new ArchivedPost(post.getPostId(), post.getUser().getUserId(), post.getContent(),
+                        post.getCreatedAt(), likeCounts.getOrDefault(post.getPostId(), 0L),
+                        comments.getOrDefault(post.getPostId(), List.of())));
+            }
+        }
+        posts.sort(Comparator.comparing(ArchivedPost::createdAt).thenComparing(ArchivedPost::postId));
+        postArchive.append(posts);
+
+        for (List<Long> chunk : Chunks.of(postIds, Chunks.IN_LIST_SIZE)) {
+            userStatsService.beforePostsArchived(chunk);
+            likeRepository.deleteByPostIdIn(chunk);
+            commentRepository.deleteByPostIdIn(chunk);
+            postViewTracker.delete(chunk);
+            postRepository.deleteByPostIdIn(chunk);
+            // Consumers treat an archived post like a deleted one, e.g. trending drops it.
+            chunk.forEach(postId -> outboxService.record(OutboxEventType.POST_DELETED, postId, null, null));
+        }
+        return posts.size();
+    }
+}
@@ -0,0 +1,139 @@
+package com.lab41.service;
+
+import com.lab41.archive.PostArchive;
+import com.lab41.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purges posts older than {@code lab41.retention.max-age}. Each batch takes the oldest ids from the
+ * created_at index and removes them through {@link PostService#deletePosts} in its own transaction,
+ * and batches are spaced so the purge never deletes more than max-rows-per-second posts. Archive
+ * segments whose posts are all past the cutoff are deleted at the end of a run.
+ * <p>
+ * Pausing stops the current run after its batch and skips scheduled runs until resumed. There is
+ * no cursor to keep: the next run simply starts again from the oldest remaining post.
+ */
+@Service
+public class PostRetentionService {
+    private static final Logger log = LoggerFactory.getLogger(PostRetentionService.class);
+
+    private final PostRepository postRepository;
+    private final PostService postService;
+    private final PostArchive postArchive;
+    private final UserStatsService userStatsService;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Pageable batch;
+    private final int maxRowsPerSecond;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public PostRetentionService(PostRepository postRepository,
+                                PostService postService,
+                                PostArchive postArchive,
+                                UserStatsService userStatsService,
+                                @Value("${lab41.retention.enabled:false}") boolean enabled,
+                                @Value("${lab41.retention.max-age:P365D}") Duration maxAge,
+                                @Value("${lab41.retention.batch-size:500}") int batchSize,
+                                @Value("${lab41.retention.max-rows-per-second:1000}") int maxRowsPerSecond) {
+        this.postRepository = postRepository;
+        this.postService = postService;
+        this.postArchive = postArchive;
+        this.userStatsService = userStatsService;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.batch = PageRequest.of(0, Math.min(batchSize, Chunks.IN_LIST_SIZE));
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.retention.interval:PT10M}")
+    public void purgeExpired() {
+        if (enabled) {
+            purgeOlderThan(LocalDateTime.now().minus(maxAge));
+        }
+    }
+
+    /**
+     * Deletes posts created before {@code cutoff} batch by batch until none are left, the service is
+     * paused or the thread is interrupted. Returns immediately if a purge is already running.
+     *
+     * @return number of posts deleted by this call
+     */
+    public long purgeOlderThan(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long total = 0;
+        try {
+            while (!paused.get()) {
+                long started = System.nanoTime();
+                List<Long> postIds = postRepository.findIdsCreatedBefore(cutoff, batch);
+                if (postIds.isEmpty()) {
+                    break;
+                }
+                total += postService.deletePosts(postIds);
+                if (!throttle(postIds.size(), System.nanoTime() - started)) {
+                    break;
+                }
+            }
+            if (!paused.get()) {
+                total += postArchive.dropOlderThan(cutoff, userStatsService::beforeArchivedPostsDropped);
+            }
+        } finally {
+            running.set(false);
+        }
+        if (total > 0) {
+            log.info("Retention purged {} posts created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    public void pause() {
+        paused.set(true);
+    }
+
+    public void resume() {
+        paused.set(false);
+    }
+
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // Sleeps off whatever is left of the time budget for this batch; false if interrupted.
+    private boolean throttle(int rows, long elapsedNanos) {
+        if (maxRowsPerSecond <= 0) {
+            return true;
+        }
+        long budgetNanos = TimeUnit.SECONDS.toNanos(rows) / maxRowsPerSecond;
+        long sleepNanos = budgetNanos - elapsedNanos;
+        if (sleepNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,106 +1,268 @@
 package com.lab41.service;
 
+import com.lab41.archive.ArchivedComment;
+import com.lab41.archive.ArchivedPost;
+import com.lab41.archive.PostArchive;
+import com.lab41.dto.CommentCursor;
+import com.lab41.dto.CommentPage;
+import com.lab41.dto.CommentRef;
+import com.lab41.dto.CommentView;
+import com.lab41.dto.IdCount;
+import com.lab41.dto.LikeView;
+import com.lab41.dto.PostEstimate;
+import com.lab41.dto.PostSummary;
+import com.lab41.dto.PostText;
 import com.lab41.model.Comment;
 import com.lab41.model.Like;
+import com.lab41.model.OutboxEventType;
 import com.lab41.model.Post;
 import com.lab41.model.User;
+import com.lab41.monitoring.jfr.FeedBuiltEvent;
+import com.lab41.monitoring.jfr.LikeAddedEvent;
+import com.lab41.monitoring.jfr.PostCreatedEvent;
 import com.lab41.repository.CommentRepository;
 import com.lab41.repository.LikeRepository;
 import com.lab41.repository.PostRepository;
 import com.lab41.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 public class PostService {
+    private static final int SEARCH_PAGE_SIZE = 200;
+
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final LikeRepository likeRepository;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final ServiceExecutor serviceExecutor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final PostArchive postArchive;
+    private final ApproximateCountService approximateCounts;
+    private final UniqueInteractionService uniqueInteractions;
+    private final PostViewTracker postViewTracker;
+    private final UserStatsService userStatsService;
+    private final RateLimiter rateLimiter;
 
     @Autowired
     public PostService(PostRepository postRepository,
                        CommentRepository commentRepository,
                        LikeRepository likeRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       OutboxService outboxService,
+                       ServiceExecutor serviceExecutor,
+                       ReadYourWritesTracker readYourWritesTracker,
+                       PostArchive postArchive,
+                       ApproximateCountService approximateCounts,
+                       UniqueInteractionService uniqueInteractions,
+                       PostViewTracker postViewTracker,
+                       UserStatsService userStatsService,
+                       RateLimiter rateLimiter) {
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
         this.likeRepository = likeRepository;
         this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.serviceExecutor = serviceExecutor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.postArchive = postArchive;
+        this.approximateCounts = approximateCounts;
+        this.uniqueInteractions = uniqueInteractions;
+        this.postViewTracker = postViewTracker;
+        this.userStatsService = userStatsService;
+        this.rateLimiter = rateLimiter;
     }
 
 
     @Transactional
     public Post createPost(Long userId, String content) {
+        PostCreatedEvent event = new PostCreatedEvent();
+        event.begin();
+        rateLimiter.acquire(userId);
         User user = userRepository.findById(userId)
+                .filter(UserService::isActive)
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
 
         Post post = new Post();
         post.setUser(user);
         post.setContent(content);
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        outboxService.record(OutboxEventType.POST_CREATED, saved.getPostId(), userId, null);
+        userStatsService.adjustPosts(userId, 1);
+        if (event.isEnabled()) {
+            event.postId = saved.getPostId();
+            event.authorId = userId;
+            event.contentLength = content == null ? 0 : content.length();
+            AfterCommit.run(event::commit);
+        }
+        return saved;
     }
 
 
+    @Transactional(readOnly = true)
     public Optional<Post> getPostById(Long postId) {
-        return postRepository.findById(postId);
+        Optional<Post> post = postRepository.findById(postId);
+        if (post.isEmpty()) {
+            post = postArchive.find(postId).flatMap(archived -> fromArchive(List.of(archived)).stream().findFirst());
+        }
+        post.ifPresent(found -> {
+            postViewTracker.record(postId);
+            approximateCounts.recordView(postId);
+        });
+        return post;
     }
 
+    // getPostById on behalf of a signed-in reader, who then counts towards the post's unique audience.
+    @Transactional(readOnly = true)
+    public Optional<Post> viewPost(Long postId, Long viewerId) {
+        Optional<Post> post = getPostById(postId);
+        post.ifPresent(found -> uniqueInteractions.recordInteraction(postId, found.getUser().getUserId(), viewerId));
+        return post;
+    }
+
+    // Result follows the order of postIds; ids without a post are left out.
+    @Transactional(readOnly = true)
+    public Map<Long, Post> getPostsByIds(Collection<Long> postIds) {
+        Map<Long, Post> found = new HashMap<>();
+        for (List<Long> chunk : Chunks.of(postIds, Chunks.IN_LIST_SIZE)) {
+            postRepository.findAllWithUserByIdIn(chunk).forEach(post -> found.put(post.getPostId(), post));
+        }
+        Map<Long, Post> posts = new LinkedHashMap<>();
+        postIds.forEach(postId -> {
+            Post post = found.get(postId);
+            if (post != null) {
+                posts.put(postId, post);
+            }
+        });
+        return posts;
+    }
+
+    @Transactional(readOnly = true)
     public List<Post> getAllPosts() {
         return (List<Post>) postRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<Post> getPostsByUser(Long userId) {
+        readYourWritesTracker.pinIfRecentWriter(userId);
+        // The archive is read from segment files, not the database, so it is scanned while the queries run.
+        ServiceExecutor.Forked<List<ArchivedPost>> archived = serviceExecutor.fork(() -> postArchive.findByUser(userId));
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
-        return postRepository.findByUserOrderByCreatedAtDesc(user);
+        return withArchived(postRepository.findByUserOrderByCreatedAtDesc(user), archived.join());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostSummary> getPostSummariesByUser(Long userId, int page, int size) {
+        FeedBuiltEvent event = new FeedBuiltEvent();
+        event.begin();
+        readYourWritesTracker.pinIfRecentWriter(userId);
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User with ID " + userId + " not found.");
+        }
+        List<PostSummary> summaries = postRepository.findSummariesByUserId(userId, PageRequest.of(page, size));
+        event.userId = userId;
+        event.page = page;
+        event.posts = summaries.size();
+        event.commit();
+        return summaries;
     }
 
     @Transactional
     public Post updatePost(Long postId, String newContent) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
+        rateLimiter.acquire(post.getUser().getUserId());
 
         post.setContent(newContent);
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        outboxService.record(OutboxEventType.POST_UPDATED, postId, post.getUser().getUserId(), null);
+        return saved;
     }
 
 
     @Transactional
     public void deletePost(Long postId) {
-        if (!postRepository.existsById(postId)) {
+        Long ownerId = postRepository.findUserIdByPostId(postId)
+                .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found for deletion."));
+        rateLimiter.acquire(ownerId);
+        if (deletePosts(List.of(postId)) == 0) {
             throw new IllegalArgumentException("Post with ID " + postId + " not found for deletion.");
         }
-        postRepository.deleteById(postId);
+    }
+
+    /**
+     * Deletes the given posts with their likes and comments using one statement per table and
+     * chunk, instead of loading each post and cascading over its comments. Unknown ids are skipped.
+     * Not rate limited: besides {@link #deletePost} it serves retention, which acts for no user.
+     *
+     * @return number of posts deleted
+     */
+    @Transactional
+    public int deletePosts(Collection<Long> postIds) {
+        int deleted = 0;
+        for (List<Long> chunk : Chunks.of(postIds, Chunks.IN_LIST_SIZE)) {
+            List<Long> existing = postRepository.findExistingIds(chunk);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            userStatsService.beforePostsDeleted(existing);
+            likeRepository.deleteByPostIdIn(existing);
+            commentRepository.deleteByPostIdIn(existing);
+            postViewTracker.delete(existing);
+            deleted += postRepository.deleteByPostIdIn(existing);
+            existing.forEach(postId -> outboxService.record(OutboxEventType.POST_DELETED, postId, null, null));
+        }
+        return deleted;
     }
 
     @Transactional
     public Comment addCommentToPost(Long postId, Long userId, String content) {
+        rateLimiter.acquire(userId);
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
         User user = userRepository.findById(userId)
+                .filter(UserService::isActive)
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
 
         Comment comment = new Comment();
         comment.setPost(post);
         comment.setUser(user);
         comment.setContent(content);
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        postRepository.adjustCommentCount(postId, 1);
+        outboxService.record(OutboxEventType.COMMENT_ADDED, saved.getCommentId(), userId, postId, saved.getCreatedAt());
+        userStatsService.adjustComments(userId, 1);
+        uniqueInteractions.recordInteraction(postId, post.getUser().getUserId(), userId);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Comment> getCommentById(Long commentId) {
         return commentRepository.findById(commentId);
     }
 
-
+    @Transactional(readOnly = true)
     public List<Comment> getCommentsByPost(Long postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
@@ -108,55 +270,210 @@ public class PostService {
     }
 
 
+    @Transactional(readOnly = true)
+    public List<CommentView> getCommentViewsByPost(Long postId, int page, int size) {
+        if (!postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post with ID " + postId + " not found.");
+        }
+        return commentRepository.findViewsByPostId(postId, PageRequest.of(page, size));
+    }
+
+
+    @Transactional(readOnly = true)
+    public CommentPage getCommentsByPost(Long postId, CommentCursor after, int limit) {
+        requirePageSize(limit);
+        if (!postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post with ID " + postId + " not found.");
+        }
+        PageRequest window = PageRequest.of(0, limit + 1);
+        List<CommentView> rows = after == null
+                ? commentRepository.findViewsByPostId(postId, window)
+                : commentRepository.findViewsAfter(postId, after.createdAt(), after.commentId(), window);
+        List<CommentView> comments = rows.subList(0, Math.min(limit, rows.size()));
+        CommentCursor previous = after == null || comments.isEmpty() ? null : CommentCursor.of(comments.get(0));
+        CommentCursor next = rows.size() > limit ? CommentCursor.of(comments.get(comments.size() - 1)) : null;
+        return new CommentPage(List.copyOf(comments), previous, next);
+    }
+
+    // Without a cursor this is the newest page of the thread.
+    @Transactional(readOnly = true)
+    public CommentPage getCommentsByPostBefore(Long postId, CommentCursor before, int limit) {
+        requirePageSize(limit);
+        if (!postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post with ID " + postId + " not found.");
+        }
+        PageRequest window = PageRequest.of(0, limit + 1);
+        List<CommentView> rows = before == null
+                ? commentRepository.findNewestViewsByPostId(postId, window)
+                : commentRepository.findViewsBefore(postId, before.createdAt(), before.commentId(), window);
+        List<CommentView> comments = new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+        Collections.reverse(comments);
+        CommentCursor previous = rows.size() > limit ? CommentCursor.of(comments.get(0)) : null;
+        CommentCursor next = before == null || comments.isEmpty() ? null : CommentCursor.of(comments.get(comments.size() - 1));
+        return new CommentPage(List.copyOf(comments), previous, next);
+    }
+
+    // Page of up to limit comments with the requested one in the middle, for "jump to comment" links.
+    @Transactional(readOnly = true)
+    public CommentPage getCommentPageAround(Long commentId, int limit) {
+        requirePageSize(limit);
+        CommentView target = commentRepository.findViewById(commentId)
+                .orElseThrow(() -> new IllegalArgumentException("Comment with ID " + commentId + " not found."));
+        int beforeCount = (limit - 1) / 2;
+        int afterCount = limit - 1 - beforeCount;
+
+        // One extra row on each side tells whether there is anything beyond this page.
+        List<CommentView> before = commentRepository.findViewsBefore(
+                target.postId(), target.createdAt(), target.id(), PageRequest.of(0, beforeCount + 1));
+        List<CommentView> after = commentRepository.findViewsAfter(
+                target.postId(), target.createdAt(), target.id(), PageRequest.of(0, afterCount + 1));
+
+        List<CommentView> comments = new ArrayList<>(limit);
+        comments.addAll(before.subList(0, Math.min(beforeCount, before.size())));
+        Collections.reverse(comments);
+        comments.add(target);
+        comments.addAll(after.subList(0, Math.min(afterCount, after.size())));
+
+        CommentCursor previous = before.size() > beforeCount ? CommentCursor.of(comments.get(0)) : null;
+        CommentCursor next = after.size() > afterCount ? CommentCursor.of(comments.get(comments.size() - 1)) : null;
+        return new CommentPage(List.copyOf(comments), previous, next);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, List<CommentView>> getLatestComments(Collection<Long> postIds, int perPost) {
+        if (perPost < 1) {
+            throw new IllegalArgumentException("Number of comments per post must be positive.");
+        }
+        Map<Long, List<CommentView>> latest = new LinkedHashMap<>();
+        postIds.forEach(postId -> latest.put(postId, new ArrayList<>()));
+        if (latest.isEmpty()) {
+            return latest;
+        }
+        commentRepository.findLatestViewsByPostIds(latest.keySet(), perPost)
+                .forEach(view -> latest.get(view.postId()).add(view));
+        return latest;
+    }
+
+
     @Transactional
     public Comment updateComment(Long commentId, String newContent) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new IllegalArgumentException("Comment with ID " + commentId + " not found."));
+        rateLimiter.acquire(comment.getUser().getUserId());
 
         comment.setContent(newContent);
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        outboxService.record(OutboxEventType.COMMENT_UPDATED, commentId, comment.getUser().getUserId(),
+                comment.getPost().getPostId());
+        return saved;
     }
 
 
     @Transactional
     public void deleteComment(Long commentId) {
-        if (!commentRepository.existsById(commentId)) {
-            throw new IllegalArgumentException("Comment with ID " + commentId + " not found for deletion.");
-        }
+        CommentRef comment = commentRepository.findRefById(commentId)
+                .orElseThrow(() -> new IllegalArgumentException("Comment with ID " + commentId + " not found for deletion."));
+        rateLimiter.acquire(comment.userId());
+        userStatsService.beforeCommentsDeleted(List.of(commentId));
         commentRepository.deleteById(commentId);
+        postRepository.adjustCommentCount(comment.postId(), -1);
+        outboxService.record(OutboxEventType.COMMENT_DELETED, commentId, null, comment.postId(), comment.createdAt());
     }
 
 
     @Transactional
     public Like addLikeToPost(Long postId, Long userId) {
+        LikeAddedEvent event = new LikeAddedEvent();
+        event.begin();
+        rateLimiter.acquire(userId);
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
         User user = userRepository.findById(userId)
+                .filter(UserService::isActive)
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
 
         if (likeRepository.findByUserAndPost(user, post).isPresent()) {
             throw new IllegalArgumentException("User with ID " + userId + " has already liked post with ID " + postId + ".");
         }
 
-        Like like = new Like();
-        like.setUser(user);
-        like.setPost(post);
-        return likeRepository.save(like);
+        Like saved = saveLike(post, user);
+        commitLikeAdded(event, postId, userId, false);
+        return saved;
     }
 
+    /**
+     * Brings the user's like on the post to {@code liked}, doing nothing if it already is. This is
+     * the write behind {@link LikeToggleCoalescer}; it is not rate limited, the toggles were.
+     *
+     * @return true if a like was added or removed
+     */
+    @Transactional
+    public boolean applyLikeState(Long postId, Long userId, boolean liked) {
+        LikeAddedEvent event = new LikeAddedEvent();
+        event.begin();
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
+        User user = userRepository.findById(userId)
+                .filter(found -> !liked || UserService.isActive(found))
+                .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
 
+        Optional<Like> existing = likeRepository.findByUserAndPost(user, post);
+        if (existing.isPresent() == liked) {
+            return false;
+        }
+        if (liked) {
+            saveLike(post, user);
+            commitLikeAdded(event, postId, userId, true);
+        } else {
+            deleteLike(post, existing.get(), userId);
+        }
+        return true;
+    }
+
+
+    @Transactional(readOnly = true)
     public Optional<Like> getLikeById(Long likeId) {
         return likeRepository.findById(likeId);
     }
 
 
+    @Transactional(readOnly = true)
     public List<Like> getLikesByPost(Long postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
         return likeRepository.findByPost(post);
     }
 
+    @Transactional(readOnly = true)
+    public List<LikeView> getLikeViewsByPost(Long postId, int page, int size) {
+        if (!postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post with ID " + postId + " not found.");
+        }
+        return likeRepository.findViewsByPostId(postId, PageRequest.of(page, size));
+    }
+
+    // Every requested id is present in the result, posts without likes (or unknown ids) map to 0.
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getLikeCounts(Collection<Long> postIds) {
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        postIds.forEach(postId -> counts.put(postId, 0L));
+        for (List<Long> chunk : Chunks.of(postIds, Chunks.IN_LIST_SIZE)) {
+            for (IdCount count : likeRepository.countByPostIds(chunk)) {
+                counts.put(count.id(), count.count());
+            }
+        }
+        return counts;
+    }
+
+    // Views recorded by getPostById, including those not yet flushed; unknown ids map to 0.
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getViewCounts(Collection<Long> postIds) {
+        return postViewTracker.getViewCounts(postIds);
+    }
+
+    @Transactional(readOnly = true)
     public List<Like> getLikesByUser(Long userId) {
+        readYourWritesTracker.pinIfRecentWriter(userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
         return likeRepository.findByUser(user);
@@ -165,6 +482,7 @@ public class PostService {
 
     @Transactional
     public void removeLikeFromPost(Long postId, Long userId) {
+        rateLimiter.acquire(userId);
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post with ID " + postId + " not found."));
         User user = userRepository.findById(userId)
@@ -173,17 +491,71 @@ public class PostService {
         Like like = likeRepository.findByUserAndPost(user, post)
                 .orElseThrow(() -> new IllegalArgumentException("Like from user " + userId + " on post " + postId + " not found."));
 
-        likeRepository.delete(like);
+        deleteLike(post, like, userId);
+    }
+
+    // Sketch estimate: never below the true count, and at most estimate.error() above it.
+    public PostEstimate estimateLikes(Long postId) {
+        return approximateCounts.estimateLikes(postId);
+    }
+
+    // Most liked posts in the window by approximate count, without touching the likes table.
+    public List<PostEstimate> topPostsApprox(Duration window, int limit) {
+        return approximateCounts.topLiked(window, limit);
+    }
+
+    // Approximate number of distinct users who liked, commented on or viewed the post in the last window.
+    public long countUniqueInteractors(Long postId, Duration window) {
+        return uniqueInteractions.countPostInteractors(postId, window);
+    }
+
+    // Approximate number of distinct users who interacted with any of the author's posts in the last window.
+    public long countUniqueAudience(Long authorId, Duration window) {
+        return uniqueInteractions.countAuthorAudience(authorId, window);
     }
 
+    @Transactional(readOnly = true)
     public List<Post> searchPostsByContent(String keyword) {
-        return postRepository.findByContentContainingIgnoreCase(keyword);
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        List<Post> matches = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Post post : postRepository.findByContentContainingIgnoreCase(keyword)) {
+            // a compressed post can match on its Base64 tail, so every hit is checked on the decoded text
+            seen.add(post.getPostId());
+            if (containsIgnoreCase(post.getContent(), lowerKeyword)) {
+                matches.add(post);
+            }
+        }
+        // LIKE only sees the plain prefix of compressed posts; the rest is matched page by page on
+        // the decoded text, and only the hits are loaded as entities.
+        List<Long> compressedHits = new ArrayList<>();
+        PageRequest page = PageRequest.of(0, SEARCH_PAGE_SIZE);
+        List<PostText> texts = postRepository.findEncodedTextsAfter(0L, page);
+        while (!texts.isEmpty()) {
+            texts.stream()
+                    .filter(text -> !seen.contains(text.postId()) && containsIgnoreCase(text.content(), lowerKeyword))
+                    .forEach(text -> compressedHits.add(text.postId()));
+            texts = postRepository.findEncodedTextsAfter(texts.get(texts.size() - 1).postId(), page);
+        }
+        for (List<Long> chunk : Chunks.of(compressedHits, Chunks.IN_LIST_SIZE)) {
+            matches.addAll(postRepository.findAllWithUserByIdIn(chunk));
+        }
+        return matches;
+    }
+
+    private static boolean containsIgnoreCase(String content, String lowerKeyword) {
+        return content != null && content.toLowerCase(Locale.ROOT).contains(lowerKeyword);
     }
 
+    @Transactional(readOnly = true)
     public List<Post> getPostsBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return postRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startDate, endDate);
+        ServiceExecutor.Forked<List<ArchivedPost>> archived =
+                serviceExecutor.fork(() -> postArchive.findBetween(startDate, endDate));
+        return withArchived(postRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startDate, endDate),
+                archived.join());
     }
 
+    @Transactional(readOnly = true)
     public List<Post> getTopPostsForUserByLikes(Long userId, int limit) {
             try {
                 Optional<User> user = userRepository.findById(userId);
@@ -201,5 +573,99 @@ public class PostService {
             }
     }
 
+    private Like saveLike(Post post, User user) {
+        Like like = new Like();
+        like.setUser(user);
+        like.setPost(post);
+        Like saved = likeRepository.save(like);
+        outboxService.record(OutboxEventType.LIKE_ADDED, saved.getLikeId(), user.getUserId(), post.getPostId(),
+                saved.getCreatedAt());
+        userStatsService.adjustLikesReceived(post.getUser().getUserId(), 1);
+        approximateCounts.recordLike(post.getPostId());
+        uniqueInteractions.recordInteraction(post.getPostId(), post.getUser().getUserId(), user.getUserId());
+        return saved;
+    }
+
+    // Ends the event once the transaction commits, so its duration includes the commit and a rolled back like emits nothing.
+    private static void commitLikeAdded(LikeAddedEvent event, Long postId, Long userId, boolean coalesced) {
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.postId = postId;
+        event.userId = userId;
+        event.coalesced = coalesced;
+        AfterCommit.run(event::commit);
+    }
+
+    private void deleteLike(Post post, Like like, Long userId) {
+        likeRepository.delete(like);
+        outboxService.record(OutboxEventType.LIKE_REMOVED, like.getLikeId(), userId, post.getPostId(), like.getCreatedAt());
+        userStatsService.adjustLikesReceived(post.getUser().getUserId(), -1);
+        approximateCounts.recordUnlike(post.getPostId());
+    }
 
+    // Hot rows win over archived copies of the same post; the result stays newest first.
+    private List<Post> withArchived(List<Post> hot, List<ArchivedPost> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = hot.stream().map(Post::getPostId).collect(Collectors.toSet());
+        List<Post> merged = new ArrayList<>(hot);
+        merged.addAll(fromArchive(archived.stream().filter(post -> !hotIds.contains(post.postId())).toList()));
+        merged.sort(Comparator.comparing(Post::getCreatedAt).reversed());
+        return merged;
+    }
+
+    // Rebuilds detached Post objects; posts and comments by users purged since archiving are left out.
+    private List<Post> fromArchive(List<ArchivedPost> archived) {
+        Set<Long> userIds = new HashSet<>();
+        archived.forEach(post -> {
+            userIds.add(post.userId());
+            post.comments().forEach(comment -> userIds.add(comment.userId()));
+        });
+        Map<Long, User> users = new HashMap<>();
+        for (List<Long> chunk : Chunks.of(userIds, Chunks.IN_LIST_SIZE)) {
+            userRepository.findAllById(chunk).forEach(user -> {
+                if (UserService.isActive(user)) {
+                    users.put(user.getUserId(), user);
+                }
+            });
+        }
+
+        List<Post> posts = new ArrayList<>(archived.size());
+        for (ArchivedPost archivedPost : archived) {
+            User author = users.get(archivedPost.userId());
+            if (author == null) {
+                continue;
+            }
+            Post post = new Post();
+            post.setPostId(archivedPost.postId());
+            post.setUser(author);
+            post.setContent(archivedPost.content());
+            post.setCreatedAt(archivedPost.createdAt());
+            post.setArchivedLikeCount(archivedPost.likeCount());
+            for (ArchivedComment archivedComment : archivedPost.comments()) {
+                User commenter = users.get(archivedComment.userId());
+                if (commenter == null) {
+                    continue;
+                }
+                Comment comment = new Comment();
+                comment.setCommentId(archivedComment.commentId());
+                comment.setPost(post);
+                comment.setUser(commenter);
+                comment.setContent(archivedComment.content());
+                comment.setCreatedAt(archivedComment.createdAt());
+                post.getComments().add(comment);
+            }
+            post.setCommentCount(post.getComments().size());
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    private static void requirePageSize(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package com.lab41.service;
+
+import com.lab41.dto.IdCount;
+import com.lab41.repository.PostViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind view counter. A view increments a counter in one of {@code stripes} small maps, each
+ * behind its own lock; the stripe is picked at random so even a single viral post spreads its
+ * increments over all of them. Every flush interval the stripes are swapped out, summed per post
+ * and written as one batched MERGE of deltas into {@code post_views}, so a million views of a
+ * thousand posts cost a thousand row updates.
+ * <p>
+ * Counts read through {@link #getViewCounts} include views not yet flushed. A flush moves the
+ * stripes into the in-flight map and later commits it and clears it, each step under the write lock.
+ * A read holds the read lock while it reads both the table and the buffers, so every delta is
+ * counted exactly once. Deltas for posts that no longer exist are dropped by the MERGE. Views still
+ * buffered when the process dies are lost.
+ */
+@Service
+public class PostViewTracker {
+    private static final Logger log = LoggerFactory.getLogger(PostViewTracker.class);
+    private static final String UPSERT = """
+            merge into post_views v
+            using (select p.post_id, cast(? as bigint) as delta from posts p where p.post_id = ?) d
+            on v.post_id = d.post_id
+            when matched then update set view_count = v.view_count + d.delta, updated_at = current_timestamp
+            when not matched then insert (post_id, view_count, updated_at) values (d.post_id, d.delta, current_timestamp)
+            """;
+
+    private final PostViewRepository postViewRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final Stripe[] stripes;
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    // Deltas taken out of the stripes by a running flush and not yet committed; guarded by flushLock.
+    private Map<Long, Long> flushing = Map.of();
+
+    @Autowired
+    public PostViewTracker(PostViewRepository postViewRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${lab41.views.stripes:16}") int stripes,
+                           @Value("${lab41.views.batch-size:500}") int batchSize) {
+        this.postViewRepository = postViewRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.stripes = new Stripe[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public void record(Long postId) {
+        record(postId, 1);
+    }
+
+    public void record(Long postId, long views) {
+        Stripe stripe = stripes[ThreadLocalRandom.current().nextInt(stripes.length)];
+        synchronized (stripe) {
+            stripe.counts.computeIfAbsent(postId, id -> new long[1])[0] += views;
+        }
+    }
+
+    // Every requested id is present in the result; posts never viewed (or unknown ids) map to 0.
+    public Map<Long, Long> getViewCounts(Collection<Long> postIds) {
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        postIds.forEach(postId -> counts.put(postId, 0L));
+        flushLock.readLock().lock();
+        try {
+            for (List<Long> chunk : Chunks.of(counts.keySet(), Chunks.IN_LIST_SIZE)) {
+                for (IdCount count : postViewRepository.findCountsByPostIds(chunk)) {
+                    counts.put(count.id(), count.count());
+                }
+            }
+            Map<Long, Long> inFlight = flushing;
+            counts.replaceAll((postId, count) -> count + inFlight.getOrDefault(postId, 0L));
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    counts.replaceAll((postId, count) -> {
+                        long[] pending = stripe.counts.get(postId);
+                        return pending == null ? count : count + pending[0];
+                    });
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    // Drops the stored counts of deleted posts; their buffered deltas are discarded by the next flush.
+    public int delete(Collection<Long> postIds) {
+        return postViewRepository.deleteByPostIdIn(postIds);
+    }
+
+    /**
+     * Writes the buffered deltas to {@code post_views}. On failure they go back into the buffer and
+     * are retried by the next flush.
+     *
+     * @return number of posts whose count was written
+     */
+    @Scheduled(fixedDelayString = "${lab41.views.flush-interval:PT5S}")
+    public synchronized int flush() {
+        // Sorted so concurrent flushers (one per instance) lock post_views rows in the same order.
+        Map<Long, Long> deltas = new TreeMap<>();
+        flushLock.writeLock().lock();
+        try {
+            for (Stripe stripe : stripes) {
+                Map<Long, long[]> drained;
+                synchronized (stripe) {
+                    if (stripe.counts.isEmpty()) {
+                        continue;
+                    }
+                    drained = stripe.counts;
+                    stripe.counts = new HashMap<>();
+                }
+                drained.forEach((postId, views) -> deltas.merge(postId, views[0], Long::sum));
+            }
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            flushing = deltas;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+        try {
+            transaction.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new Handover(deltas));
+                for (List<Long> chunk : Chunks.of(deltas.keySet(), batchSize)) {
+                    List<Object[]> batch = new ArrayList<>(chunk.size());
+                    chunk.forEach(postId -> batch.add(new Object[]{deltas.get(postId), postId}));
+                    jdbcTemplate.batchUpdate(UPSERT, batch);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The handover put the deltas back, unless the transaction failed before registering it.
+            handOver(deltas, false);
+            log.warn("Could not flush view counts of {} posts; keeping them for the next run", deltas.size(), e);
+            return 0;
+        }
+        return deltas.size();
+    }
+
+    // Takes the deltas out of flight: dropped once committed, back into the stripes otherwise.
+    private void handOver(Map<Long, Long> deltas, boolean committed) {
+        flushLock.writeLock().lock();
+        try {
+            if (flushing != deltas) {
+                return;
+            }
+            if (!committed) {
+                deltas.forEach(this::record);
+            }
+            flushing = Map.of();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Holds the write lock from just before the flush commits until the in-flight map is cleared,
+     * so no read sees the committed rows and the in-flight deltas at once.
+     */
+    private final class Handover implements TransactionSynchronization {
+        private final Map<Long, Long> deltas;
+
+        Handover(Map<Long, Long> deltas) {
+            this.deltas = deltas;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushLock.writeLock().lock();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                handOver(deltas, status == STATUS_COMMITTED);
+            } finally {
+                if (flushLock.isWriteLockedByCurrentThread()) {
+                    flushLock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private static final class Stripe {
+        // Guarded by the stripe's monitor.
+        Map<Long, long[]> counts = new HashMap<>();
+    }
+}
@@ -0,0 +1,17 @@
+package com.lab41.service;
+
+import java.time.Duration;
+
+// Thrown by write methods when the calling user has used up their token bucket.
+public class RateLimitedException extends IllegalStateException {
+    private final Duration retryAfter;
+
+    public RateLimitedException(Long userId, Duration retryAfter) {
+        super("User with ID " + userId + " is sending too many requests; retry in " + retryAfter.toMillis() + " ms.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,87 @@
+package com.lab41.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per user for write methods: a user may burst up to {@code capacity} writes, then
+ * gets {@code refill-per-second} more per second. The check runs before any SQL, so a client in a
+ * loop costs a map lookup per rejected call instead of a transaction.
+ * <p>
+ * Buckets live in memory and per instance; buckets idle long enough to be full again are dropped.
+ */
+@Component
+public class RateLimiter {
+    private final boolean enabled;
+    private final double capacity;
+    private final double refillPerNano;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(@Value("${lab41.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${lab41.rate-limit.capacity:30}") int capacity,
+                       @Value("${lab41.rate-limit.refill-per-second:5}") double refillPerSecond) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Takes one token from the user's bucket.
+     *
+     * @throws RateLimitedException if the bucket is empty
+     */
+    public void acquire(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        long waitNanos = buckets.computeIfAbsent(userId, id -> new Bucket(capacity, System.nanoTime()))
+                .tryTake(System.nanoTime());
+        if (waitNanos > 0) {
+            throw new RateLimitedException(userId, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.rate-limit.cleanup-interval:PT1M}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        // 0 if a token was taken, otherwise the nanos until one is available.
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.lab41.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users mutated data recently, so that their own reads can be kept on the primary
+ * until the replica has had time to catch up. The routing data source consults
+ * {@link #isPinnedToPrimary()} when a read-only transaction first needs a connection.
+ */
+@Component
+public class ReadYourWritesTracker {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final Map<Long, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final long stickyNanos;
+
+    public ReadYourWritesTracker(@Value("${lab41.datasource.replica.sticky-window:PT5S}") Duration stickyWindow) {
+        this.stickyNanos = stickyWindow.toNanos();
+    }
+
+    public void markWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWriteNanos.put(userId, now);
+        if (lastWriteNanos.size() > CLEANUP_THRESHOLD) {
+            lastWriteNanos.values().removeIf(written -> now - written > stickyNanos);
+        }
+    }
+
+    public boolean hasRecentWrite(Long userId) {
+        Long written = userId == null ? null : lastWriteNanos.get(userId);
+        return written != null && System.nanoTime() - written <= stickyNanos;
+    }
+
+    /**
+     * Routes the rest of the current transaction to the primary if {@code userId} wrote within the
+     * sticky window. Must run before the transaction's first statement; the pin is dropped when the
+     * transaction completes.
+     */
+    public void pinIfRecentWriter(Long userId) {
+        if (!hasRecentWrite(userId) || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PINNED.remove();
+            }
+        });
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Whether work done on behalf of the current thread has to read from the primary: it runs in a
+     * read-write transaction, or in a read-only one pinned by {@link #pinIfRecentWriter}. Work forked
+     * to another thread runs outside this transaction and would otherwise be routed on its own.
+     */
+    public static boolean needsPrimary() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPinnedToPrimary());
+    }
+
+    /**
+     * Pins the current thread to the primary if {@code primary} is set, e.g. in a task forked from a
+     * thread where {@link #needsPrimary()} held.
+     *
+     * @return the previous pin, to be handed back to {@link #restorePin}
+     */
+    public static Boolean pinForTask(boolean primary) {
+        Boolean previous = PINNED.get();
+        if (primary) {
+            PINNED.set(Boolean.TRUE);
+        }
+        return previous;
+    }
+
+    public static void restorePin(Boolean previous) {
+        if (previous == null) {
+            PINNED.remove();
+        } else {
+            PINNED.set(previous);
+        }
+    }
+}
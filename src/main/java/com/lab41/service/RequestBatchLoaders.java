@@ -0,0 +1,34 @@
+package com.lab41.service;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out one set of {@link BatchLoader}s per request. Code that renders a page asks the scope
+ * for single posts, users and like counts as it goes; the scope turns those calls into one
+ * {@code IN}-list query per entity type.
+ */
+@Component
+public class RequestBatchLoaders {
+    private final PostService postService;
+    private final UserService userService;
+
+    @Autowired
+    public RequestBatchLoaders(PostService postService, UserService userService) {
+        this.postService = postService;
+        this.userService = userService;
+    }
+
+    public Scope begin() {
+        return new Scope(new BatchLoader<>(postService::getPostsByIds),
+                new BatchLoader<>(userService::findByIds),
+                new BatchLoader<>(postService::getLikeCounts));
+    }
+
+    public record Scope(BatchLoader<Long, Post> posts,
+                        BatchLoader<Long, User> users,
+                        BatchLoader<Long, Long> likeCounts) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.lab41.service;
+
+import com.lab41.monitoring.CallerContext;
+import com.lab41.monitoring.tracing.Span;
+import com.lab41.monitoring.tracing.Tracer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent reads of a service call side by side, e.g. an archive segment scan next to
+ * the hot-table query it is merged with.
+ * <p>
+ * A forked task may borrow a JDBC connection, so the number of tasks in flight is capped by a
+ * permit count sized against the connection pool. When no permit is free the task is not queued
+ * but evaluated in the caller's thread at {@link Forked#join()}, which keeps a saturated pool from
+ * deadlocking on callers that already hold a connection and wait for their own forks.
+ * <p>
+ * A forked task runs outside the caller's transaction and persistence context, so only fork
+ * independent reads of read-only methods. Lookups inside a write transaction belong on the
+ * caller's thread: they need the caller's entities and connection, not a second one.
+ */
+public class ServiceExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public ServiceExecutor(ExecutorService executor, int maxConcurrency) {
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Executor that never forks: tasks run in the caller's thread, in join order. Used when
+     * concurrent reads are disabled and in unit tests.
+     */
+    public static ServiceExecutor direct() {
+        return new ServiceExecutor(null, 0);
+    }
+
+    public <T> Forked<T> fork(Supplier<T> task) {
+        if (executor == null || !permits.tryAcquire()) {
+            return new Forked<>(null, task);
+        }
+        // Forked reads still count as SQL of the service method that forked them, in its trace.
+        // They also keep its route: a caller that writes or is pinned must not read a lagging replica.
+        String caller = CallerContext.current();
+        Span span = Tracer.currentSpan();
+        boolean primary = ReadYourWritesTracker.needsPrimary();
+        try {
+            return new Forked<>(CompletableFuture.supplyAsync(() -> {
+                String previousCaller = CallerContext.enter(caller);
+                Span previousSpan = Tracer.makeCurrent(span);
+                Boolean previousPin = ReadYourWritesTracker.pinForTask(primary);
+                try {
+                    return task.get();
+                } finally {
+                    ReadYourWritesTracker.restorePin(previousPin);
+                    Tracer.makeCurrent(previousSpan);
+                    CallerContext.restore(previousCaller);
+                    permits.release();
+                }
+            }, executor), task);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public static final class Forked<T> {
+        private final CompletableFuture<T> future;
+        private final Supplier<T> inline;
+
+        private Forked(CompletableFuture<T> future, Supplier<T> inline) {
+            this.future = future;
+            this.inline = inline;
+        }
+
+        public T join() {
+            if (future == null) {
+                return inline.get();
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.lab41.service;
+
+import com.lab41.dto.PostActivity;
+import com.lab41.dto.TrendingPost;
+import com.lab41.model.OutboxEvent;
+import com.lab41.model.OutboxEventType;
+import com.lab41.repository.CommentRepository;
+import com.lab41.repository.LikeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Trending posts from likes and comments as they arrive through the outbox. Every configured window
+ * keeps its own {@link DecayingLeaderboard} whose half-life is the window length, so activity from
+ * one window ago counts half. Queries read the boards in memory and never touch {@code likes}.
+ * <p>
+ * Scores live only in memory: on startup they are rebuilt from the likes and comments of the last
+ * {@code rebuild-lookback}. Delivery is at-least-once, so a redelivered event counts twice; that
+ * is within the noise of a trending list.
+ */
+@Service
+public class TrendingService implements OutboxEventHandler {
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+    private static final Set<OutboxEventType> EVENTS = EnumSet.of(OutboxEventType.LIKE_ADDED,
+            OutboxEventType.LIKE_REMOVED, OutboxEventType.COMMENT_ADDED, OutboxEventType.COMMENT_DELETED,
+            OutboxEventType.POST_DELETED);
+
+    private final LikeRepository likeRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Duration, DecayingLeaderboard> boards = new LinkedHashMap<>();
+    private final Duration defaultWindow;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final double minScore;
+    private final Duration rebuildLookback;
+
+    @Autowired
+    public TrendingService(LikeRepository likeRepository,
+                           CommentRepository commentRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${lab41.trending.windows:PT1H,PT24H,P7D}") Duration[] windows,
+                           @Value("${lab41.trending.default-window:PT24H}") Duration defaultWindow,
+                           @Value("${lab41.trending.capacity:1000}") int capacity,
+                           @Value("${lab41.trending.like-weight:1.0}") double likeWeight,
+                           @Value("${lab41.trending.comment-weight:2.0}") double commentWeight,
+                           @Value("${lab41.trending.min-score:0.01}") double minScore,
+                           @Value("${lab41.trending.rebuild-lookback:P7D}") Duration rebuildLookback) {
+        this.likeRepository = likeRepository;
+        this.commentRepository = commentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        long now = System.currentTimeMillis();
+        for (Duration window : windows) {
+            boards.put(window, new DecayingLeaderboard(window.toMillis(), capacity, now));
+        }
+        if (!boards.containsKey(defaultWindow)) {
+            throw new IllegalArgumentException("Default trending window " + defaultWindow
+                    + " is not one of " + Arrays.toString(windows));
+        }
+        this.defaultWindow = defaultWindow;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.minScore = minScore;
+        this.rebuildLookback = rebuildLookback;
+    }
+
+    @Override
+    public boolean supports(OutboxEventType eventType) {
+        return EVENTS.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        // Likes and comments score at their creation time, so a removal takes back exactly what was added.
+        long at = toMillis(event.getSubjectCreatedAt() == null ? event.getCreatedAt() : event.getSubjectCreatedAt());
+        switch (event.getEventType()) {
+            case LIKE_ADDED -> record(event.getTargetId(), likeWeight, at);
+            case LIKE_REMOVED -> record(event.getTargetId(), -likeWeight, at);
+            case COMMENT_ADDED -> record(event.getTargetId(), commentWeight, at);
+            case COMMENT_DELETED -> record(event.getTargetId(), -commentWeight, at);
+            case POST_DELETED -> boards.values().forEach(board -> board.remove(event.getAggregateId()));
+            default -> {
+            }
+        }
+    }
+
+    public List<TrendingPost> getTrending(int limit) {
+        return getTrending(defaultWindow, limit);
+    }
+
+    public List<TrendingPost> getTrending(Duration window, int limit) {
+        DecayingLeaderboard board = boards.get(window);
+        if (board == null) {
+            throw new IllegalArgumentException("No trending window " + window + "; configured: " + boards.keySet());
+        }
+        return board.top(limit, System.currentTimeMillis());
+    }
+
+    public List<Duration> getWindows() {
+        return List.copyOf(boards.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${lab41.trending.rescale-interval:PT5M}")
+    public void rescale() {
+        long now = System.currentTimeMillis();
+        boards.values().forEach(board -> board.rescale(now, minScore));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minus(rebuildLookback);
+        long replayed;
+        try {
+            replayed = readOnlyTransaction.execute(status -> replay(since));
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild trending scores; starting from the live events only", e);
+            return;
+        }
+        rescale();
+        log.info("Trending scores rebuilt from {} likes and comments since {}", replayed, since);
+    }
+
+    private long replay(LocalDateTime since) {
+        try (Stream<PostActivity> likes = likeRepository.streamActivitySince(since);
+             Stream<PostActivity> comments = commentRepository.streamActivitySince(since)) {
+            return replay(likes, likeWeight) + replay(comments, commentWeight);
+        }
+    }
+
+    private long replay(Stream<PostActivity> activity, double weight) {
+        return activity.mapToLong(item -> {
+            record(item.postId(), weight, toMillis(item.createdAt()));
+            return 1;
+        }).sum();
+    }
+
+    private void record(Long postId, double weight, long at) {
+        if (postId == null) {
+            return;
+        }
+        for (DecayingLeaderboard board : boards.values()) {
+            board.add(postId, weight, at);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,154 @@
+package com.lab41.service;
+
+import com.lab41.model.InteractionSketch;
+import com.lab41.model.InteractionSketchId;
+import com.lab41.model.SketchScope;
+import com.lab41.repository.InteractionSketchRepository;
+import com.lab41.sketch.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distinct users who liked, commented on or read a post, or any post of an author, over the last
+ * days. Each (post or author, day) keeps a {@link HyperLogLog} in {@code interaction_sketches};
+ * a window query merges its days instead of running DISTINCT over likes and comments.
+ * <p>
+ * Interactions are collected in memory as plain user ids and merged into the stored sketches by
+ * {@link #flush}; queries include what is still pending. Counts are approximate (about 1.6% at the
+ * default precision), only grow within a day, and authors do not count towards their own audience.
+ */
+@Service
+public class UniqueInteractionService {
+    private static final Logger log = LoggerFactory.getLogger(UniqueInteractionService.class);
+
+    private final InteractionSketchRepository sketchRepository;
+    private final TransactionTemplate transaction;
+    private final int precision;
+    private final int retentionDays;
+    private final Map<InteractionSketchId, Set<Long>> pending = new ConcurrentHashMap<>();
+    // The batch a running flush has taken out of pending but not yet committed.
+    private volatile Map<InteractionSketchId, Set<Long>> flushing = Map.of();
+
+    @Autowired
+    public UniqueInteractionService(InteractionSketchRepository sketchRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${lab41.unique.precision:12}") int precision,
+                                    @Value("${lab41.unique.retention:P35D}") Duration retention) {
+        this.sketchRepository = sketchRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.precision = precision;
+        this.retentionDays = (int) retention.toDays();
+    }
+
+    public void recordInteraction(Long postId, Long authorId, Long userId) {
+        if (userId == null || userId.equals(authorId)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            LocalDate today = LocalDate.now();
+            add(new InteractionSketchId(SketchScope.POST, postId, today), userId);
+            add(new InteractionSketchId(SketchScope.AUTHOR, authorId, today), userId);
+        });
+    }
+
+    public long countPostInteractors(Long postId, Duration window) {
+        return count(SketchScope.POST, postId, window);
+    }
+
+    public long countAuthorAudience(Long authorId, Duration window) {
+        return count(SketchScope.AUTHOR, authorId, window);
+    }
+
+    /**
+     * Merges pending interactions into the stored day sketches and drops days past the retention.
+     *
+     * @return number of sketches written
+     */
+    @Scheduled(fixedDelayString = "${lab41.unique.flush-interval:PT1M}")
+    public synchronized int flush() {
+        Map<InteractionSketchId, Set<Long>> batch = new HashMap<>();
+        for (InteractionSketchId key : pending.keySet()) {
+            Set<Long> userIds = pending.remove(key);
+            if (userIds != null) {
+                batch.put(key, userIds);
+            }
+        }
+        flushing = batch;
+        try {
+            transaction.executeWithoutResult(status -> {
+                batch.forEach(this::persist);
+                sketchRepository.deleteByDayBefore(LocalDate.now().minusDays(retentionDays - 1));
+            });
+        } catch (RuntimeException e) {
+            batch.forEach((key, userIds) -> userIds.forEach(userId -> add(key, userId)));
+            log.warn("Could not flush {} interaction sketches; keeping them for the next run", batch.size(), e);
+            return 0;
+        } finally {
+            flushing = Map.of();
+        }
+        return batch.size();
+    }
+
+    private long count(SketchScope scope, Long entityId, Duration window) {
+        int days = (int) Math.max(1, window.toDays());
+        if (days > retentionDays) {
+            throw new IllegalArgumentException("Window " + window + " is longer than the " + retentionDays
+                    + " days of interactions kept.");
+        }
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1);
+        HyperLogLog union = new HyperLogLog(precision);
+        for (InteractionSketch stored : sketchRepository.findDays(scope, entityId, from, to)) {
+            union.merge(HyperLogLog.fromBytes(stored.getRegisters()));
+        }
+        Map<InteractionSketchId, Set<Long>> inFlight = flushing;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            InteractionSketchId key = new InteractionSketchId(scope, entityId, day);
+            inFlight.getOrDefault(key, Set.of()).forEach(union::add);
+            pending.computeIfPresent(key, (k, userIds) -> {
+                userIds.forEach(union::add);
+                return userIds;
+            });
+        }
+        return union.estimate();
+    }
+
+    // compute keeps each id set confined to the map's lock, so flush never takes a set mid-update.
+    private void add(InteractionSketchId key, Long userId) {
+        pending.compute(key, (k, userIds) -> {
+            Set<Long> updated = userIds == null ? new HashSet<>() : userIds;
+            updated.add(userId);
+            return updated;
+        });
+    }
+
+    private void persist(InteractionSketchId key, Set<Long> userIds) {
+        InteractionSketch stored = sketchRepository.findById(key).orElseGet(() -> {
+            InteractionSketch created = new InteractionSketch();
+            created.setScope(key.getScope());
+            created.setEntityId(key.getEntityId());
+            created.setDay(key.getDay());
+            return created;
+        });
+        HyperLogLog sketch = stored.getRegisters() == null
+                ? new HyperLogLog(precision)
+                : HyperLogLog.fromBytes(stored.getRegisters());
+        userIds.forEach(sketch::add);
+        stored.setRegisters(sketch.toBytes());
+        sketchRepository.save(stored);
+    }
+}
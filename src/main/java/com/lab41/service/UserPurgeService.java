@@ -0,0 +1,145 @@
+package com.lab41.service;
+
+import com.lab41.dto.DeletedUser;
+import com.lab41.repository.CommentRepository;
+import com.lab41.repository.FriendRepository;
+import com.lab41.repository.LikeRepository;
+import com.lab41.repository.PostRepository;
+import com.lab41.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Deletes a user and everything hanging off them with set-based statements, in dependency order:
+ * likes, comments, posts with their view counts, friendships, then the user row. Nothing is loaded into the persistence
+ * context, so the cost no longer grows with one entity cascade per row.
+ */
+@Service
+public class UserPurgeService {
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final LikeRepository likeRepository;
+    private final FriendRepository friendRepository;
+    private final PostViewTracker postViewTracker;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate chunkTransaction;
+    private final Pageable chunk;
+
+    @Autowired
+    public UserPurgeService(UserRepository userRepository,
+                            PostRepository postRepository,
+                            CommentRepository commentRepository,
+                            LikeRepository likeRepository,
+                            FriendRepository friendRepository,
+                            PostViewTracker postViewTracker,
+                            UserStatsService userStatsService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${lab41.purge.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.likeRepository = likeRepository;
+        this.friendRepository = friendRepository;
+        this.postViewTracker = postViewTracker;
+        this.userStatsService = userStatsService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunk = PageRequest.of(0, chunkSize);
+    }
+
+    /**
+     * Purges the user inside the caller's transaction: all or nothing, locks held until commit.
+     *
+     * @return number of rows deleted
+     */
+    @Transactional
+    public long purge(Long userId) {
+        return deleteUserData(userId, Supplier::get);
+    }
+
+    /**
+     * Purges the user committing after every chunk, so no lock is held for longer than one chunk.
+     * Only safe for users that are already soft-deleted: a crash leaves a partially purged user,
+     * which the next run picks up again.
+     *
+     * @return number of rows deleted
+     */
+    public long purgeInChunks(Long userId) {
+        return deleteUserData(userId, step -> chunkTransaction.execute(status -> step.get()));
+    }
+
+    /**
+     * Purges soft-deleted users, oldest deletion first. A user whose purge fails is logged and
+     * skipped, so it cannot hold up the users queued behind it; the next run retries it.
+     */
+    @Scheduled(fixedDelayString = "${lab41.purge.interval:PT30S}")
+    public void purgeDeletedUsers() {
+        PageRequest page = PageRequest.of(0, 10);
+        List<DeletedUser> users = userRepository.findDeleted(page);
+        while (!users.isEmpty()) {
+            for (DeletedUser user : users) {
+                try {
+                    long deleted = purgeInChunks(user.userId());
+                    log.info("Purged soft-deleted user {} ({} rows)", user.userId(), deleted);
+                } catch (RuntimeException e) {
+                    log.warn("Could not purge soft-deleted user {}, retrying on the next run", user.userId(), e);
+                }
+            }
+            DeletedUser last = users.get(users.size() - 1);
+            users = userRepository.findDeletedAfter(last.deletedAt(), last.userId(), page);
+        }
+    }
+
+    private long deleteUserData(Long userId, Function<Supplier<Integer>, Integer> inTransaction) {
+        long deleted = drain(() -> likeRepository.findIdsInvolvingUser(userId, chunk), likeIds -> {
+            userStatsService.beforeLikesDeleted(likeIds);
+            return likeRepository.deleteByLikeIdIn(likeIds);
+        }, inTransaction);
+        deleted += drain(() -> commentRepository.findIdsInvolvingUser(userId, chunk), commentIds -> {
+            userStatsService.beforeCommentsDeleted(commentIds);
+            postRepository.subtractComments(commentIds);
+            return commentRepository.deleteByCommentIdIn(commentIds);
+        }, inTransaction);
+        deleted += drain(() -> postRepository.findIdsByUserId(userId, chunk), postIds -> {
+            postViewTracker.delete(postIds);
+            return postRepository.deleteByPostIdIn(postIds);
+        }, inTransaction);
+        deleted += inTransaction.apply(() -> {
+            userStatsService.beforeUserDeleted(userId);
+            return friendRepository.deleteAllInvolving(userId) + userRepository.deleteByUserId(userId);
+        });
+        return deleted;
+    }
+
+    private static long drain(Supplier<List<Long>> nextIds,
+                              Function<List<Long>, Integer> delete,
+                              Function<Supplier<Integer>, Integer> inTransaction) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = inTransaction.apply(() -> {
+                List<Long> ids = nextIds.get();
+                return ids.isEmpty() ? 0 : delete.apply(ids);
+            });
+            total += deleted;
+        } while (deleted > 0);
+        return total;
+    }
+}
@@ -2,14 +2,21 @@ package com.lab41.service;
 
 import com.lab41.model.Friend;
 import com.lab41.model.FriendStatus;
+import com.lab41.model.OutboxEventType;
 import com.lab41.model.User;
+import com.lab41.model.UserStats;
 import com.lab41.repository.FriendRepository;
 import com.lab41.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -17,43 +24,95 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final FriendRepository friendRepository;
+    private final OutboxService outboxService;
+    private final UserPurgeService userPurgeService;
+    private final UserStatsService userStatsService;
 
     @Autowired
-    public UserService(UserRepository userRepository, FriendRepository friendRepository) {
+    public UserService(UserRepository userRepository,
+                       FriendRepository friendRepository,
+                       OutboxService outboxService,
+                       UserPurgeService userPurgeService,
+                       UserStatsService userStatsService) {
         this.userRepository = userRepository;
         this.friendRepository = friendRepository;
+        this.outboxService = outboxService;
+        this.userPurgeService = userPurgeService;
+        this.userStatsService = userStatsService;
     }
 
 
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long userId) {
-        return userRepository.findById(userId);
+        return userRepository.findById(userId).filter(UserService::isActive);
     }
 
 
+    // Result follows the order of userIds; ids without a user are left out.
+    @Transactional(readOnly = true)
+    public Map<Long, User> findByIds(Collection<Long> userIds) {
+        Map<Long, User> found = new HashMap<>();
+        for (List<Long> chunk : Chunks.of(userIds, Chunks.IN_LIST_SIZE)) {
+            userRepository.findAllById(chunk).forEach(user -> {
+                if (isActive(user)) {
+                    found.put(user.getUserId(), user);
+                }
+            });
+        }
+        Map<Long, User> users = new LinkedHashMap<>();
+        userIds.forEach(userId -> {
+            User user = found.get(userId);
+            if (user != null) {
+                users.put(userId, user);
+            }
+        });
+        return users;
+    }
+
+
+    @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
-        return Optional.ofNullable(userRepository.findByUsername(username));
+        return Optional.ofNullable(userRepository.findByUsername(username)).filter(UserService::isActive);
     }
 
 
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
-        return Optional.ofNullable(userRepository.findByEmail(email));
+        return Optional.ofNullable(userRepository.findByEmail(email)).filter(UserService::isActive);
     }
 
 
     @Transactional
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userStatsService.createFor(saved.getUserId());
+        outboxService.record(OutboxEventType.USER_SAVED, saved.getUserId(), saved.getUserId(), null);
+        return saved;
     }
 
 
     @Transactional
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        userPurgeService.purge(userId);
+        outboxService.record(OutboxEventType.USER_DELETED, userId, userId, null);
+    }
+
+
+    // For users with a long history: hide the user now, let UserPurgeService remove the data in chunks.
+    @Transactional
+    public void requestUserDeletion(Long userId) {
+        if (userRepository.markDeleted(userId, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("User with ID " + userId + " not found.");
+        }
+        userStatsService.remove(userId);
+        outboxService.record(OutboxEventType.USER_DELETED, userId, userId, null);
     }
 
 
+    @Transactional(readOnly = true)
     public List<User> findAllUsers() {
-        return (List<User>) userRepository.findAll();
+        List<User> users = (List<User>) userRepository.findAll();
+        return users.stream().filter(UserService::isActive).toList();
     }
 
 
@@ -75,7 +134,9 @@ public class UserService {
         friendRequest.setUser(sender);
         friendRequest.setFriend(receiver);
         friendRequest.setStatus(FriendStatus.PENDING);
-        return friendRepository.save(friendRequest);
+        Friend saved = friendRepository.save(friendRequest);
+        outboxService.record(OutboxEventType.FRIEND_REQUEST_SENT, sender.getUserId(), sender.getUserId(), receiver.getUserId());
+        return saved;
     }
 
 
@@ -94,7 +155,10 @@ public class UserService {
 
         Friend friendRequest = friendRequestOpt.get();
         friendRequest.setStatus(FriendStatus.ACCEPTED);
-        return friendRepository.save(friendRequest);
+        Friend saved = friendRepository.save(friendRequest);
+        userStatsService.adjustFriendship(senderId, receiverId, 1);
+        outboxService.record(OutboxEventType.FRIEND_REQUEST_ACCEPTED, senderId, receiverId, receiverId);
+        return saved;
     }
 
 
@@ -112,6 +176,7 @@ public class UserService {
         }
 
         friendRepository.delete(friendRequestOpt.get());
+        outboxService.record(OutboxEventType.FRIEND_REQUEST_DECLINED, senderId, receiverId, receiverId);
     }
 
 
@@ -127,6 +192,24 @@ public class UserService {
         } else {
             throw new IllegalArgumentException("No active friendship found between these users.");
         }
+        userStatsService.adjustFriendship(user1.getUserId(), user2.getUserId(), -1);
+        outboxService.record(OutboxEventType.FRIEND_REMOVED, user1.getUserId(), user1.getUserId(), user2.getUserId());
+    }
+
+    // Profile counters from user_stats: one primary-key lookup instead of scanning posts, likes and friends.
+    @Transactional(readOnly = true)
+    public UserStats getStats(Long userId) {
+        return userStatsService.getStats(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
     }
 
+    // Result follows the order of userIds; ids without a user are left out.
+    @Transactional(readOnly = true)
+    public Map<Long, UserStats> getStats(Collection<Long> userIds) {
+        return userStatsService.getStats(userIds);
+    }
+
+    static boolean isActive(User user) {
+        return user.getDeletedAt() == null;
+    }
 }
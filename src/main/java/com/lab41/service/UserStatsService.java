@@ -0,0 +1,238 @@
+package com.lab41.service;
+
+import com.lab41.archive.ArchiveCounts;
+import com.lab41.dto.IdCount;
+import com.lab41.model.UserStats;
+import com.lab41.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Maintains {@code user_stats}: posts written, likes received, accepted friendships and comments
+ * written per user. Every mutation adjusts the affected rows by a delta in its own transaction, so
+ * concurrent updates commute and a profile read is one primary-key lookup. Bulk deletes count what
+ * they are about to remove, grouped per user, before removing it. Archived posts stay counted, like
+ * they stay listed: archiving moves their share into the row's archived columns.
+ * <p>
+ * {@link #reconcile} walks all users, recomputes their counters from the base tables plus the
+ * archived columns and corrects drifted rows by the difference; it also creates rows for users that have none yet. Until then,
+ * reads compute a missing row on the fly.
+ */
+@Service
+public class UserStatsService {
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserStatsRepository userStatsRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final int reconcileChunkSize;
+
+    @Autowired
+    public UserStatsService(UserStatsRepository userStatsRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${lab41.user-stats.reconcile-chunk-size:500}") int reconcileChunkSize) {
+        this.userStatsRepository = userStatsRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileChunkSize = Math.min(reconcileChunkSize, Chunks.IN_LIST_SIZE);
+    }
+
+    @Transactional
+    public void createFor(Long userId) {
+        if (!userStatsRepository.existsById(userId)) {
+            userStatsRepository.save(new UserStats(userId, 0, 0, 0, 0));
+        }
+    }
+
+    @Transactional
+    public void adjustPosts(Long userId, long delta) {
+        userStatsRepository.adjust(userId, delta, 0, 0, 0);
+    }
+
+    @Transactional
+    public void adjustLikesReceived(Long userId, long delta) {
+        userStatsRepository.adjust(userId, 0, delta, 0, 0);
+    }
+
+    @Transactional
+    public void adjustComments(Long userId, long delta) {
+        userStatsRepository.adjust(userId, 0, 0, 0, delta);
+    }
+
+    @Transactional
+    public void adjustFriendship(Long userId, Long friendId, long delta) {
+        userStatsRepository.adjust(userId, 0, 0, delta, 0);
+        userStatsRepository.adjust(friendId, 0, 0, delta, 0);
+    }
+
+    // Call before deleting the posts together with their likes and comments.
+    @Transactional
+    public void beforePostsDeleted(Collection<Long> postIds) {
+        forEachCount(userStatsRepository.countPostsByAuthor(postIds), (userId, n) -> userStatsRepository.adjust(userId, -n, 0, 0, 0));
+        forEachCount(userStatsRepository.countLikesByAuthorOfPosts(postIds), (userId, n) -> userStatsRepository.adjust(userId, 0, -n, 0, 0));
+        forEachCount(userStatsRepository.countCommentsByAuthorOnPosts(postIds), (userId, n) -> userStatsRepository.adjust(userId, 0, 0, 0, -n));
+    }
+
+    // Call before moving the posts to the archive: their authors keep the counts, as archived counts.
+    @Transactional
+    public void beforePostsArchived(Collection<Long> postIds) {
+        forEachCount(userStatsRepository.countPostsByAuthor(postIds), (userId, n) -> userStatsRepository.adjustArchived(userId, n, 0, 0));
+        forEachCount(userStatsRepository.countLikesByAuthorOfPosts(postIds), (userId, n) -> userStatsRepository.adjustArchived(userId, 0, n, 0));
+        forEachCount(userStatsRepository.countCommentsByAuthorOnPosts(postIds), (userId, n) -> userStatsRepository.adjustArchived(userId, 0, 0, n));
+    }
+
+    // Call before archived posts are dropped for good: they leave both the totals and the archived part.
+    @Transactional
+    public void beforeArchivedPostsDropped(ArchiveCounts counts) {
+        counts.posts().forEach((userId, n) -> {
+            userStatsRepository.adjust(userId, -n, 0, 0, 0);
+            userStatsRepository.adjustArchived(userId, -n, 0, 0);
+        });
+        counts.likesReceived().forEach((userId, n) -> {
+            userStatsRepository.adjust(userId, 0, -n, 0, 0);
+            userStatsRepository.adjustArchived(userId, 0, -n, 0);
+        });
+        counts.comments().forEach((userId, n) -> {
+            userStatsRepository.adjust(userId, 0, 0, 0, -n);
+            userStatsRepository.adjustArchived(userId, 0, 0, -n);
+        });
+    }
+
+    @Transactional
+    public void beforeLikesDeleted(Collection<Long> likeIds) {
+        forEachCount(userStatsRepository.countLikesByAuthor(likeIds), (userId, n) -> userStatsRepository.adjust(userId, 0, -n, 0, 0));
+    }
+
+    @Transactional
+    public void beforeCommentsDeleted(Collection<Long> commentIds) {
+        forEachCount(userStatsRepository.countCommentsByAuthor(commentIds), (userId, n) -> userStatsRepository.adjust(userId, 0, 0, 0, -n));
+    }
+
+    // Call before deleting the user's friendships: their friends lose one each, the user's row goes.
+    @Transactional
+    public void beforeUserDeleted(Long userId) {
+        userStatsRepository.findFriendIds(userId).forEach(friendId -> userStatsRepository.adjust(friendId, 0, 0, -1, 0));
+        userStatsRepository.deleteByUserId(userId);
+    }
+
+    @Transactional
+    public void remove(Long userId) {
+        userStatsRepository.deleteByUserId(userId);
+    }
+
+    // Empty for unknown and soft-deleted users.
+    public Optional<UserStats> getStats(Long userId) {
+        return Optional.ofNullable(getStats(List.of(userId)).get(userId));
+    }
+
+    // Result follows the order of userIds; ids without an active user are left out. Users without a
+    // row yet (created before user_stats existed) are computed from the base tables, not stored.
+    public Map<Long, UserStats> getStats(Collection<Long> userIds) {
+        Map<Long, UserStats> found = new HashMap<>();
+        for (List<Long> chunk : Chunks.of(userIds, Chunks.IN_LIST_SIZE)) {
+            userStatsRepository.findAllById(chunk).forEach(stats -> found.put(stats.getUserId(), stats));
+        }
+        List<Long> missing = userIds.stream().filter(userId -> !found.containsKey(userId)).toList();
+        for (List<Long> chunk : Chunks.of(missing, Chunks.IN_LIST_SIZE)) {
+            List<Long> active = userStatsRepository.findActiveUserIdsIn(chunk);
+            if (!active.isEmpty()) {
+                found.putAll(compute(active));
+            }
+        }
+        Map<Long, UserStats> stats = new LinkedHashMap<>();
+        userIds.forEach(userId -> {
+            UserStats user = found.get(userId);
+            if (user != null) {
+                stats.put(userId, user);
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * Recomputes every active user's counters chunk by chunk, each chunk in its own transaction.
+     *
+     * @return number of rows created or corrected
+     */
+    @Scheduled(fixedDelayString = "${lab41.user-stats.reconcile-interval:PT6H}")
+    public long reconcile() {
+        long fixed = 0;
+        Long after = 0L;
+        PageRequest page = PageRequest.of(0, reconcileChunkSize);
+        List<Long> userIds;
+        while (!(userIds = userStatsRepository.findActiveUserIdsAfter(after, page)).isEmpty()) {
+            List<Long> chunk = userIds;
+            try {
+                fixed += chunkTransaction.execute(status -> reconcileChunk(chunk));
+            } catch (RuntimeException e) {
+                // e.g. a row created concurrently by createFor; the next run picks the chunk up again
+                log.warn("Could not reconcile user stats for users {}..{}", chunk.get(0), chunk.get(chunk.size() - 1), e);
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+        if (fixed > 0) {
+            log.info("User stats reconciled: {} rows created or corrected", fixed);
+        }
+        return fixed;
+    }
+
+    // Locks the chunk's rows before counting: a mutation that commits before the lock is granted is
+    // in the counts, one that commits after it waits to adjust the row until the correction is in.
+    private long reconcileChunk(List<Long> userIds) {
+        Map<Long, UserStats> stored = new HashMap<>();
+        userStatsRepository.lockAllById(userIds).forEach(stats -> stored.put(stats.getUserId(), stats));
+        Map<Long, UserStats> actual = compute(userIds);
+        long fixed = 0;
+        for (UserStats expected : actual.values()) {
+            UserStats current = stored.get(expected.getUserId());
+            if (current == null) {
+                userStatsRepository.save(expected);
+                fixed++;
+                continue;
+            }
+            expected.addArchived(current);
+            if (!current.sameCounts(expected)) {
+                userStatsRepository.adjust(expected.getUserId(),
+                        expected.getPostCount() - current.getPostCount(),
+                        expected.getLikesReceived() - current.getLikesReceived(),
+                        expected.getFriendCount() - current.getFriendCount(),
+                        expected.getCommentCount() - current.getCommentCount());
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    // Counters of the given users from the base tables: five grouped queries for the whole chunk.
+    private Map<Long, UserStats> compute(List<Long> userIds) {
+        Map<Long, UserStats> stats = new LinkedHashMap<>();
+        userIds.forEach(userId -> stats.put(userId, new UserStats(userId, 0, 0, 0, 0)));
+        userStatsRepository.countPosts(userIds).forEach(c -> stats.get(c.id()).setPostCount(c.count()));
+        userStatsRepository.countLikesReceived(userIds).forEach(c -> stats.get(c.id()).setLikesReceived(c.count()));
+        userStatsRepository.countComments(userIds).forEach(c -> stats.get(c.id()).setCommentCount(c.count()));
+        userStatsRepository.countFriendsAsSender(userIds).forEach(c -> stats.get(c.id()).setFriendCount(c.count()));
+        userStatsRepository.countFriendsAsReceiver(userIds).forEach(c -> {
+            UserStats user = stats.get(c.id());
+            user.setFriendCount(user.getFriendCount() + c.count());
+        });
+        return stats;
+    }
+
+    private static void forEachCount(List<IdCount> counts, BiConsumer<Long, Long> adjust) {
+        counts.forEach(count -> adjust.accept(count.id(), count.count()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.lab41.sketch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch over long ids. An estimate never undercounts, and with probability
+ * {@code 1 - delta} it overcounts by at most {@code epsilon} times the total of all counts added,
+ * whatever the number of distinct ids. Counters are atomic, so updates need no locking.
+ * <p>
+ * Negative counts are accepted to take back an earlier add; the guarantee holds as long as no id's
+ * true count goes below zero.
+ */
+public final class CountMinSketch {
+    private final double epsilon;
+    private final double delta;
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+    private final AtomicLong total = new AtomicLong();
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Sketch epsilon and delta must be between 0 and 1.");
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    public void add(long id, long count) {
+        long hash = Hashes.mix(id);
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(row * width + column(hash, row), count);
+        }
+        total.addAndGet(count);
+    }
+
+    public long estimate(long id) {
+        long hash = Hashes.mix(id);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(row * width + column(hash, row)));
+        }
+        return Math.max(0, min);
+    }
+
+    /**
+     * Adds every counter of {@code other}, which must have the same dimensions, into this sketch.
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge a " + other.depth + "x" + other.width
+                    + " sketch into a " + depth + "x" + width + " one.");
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            long count = other.counters.get(i);
+            if (count != 0) {
+                counters.addAndGet(i, count);
+            }
+        }
+        total.addAndGet(other.total.get());
+    }
+
+    public CountMinSketch emptyCopy() {
+        return new CountMinSketch(epsilon, delta);
+    }
+
+    public long totalCount() {
+        return total.get();
+    }
+
+    // Largest overcount of any estimate, with probability 1 - delta.
+    public long errorBound() {
+        return (long) Math.ceil(epsilon * Math.max(0, total.get()));
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    // Row hashes h1 + row * h2 from two halves of one 64-bit mix (Kirsch-Mitzenmacher).
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
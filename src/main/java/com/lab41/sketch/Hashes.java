@@ -0,0 +1,13 @@
+package com.lab41.sketch;
+
+final class Hashes {
+    private Hashes() {
+    }
+
+    // SplitMix64 finalizer; sequential ids come out well spread over all 64 bits.
+    static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
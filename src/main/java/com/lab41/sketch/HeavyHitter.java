@@ -0,0 +1,5 @@
+package com.lab41.sketch;
+
+// An id tracked by a heavy-hitter summary; the true count lies in [count - error, count].
+public record HeavyHitter(long id, long count, long error) {
+}
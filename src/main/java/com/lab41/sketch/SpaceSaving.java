@@ -0,0 +1,71 @@
+package com.lab41.sketch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy hitters: tracks at most {@code capacity} ids. When a new id arrives and the
+ * summary is full, it takes over the slot of the smallest counter and inherits its count as error.
+ * Any id seen more than {@code total / capacity} times is guaranteed to be tracked, and a tracked
+ * count overstates the truth by at most its {@link HeavyHitter#error()}.
+ */
+public final class SpaceSaving {
+    private final int capacity;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>();
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive.");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(long id, long count) {
+        if (count <= 0) {
+            return;
+        }
+        Counter counter = counters.get(id);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter = new Counter(id, counter.count + count, counter.error);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(id, count, 0);
+        } else {
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.id);
+            counter = new Counter(id, smallest.count + count, smallest.count);
+        }
+        counters.put(id, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * @return up to {@code k} tracked ids, highest count first
+     */
+    public synchronized List<HeavyHitter> top(int k) {
+        List<HeavyHitter> top = new ArrayList<>(Math.min(k, counters.size()));
+        Iterator<Counter> descending = byCount.descendingIterator();
+        while (top.size() < k && descending.hasNext()) {
+            Counter counter = descending.next();
+            top.add(new HeavyHitter(counter.id, counter.count, counter.error));
+        }
+        return top;
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    private record Counter(long id, long count, long error) implements Comparable<Counter> {
+        @Override
+        public int compareTo(Counter other) {
+            int byCount = Long.compare(count, other.count);
+            return byCount != 0 ? byCount : Long.compare(id, other.id);
+        }
+    }
+}
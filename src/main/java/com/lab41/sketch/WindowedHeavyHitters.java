@@ -0,0 +1,118 @@
+package com.lab41.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate per-id counts over all time and over recent windows. Counts go into an all-time
+ * {@link CountMinSketch} and into a ring of time buckets, each holding its own sketch and a
+ * {@link SpaceSaving} summary of its heaviest ids. A window query merges the sketches of the buckets
+ * it covers, then ranks the union of their candidates by the merged estimate.
+ * <p>
+ * Windows are whole buckets, so a window reaches back up to one bucket further than asked.
+ * Counts older than the ring only reach the all-time sketch.
+ */
+public final class WindowedHeavyHitters {
+    private final double epsilon;
+    private final double delta;
+    private final int capacity;
+    private final long bucketMillis;
+    private final CountMinSketch allTime;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public WindowedHeavyHitters(double epsilon, double delta, int capacity, long bucketMillis, int buckets) {
+        if (bucketMillis < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Bucket length and count must be positive.");
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.capacity = capacity;
+        this.bucketMillis = bucketMillis;
+        this.allTime = new CountMinSketch(epsilon, delta);
+        this.ring = new AtomicReferenceArray<>(buckets);
+    }
+
+    public void add(long id, long count, long atMillis) {
+        allTime.add(id, count);
+        Bucket bucket = bucket(Math.floorDiv(atMillis, bucketMillis));
+        if (bucket != null) {
+            bucket.counts.add(id, count);
+            bucket.candidates.offer(id, count);
+        }
+    }
+
+    public long estimate(long id) {
+        return allTime.estimate(id);
+    }
+
+    public long errorBound() {
+        return allTime.errorBound();
+    }
+
+    public long estimate(long id, long windowMillis, long nowMillis) {
+        return merged(live(windowMillis, nowMillis)).estimate(id);
+    }
+
+    /**
+     * @return up to {@code k} ids with the highest estimated count in the window, highest first
+     */
+    public List<HeavyHitter> top(int k, long windowMillis, long nowMillis) {
+        List<Bucket> live = live(windowMillis, nowMillis);
+        CountMinSketch merged = merged(live);
+        Set<Long> candidates = new HashSet<>();
+        live.forEach(bucket -> bucket.candidates.top(capacity).forEach(hitter -> candidates.add(hitter.id())));
+        List<HeavyHitter> ranked = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            long estimate = merged.estimate(id);
+            if (estimate > 0) {
+                ranked.add(new HeavyHitter(id, estimate, merged.errorBound()));
+            }
+        }
+        ranked.sort(Comparator.comparingLong(HeavyHitter::count).reversed().thenComparingLong(HeavyHitter::id));
+        return ranked.subList(0, Math.min(k, ranked.size()));
+    }
+
+    public long maxWindowMillis() {
+        return bucketMillis * ring.length();
+    }
+
+    private List<Bucket> live(long windowMillis, long nowMillis) {
+        long newest = Math.floorDiv(nowMillis, bucketMillis);
+        long covered = Math.min(ring.length(), Math.max(1, -Math.floorDiv(-windowMillis, bucketMillis)));
+        List<Bucket> live = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.index <= newest && bucket.index > newest - covered) {
+                live.add(bucket);
+            }
+        }
+        return live;
+    }
+
+    private CountMinSketch merged(List<Bucket> buckets) {
+        CountMinSketch merged = new CountMinSketch(epsilon, delta);
+        buckets.forEach(bucket -> merged.merge(bucket.counts));
+        return merged;
+    }
+
+    // The bucket for a time index, replacing whatever older bucket held its slot; null if too old.
+    private Bucket bucket(long index) {
+        int slot = (int) Math.floorMod(index, (long) ring.length());
+        Bucket current = ring.get(slot);
+        while (current == null || current.index < index) {
+            Bucket fresh = new Bucket(index, new CountMinSketch(epsilon, delta), new SpaceSaving(capacity));
+            if (ring.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+            current = ring.get(slot);
+        }
+        return current.index == index ? current : null;
+    }
+
+    private record Bucket(long index, CountMinSketch counts, SpaceSaving candidates) {
+    }
+}
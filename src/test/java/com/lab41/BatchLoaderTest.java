@@ -0,0 +1,67 @@
+package com.lab41;
+
+import com.lab41.service.BatchLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchLoaderTest {
+
+    private final List<List<Long>> calls = new ArrayList<>();
+
+    // Pretends that only even ids exist.
+    private final Function<Collection<Long>, Map<Long, String>> evenIds = ids -> {
+        calls.add(List.copyOf(ids));
+        return ids.stream().filter(id -> id % 2 == 0).collect(Collectors.toMap(id -> id, id -> "v" + id));
+    };
+
+    @Test
+    @DisplayName("load: Should coalesce individual loads into one batch call on first read")
+    void load_CoalescesIntoOneBatch() {
+        BatchLoader<Long, String> loader = new BatchLoader<>(evenIds);
+
+        BatchLoader.Deferred<String> two = loader.load(2L);
+        BatchLoader.Deferred<String> three = loader.load(3L);
+        BatchLoader.Deferred<String> four = loader.load(4L);
+        loader.load(2L);
+        assertTrue(calls.isEmpty());
+
+        assertEquals(Optional.of("v2"), two.get());
+        assertEquals(Optional.empty(), three.get());
+        assertEquals(Optional.of("v4"), four.get());
+        assertEquals(List.of(List.of(2L, 3L, 4L)), calls);
+    }
+
+    @Test
+    @DisplayName("load: Should serve repeated keys, including misses, from the request cache")
+    void load_CachesHitsAndMisses() {
+        BatchLoader<Long, String> loader = new BatchLoader<>(evenIds);
+        loader.loadMany(List.of(2L, 3L));
+
+        assertEquals(Optional.of("v2"), loader.load(2L).get());
+        assertEquals(Optional.empty(), loader.load(3L).get());
+        assertEquals(1, loader.batchCount());
+
+        assertEquals(Map.of(2L, "v2", 6L, "v6"), loader.loadMany(List.of(2L, 6L)));
+        assertEquals(List.of(List.of(2L, 3L), List.of(6L)), calls);
+    }
+
+    @Test
+    @DisplayName("loadMany: Should keep the order of the requested keys")
+    void loadMany_PreservesOrder() {
+        BatchLoader<Long, String> loader = new BatchLoader<>(evenIds);
+
+        Map<Long, String> result = loader.loadMany(List.of(8L, 2L, 5L, 4L));
+
+        assertEquals(List.of(8L, 2L, 4L), List.copyOf(result.keySet()));
+    }
+}
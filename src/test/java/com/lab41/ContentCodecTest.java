@@ -0,0 +1,105 @@
+package com.lab41;
+
+import com.lab41.compression.ContentCodec;
+import com.lab41.compression.ContentDictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentCodecTest {
+    private static final String[] WORDS = ("today we shipped the new release after a long week of work thanks to "
+            + "everyone on the team for the help with testing and the great feedback from our friends").split(" ");
+
+    @Test
+    @DisplayName("Should leave short texts alone and round-trip long ones with a plain prefix")
+    void encode_RespectsThreshold() {
+        ContentCodec codec = new ContentCodec(true, 500, ContentDictionary.bundled());
+        String shortText = "short post";
+        String longText = text(new Random(1), 400);
+
+        assertSame(shortText, codec.encode(shortText));
+        String stored = codec.encode(longText);
+        assertTrue(ContentCodec.isEncoded(stored));
+        assertTrue(stored.startsWith(longText.substring(0, ContentCodec.PREFIX_LENGTH)));
+        assertTrue(stored.length() < longText.length(), stored.length() + " >= " + longText.length());
+        assertEquals(longText, codec.decode(stored));
+        assertEquals(shortText, codec.decode(shortText));
+    }
+
+    @Test
+    @DisplayName("Should decode values written while enabled after compression is switched off")
+    void decode_WorksWhenDisabled() {
+        String longText = text(new Random(2), 600);
+        String stored = new ContentCodec(true, 500, ContentDictionary.bundled()).encode(longText);
+
+        ContentCodec disabled = new ContentCodec(false, 500, ContentDictionary.bundled());
+        assertEquals(longText, disabled.decode(stored));
+        assertSame(longText, disabled.encode(longText));
+    }
+
+    @Test
+    @DisplayName("Should always encode texts containing the marker so they cannot be mistaken for compressed values")
+    void encode_MarkerIsAlwaysEscaped() {
+        ContentCodec codec = new ContentCodec(false, 2048, new byte[0]);
+        String tricky = "a" + ContentCodec.MARKER + "bc";
+
+        String stored = codec.encode(tricky);
+        assertNotEquals(tricky, stored);
+        assertEquals(tricky, codec.decode(stored));
+    }
+
+    @Test
+    @DisplayName("Should store no NUL and no half surrogate pair, which PostgreSQL TEXT columns reject")
+    void encode_StoresValidText() {
+        ContentCodec codec = new ContentCodec(true, 0, ContentDictionary.bundled());
+        String emoji = "x".repeat(ContentCodec.PREFIX_LENGTH - 1) + "\uD83D\uDE00 and more";
+
+        String stored = codec.encode(emoji);
+        assertEquals(-1, stored.indexOf('\u0000'));
+        assertTrue(stored.codePoints().noneMatch(cp -> Character.getType(cp) == Character.SURROGATE));
+        assertEquals(emoji, codec.decode(stored));
+    }
+
+    @Test
+    @DisplayName("Should need a registered dictionary to decode and do better with a trained one on short texts")
+    void dictionary_TrainedAndRequired() {
+        Random random = new Random(3);
+        List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            corpus.add(text(random, 40));
+        }
+        byte[] trained = ContentDictionary.train(corpus, ContentDictionary.DEFAULT_SIZE);
+        assertTrue(trained.length > 0 && trained.length <= ContentDictionary.DEFAULT_SIZE);
+
+        ContentCodec plain = new ContentCodec(true, 0, new byte[0]);
+        ContentCodec primed = new ContentCodec(true, 0, trained);
+        long plainBytes = 0;
+        long primedBytes = 0;
+        for (String sample : corpus.subList(0, 20)) {
+            String longer = sample + " " + sample.toUpperCase() + " " + text(random, 10);
+            plainBytes += plain.encode(longer).getBytes(StandardCharsets.UTF_8).length;
+            primedBytes += primed.encode(longer).getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(longer, primed.decode(primed.encode(longer)));
+        }
+        assertTrue(primedBytes < plainBytes, primedBytes + " >= " + plainBytes);
+
+        String stored = primed.encode(text(random, 300));
+        assertThrows(IllegalStateException.class, () -> plain.decode(stored));
+        plain.register(trained);
+        assertDoesNotThrow(() -> plain.decode(stored));
+    }
+
+    static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.lab41;
+
+import com.lab41.compression.ContentCodec;
+import com.lab41.dto.CommentView;
+import com.lab41.dto.PostSummary;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark-style check: bytes stored for long posts with compression on, and what it costs on
+ * createPost / getPostById compared to short posts that are stored as is.
+ */
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "spring.jpa.show-sql=false",
+        "lab41.content-compression.enabled=true",
+        "lab41.rate-limit.enabled=false",
+        "lab41.content-compression.threshold=1024",
+        "spring.datasource.url=jdbc:h2:mem:content-compression-it"
+})
+public class ContentCompressionIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(ContentCompressionIntegrationTest.class);
+
+    private static final int POSTS = 200;
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = TestUsers.create(userService, "compress");
+    }
+
+    @Test
+    @DisplayName("Long posts and comments should be stored compressed and read back unchanged")
+    void longContent_StoredCompressed() {
+        String longText = ContentCodecTest.text(new Random(7), 600);
+        Post post = postService.createPost(author.getUserId(), longText);
+        postService.addCommentToPost(post.getPostId(), author.getUserId(), longText);
+
+        String stored = jdbcTemplate.queryForObject("select content from posts where post_id = ?", String.class, post.getPostId());
+        assertTrue(ContentCodec.isEncoded(stored));
+        assertTrue(stored.length() < longText.length() / 2, stored.length() + " chars stored for " + longText.length());
+
+        assertEquals(longText, postService.getPostById(post.getPostId()).orElseThrow().getContent());
+        List<CommentView> comments = postService.getCommentViewsByPost(post.getPostId(), 0, 10);
+        assertEquals(longText, comments.get(0).content());
+        PostSummary summary = postService.getPostSummariesByUser(author.getUserId(), 0, 1).get(0);
+        assertEquals(longText.substring(0, PostSummary.SNIPPET_LENGTH), summary.snippet());
+    }
+
+    @Test
+    @DisplayName("Search should match text past the plain prefix of compressed posts")
+    void search_MatchesCompressedContent() {
+        String needle = "needle" + System.nanoTime();
+        String longText = ContentCodecTest.text(new Random(13), 600) + " " + needle.toUpperCase();
+        Post post = postService.createPost(author.getUserId(), longText);
+        postService.createPost(author.getUserId(), ContentCodecTest.text(new Random(14), 600));
+
+        List<Post> found = postService.searchPostsByContent(needle);
+
+        assertEquals(List.of(post.getPostId()), found.stream().map(Post::getPostId).toList());
+    }
+
+    @Test
+    @DisplayName("Benchmark: storage saved versus create/read latency")
+    void benchmark_StorageVersusLatency() {
+        Random random = new Random(11);
+        List<String> longTexts = new ArrayList<>();
+        List<String> shortTexts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            longTexts.add(ContentCodecTest.text(random, 400 + random.nextInt(400)));
+            shortTexts.add(ContentCodecTest.text(random, 40));
+        }
+        // warm up both paths
+        run(longTexts.subList(0, 20));
+        run(shortTexts.subList(0, 20));
+
+        long[] longTimes = run(longTexts);
+        long[] shortTimes = run(shortTexts);
+        long rawChars = longTexts.stream().mapToLong(String::length).sum()
+                + longTexts.subList(0, 20).stream().mapToLong(String::length).sum();
+        long storedChars = jdbcTemplate.queryForObject(
+                "select sum(length(content)) from posts where user_id = ? and locate(?, content) > 0", Long.class,
+                author.getUserId(), ContentCodec.MARKER);
+
+        log.debug("{} long posts (+20 warm-up): {} chars raw, {} stored; create {} us vs {} us short, read {} us vs {} us short",
+                POSTS, rawChars, storedChars,
+                longTimes[0] / POSTS / 1000, shortTimes[0] / POSTS / 1000,
+                longTimes[1] / POSTS / 1000, shortTimes[1] / POSTS / 1000);
+        assertTrue(storedChars < rawChars / 2, storedChars + " chars stored for " + rawChars);
+    }
+
+    // returns {total create nanos, total read nanos}
+    private long[] run(List<String> texts) {
+        long create = 0;
+        long read = 0;
+        for (String text : texts) {
+            long started = System.nanoTime();
+            Post post = postService.createPost(author.getUserId(), text);
+            long created = System.nanoTime();
+            assertEquals(text, postService.getPostById(post.getPostId()).orElseThrow().getContent());
+            create += created - started;
+            read += System.nanoTime() - created;
+        }
+        return new long[]{create, read};
+    }
+}
@@ -0,0 +1,127 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark-style checks over two years of synthetic posts and likes: a one-month range query must
+ * only read that month's index range, the way a partitioned table would only open one partition.
+ */
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:date-range-bench"
+})
+public class DateRangeScanTest {
+    private static final Logger log = LoggerFactory.getLogger(DateRangeScanTest.class);
+
+    private static final int MONTHS = 24;
+    private static final int POSTS_PER_MONTH = 500;
+    private static final int ROUNDS = 50;
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private final LocalDateTime monthFrom = start.plusMonths(13);
+    private final LocalDateTime monthTo = monthFrom.plusMonths(1).minusNanos(1000);
+
+    @BeforeEach
+    void setUp() {
+        Optional<User> existing = userService.findByUsername("range-author");
+        if (existing.isPresent()) {
+            return;
+        }
+        User author = new User();
+        author.setUsername("range-author");
+        author.setEmail("range-author@example.com");
+        author.setPasswordHash("hash");
+        Long authorId = userService.saveUser(author).getUserId();
+
+        List<Object[]> posts = new ArrayList<>();
+        for (int month = 0; month < MONTHS; month++) {
+            LocalDateTime monthStart = start.plusMonths(month);
+            for (int i = 0; i < POSTS_PER_MONTH; i++) {
+                posts.add(new Object[]{authorId, "Post " + month + "/" + i, Timestamp.valueOf(monthStart.plusMinutes(i * 60L))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO posts (user_id, content, created_at) VALUES (?, ?, ?)", posts);
+        jdbcTemplate.update("INSERT INTO likes (user_id, post_id, created_at) SELECT ?, post_id, created_at FROM posts", authorId);
+    }
+
+    @Test
+    @DisplayName("A one-month post range should scan one month of index entries, not two years of rows")
+    void postRange_ReadsOnlyTheMonth() {
+        List<Post> month = postService.getPostsBetweenDates(monthFrom, monthTo);
+        assertEquals(POSTS_PER_MONTH, month.size());
+
+        String sql = "SELECT post_id FROM posts WHERE created_at BETWEEN ? AND ?";
+        String plan = explain(sql);
+        assertTrue(plan.contains("IDX_POSTS_CREATED"), plan);
+
+        long indexed = scanCount(sql);
+        long fullScan = scanCount("SELECT post_id FROM posts USE INDEX () WHERE created_at BETWEEN ? AND ?");
+        long indexedNanos = nanosPerCall(sql);
+        long fullScanNanos = nanosPerCall("SELECT post_id FROM posts USE INDEX () WHERE created_at BETWEEN ? AND ?");
+        log.debug("One month of {} posts: index range scanned {} rows in {} us, full scan {} rows in {} us",
+                MONTHS * POSTS_PER_MONTH, indexed, indexedNanos / 1000, fullScan, fullScanNanos / 1000);
+
+        assertTrue(indexed <= POSTS_PER_MONTH + 1, "index range scanned " + indexed + " rows");
+        assertTrue(fullScan >= MONTHS * POSTS_PER_MONTH, "full scan read " + fullScan + " rows");
+    }
+
+    @Test
+    @DisplayName("A one-month like range should use the likes created_at index")
+    void likeRange_ReadsOnlyTheMonth() {
+        String sql = "SELECT like_id FROM likes WHERE created_at BETWEEN ? AND ?";
+        assertTrue(explain(sql).contains("IDX_LIKES_CREATED"), explain(sql));
+        assertTrue(scanCount(sql) <= POSTS_PER_MONTH + 1);
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, monthFrom, monthTo));
+    }
+
+    private long scanCount(String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN ANALYZE " + sql, String.class, monthFrom, monthTo));
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        assertTrue(matcher.find(), plan);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private long nanosPerCall(String sql) {
+        for (int i = 0; i < ROUNDS; i++) {
+            jdbcTemplate.queryForList(sql, Long.class, monthFrom, monthTo);
+        }
+        long before = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            jdbcTemplate.queryForList(sql, Long.class, monthFrom, monthTo);
+        }
+        return (System.nanoTime() - before) / ROUNDS;
+    }
+}
@@ -0,0 +1,118 @@
+package com.lab41;
+
+import com.lab41.dto.TrendingPost;
+import com.lab41.service.DecayingLeaderboard;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecayingLeaderboardTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("A score should halve every half-life and recent activity should outrank older activity")
+    void decay_HalvesPerHalfLife() {
+        DecayingLeaderboard board = new DecayingLeaderboard(HOUR, 10, T0);
+        board.add(1L, 4, T0);
+        board.add(2L, 3, T0 + 2 * HOUR);
+
+        assertEquals(4, board.score(1L, T0), 1e-9);
+        assertEquals(1, board.score(1L, T0 + 2 * HOUR), 1e-9);
+        assertEquals(List.of(2L, 1L), ids(board.top(10, T0 + 2 * HOUR)));
+        assertEquals(3, board.top(1, T0 + 2 * HOUR).get(0).score(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("The board should match a brute-force ranking under random updates and rescales")
+    void top_MatchesBruteForce() {
+        DecayingLeaderboard board = new DecayingLeaderboard(HOUR, 50, T0);
+        Map<Long, Double> expected = new HashMap<>();
+        Random random = new Random(42);
+        long now = T0;
+        for (int i = 0; i < 20_000; i++) {
+            now += random.nextInt(2_000);
+            // skewed ids so some posts are hot
+            long id = (long) Math.floor(Math.pow(random.nextDouble(), 3) * 500);
+            board.add(id, 1, now);
+            double decayToT0 = Math.pow(2, (now - T0) / (double) HOUR);
+            expected.merge(id, decayToT0, Double::sum);
+            if (i % 5_000 == 4_999) {
+                board.rescale(now, 0);
+            }
+        }
+        List<Long> bruteForce = expected.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(10).map(Map.Entry::getKey).toList();
+
+        assertEquals(bruteForce, ids(board.top(10, now)));
+    }
+
+    @Test
+    @DisplayName("Rescale should drop ids whose score decayed below the minimum and keep the ranking")
+    void rescale_PrunesDeadScores() {
+        DecayingLeaderboard board = new DecayingLeaderboard(HOUR, 10, T0);
+        board.add(1L, 1, T0);
+        board.add(2L, 1, T0 + 10 * HOUR);
+
+        assertEquals(1, board.rescale(T0 + 10 * HOUR, 0.01));
+        assertEquals(1, board.size());
+        assertEquals(List.of(2L), ids(board.top(10, T0 + 10 * HOUR)));
+        assertEquals(1, board.score(2L, T0 + 10 * HOUR), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Removed ids and ids whose score drops to zero should leave the board")
+    void remove_AndNegativeWeights() {
+        DecayingLeaderboard board = new DecayingLeaderboard(HOUR, 10, T0);
+        board.add(1L, 2, T0);
+        board.add(2L, 1, T0);
+        board.add(3L, 1, T0);
+        board.remove(1L);
+        board.add(2L, -1, T0);
+
+        assertEquals(List.of(3L), ids(board.top(10, T0)));
+    }
+
+    @Test
+    @DisplayName("Concurrent updates should not lose points")
+    void concurrentAdds() throws Exception {
+        DecayingLeaderboard board = new DecayingLeaderboard(HOUR, 5, T0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        board.add(i % 20, 1, T0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        for (long id = 0; id < 20; id++) {
+            assertEquals(4_000, board.score(id, T0), 1e-6);
+        }
+        assertEquals(5, board.top(10, T0).size());
+    }
+
+    private static List<Long> ids(List<TrendingPost> posts) {
+        return posts.stream().map(TrendingPost::postId).toList();
+    }
+}
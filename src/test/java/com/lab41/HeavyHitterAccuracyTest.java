@@ -0,0 +1,138 @@
+package com.lab41;
+
+import com.lab41.sketch.CountMinSketch;
+import com.lab41.sketch.HeavyHitter;
+import com.lab41.sketch.SpaceSaving;
+import com.lab41.sketch.WindowedHeavyHitters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHitterAccuracyTest {
+    private static final Logger log = LoggerFactory.getLogger(HeavyHitterAccuracyTest.class);
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long T0 = 1_700_000_000_000L;
+    private static final int EVENTS = 200_000;
+    private static final int POSTS = 20_000;
+
+    @Test
+    @DisplayName("Count-Min estimates should never undercount and stay within epsilon * N for nearly all posts")
+    void countMin_WithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.01);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < EVENTS; i++) {
+            long postId = zipf(random);
+            sketch.add(postId, 1);
+            exact.merge(postId, 1L, Long::sum);
+        }
+
+        long bound = sketch.errorBound();
+        assertEquals(200, bound);
+        int outside = 0;
+        long totalError = 0;
+        for (Map.Entry<Long, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "undercount for post " + entry.getKey());
+            totalError += estimate - entry.getValue();
+            if (estimate - entry.getValue() > bound) {
+                outside++;
+            }
+        }
+        double meanError = totalError / (double) exact.size();
+        log.debug("Count-Min {}x{} over {} events / {} posts: bound {}, mean error {}, {} outside bound",
+                sketch.depth(), sketch.width(), EVENTS, exact.size(), bound, meanError, outside);
+        assertTrue(outside <= exact.size() * 0.01, outside + " estimates outside the bound");
+        assertTrue(meanError < bound / 2.0);
+    }
+
+    @Test
+    @DisplayName("Space-Saving should find the exact top posts of a skewed stream with a small summary")
+    void spaceSaving_FindsExactTop() {
+        SpaceSaving summary = new SpaceSaving(200);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < EVENTS; i++) {
+            long postId = zipf(random);
+            summary.offer(postId, 1);
+            exact.merge(postId, 1L, Long::sum);
+        }
+
+        List<HeavyHitter> top = summary.top(10);
+        assertEquals(exactTop(exact, 10), top.stream().map(HeavyHitter::id).toList());
+        for (HeavyHitter hitter : top) {
+            long truth = exact.get(hitter.id());
+            assertTrue(hitter.count() >= truth && hitter.count() - hitter.error() <= truth);
+        }
+        assertEquals(200, summary.size());
+    }
+
+    @Test
+    @DisplayName("Window rankings should match exact counts over the covered buckets and drop expired ones")
+    void windowed_TopMatchesExactPerWindow() {
+        WindowedHeavyHitters counts = new WindowedHeavyHitters(0.001, 0.01, 200, HOUR, 24);
+        Map<Long, Long> lastHour = new HashMap<>();
+        Map<Long, Long> allDay = new HashMap<>();
+        Random random = new Random(13);
+        long now = T0;
+        for (int i = 0; i < EVENTS; i++) {
+            now = T0 + i * (30 * HOUR / EVENTS);
+            // the hot set shifts every few hours, so windows disagree on what is on top
+            long postId = (zipf(random) + now / (4 * HOUR)) % POSTS;
+            counts.add(postId, 1, now);
+            if (now >= T0 + 7 * HOUR) {
+                // whole hour buckets: the last 24 fully cover hours 7..30
+                allDay.merge(postId, 1L, Long::sum);
+            }
+            if (Math.floorDiv(now, HOUR) == Math.floorDiv(T0 + 30 * HOUR - 1, HOUR)) {
+                lastHour.merge(postId, 1L, Long::sum);
+            }
+        }
+
+        assertEquals(exactTop(lastHour, 10), ids(counts.top(10, HOUR, now)));
+        assertEquals(exactTop(allDay, 10), ids(counts.top(10, 24 * HOUR, now)));
+        HeavyHitter hottest = counts.top(1, HOUR, now).get(0);
+        long truth = lastHour.get(hottest.id());
+        assertTrue(hottest.count() >= truth && hottest.count() - truth <= hottest.error());
+    }
+
+    @Test
+    @DisplayName("Taking back a count should lower the estimate without going below zero")
+    void countMin_AcceptsRemovals() {
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.01);
+        sketch.add(1L, 3);
+        sketch.add(1L, -1);
+        sketch.add(2L, -1);
+
+        assertEquals(2, sketch.estimate(1L));
+        assertEquals(0, sketch.estimate(2L));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new CountMinSketch(0.001, 0.01)));
+    }
+
+    // Zipf-like (s ~ 1) ids: post k is drawn roughly in proportion to 1 / k.
+    private static long zipf(Random random) {
+        return (long) Math.floor(Math.exp(random.nextDouble() * Math.log(POSTS))) - 1;
+    }
+
+    private static List<Long> exactTop(Map<Long, Long> counts, int k) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(k).map(Map.Entry::getKey).toList();
+    }
+
+    private static List<Long> ids(List<HeavyHitter> hitters) {
+        return hitters.stream().map(HeavyHitter::id).toList();
+    }
+}
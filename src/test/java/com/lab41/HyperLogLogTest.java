@@ -0,0 +1,64 @@
+package com.lab41;
+
+import com.lab41.sketch.HyperLogLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Estimates should stay within three standard errors from tens to millions of distinct ids")
+    void estimate_WithinStandardError() {
+        double standardError = 1.04 / Math.sqrt(1 << HyperLogLog.DEFAULT_PRECISION);
+        for (int distinct : new int[]{10, 1_000, 50_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+            for (long id = 1; id <= distinct; id++) {
+                sketch.add(id);
+                sketch.add(id); // repeats must not count
+            }
+            double relativeError = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(relativeError < 3 * standardError, distinct + " ids estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    @DisplayName("Merging daily sketches should estimate the union, not the sum")
+    void merge_EstimatesUnion() {
+        HyperLogLog monday = new HyperLogLog(12);
+        HyperLogLog tuesday = new HyperLogLog(12);
+        for (long id = 0; id < 30_000; id++) {
+            monday.add(id);
+            tuesday.add(id + 20_000);
+        }
+        HyperLogLog week = monday.copy();
+        week.merge(tuesday);
+
+        assertEquals(50_000, week.estimate(), 50_000 * 0.05);
+        assertEquals(30_000, monday.estimate(), 30_000 * 0.05);
+        assertThrows(IllegalArgumentException.class, () -> week.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    @DisplayName("Serialized sketches should round-trip and stay small while few registers are set")
+    void toBytes_IsCompactWhenSparse() {
+        HyperLogLog few = new HyperLogLog(12);
+        for (long id = 0; id < 20; id++) {
+            few.add(id);
+        }
+        HyperLogLog many = new HyperLogLog(12);
+        for (long id = 0; id < 100_000; id++) {
+            many.add(id);
+        }
+
+        byte[] sparse = few.toBytes();
+        byte[] dense = many.toBytes();
+        assertTrue(sparse.length <= 2 + 20 * 3);
+        assertEquals(2 + 4096, dense.length);
+        assertEquals(few, HyperLogLog.fromBytes(sparse));
+        assertEquals(many, HyperLogLog.fromBytes(dense));
+        assertEquals(few.estimate(), HyperLogLog.fromBytes(sparse).estimate());
+        assertTrue(new HyperLogLog(12).isEmpty());
+    }
+}
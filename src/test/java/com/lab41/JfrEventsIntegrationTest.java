@@ -0,0 +1,84 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.monitoring.jfr.JfrSummary;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:jfr-events-it"
+})
+public class JfrEventsIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("A recording with the lab41 profile should summarize committed operations into latency histograms")
+    void recording_SummarizesPerOperation(@TempDir Path dir) throws Exception {
+        User author = TestUsers.create(userService, "jfr");
+        User fan = TestUsers.create(userService, "jfr");
+        Path file = dir.resolve("lab41.jfr");
+        try (Reader profile = new InputStreamReader(new ClassPathResource("jfr/lab41.jfc").getInputStream(),
+                StandardCharsets.UTF_8);
+             Recording recording = new Recording(Configuration.create(profile))) {
+            recording.enable("com.lab41.RepositoryQuery").withThreshold(Duration.ZERO);
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                Post post = postService.createPost(author.getUserId(), "recorded " + i);
+                postService.addLikeToPost(post.getPostId(), fan.getUserId());
+            }
+            postService.getPostSummariesByUser(author.getUserId(), 0, 10);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                postService.createPost(author.getUserId(), "rolled back");
+                status.setRollbackOnly();
+            });
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<JfrSummary.Operation> operations = JfrSummary.summarize(file);
+        assertEquals(3, operation(operations, "PostCreated").count());
+        assertEquals(3, operation(operations, "LikeAdded").count());
+        JfrSummary.Operation feed = operation(operations, "FeedBuilt");
+        assertEquals(1, feed.count());
+        assertEquals(3, feed.rows());
+        assertTrue(operation(operations, "RepositoryQuery PostRepository.save").count() >= 3);
+        assertEquals(3, operation(operations, "PostCreated").histogram().values().stream().mapToLong(Long::longValue).sum());
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        JfrSummary.print(operations, new PrintStream(printed, true, StandardCharsets.UTF_8));
+        assertTrue(printed.toString(StandardCharsets.UTF_8).contains("RepositoryQuery PostRepository.save"));
+    }
+
+    private static JfrSummary.Operation operation(List<JfrSummary.Operation> operations, String name) {
+        return operations.stream().filter(operation -> operation.name().equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.lab41;
+
+import com.lab41.monitoring.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("percentile: Should stay within the bucket error of the exact value")
+    void percentile_WithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000_000, histogram.max());
+        assertWithin(5_000_000, histogram.percentile(0.50));
+        assertWithin(9_500_000, histogram.percentile(0.95));
+        assertWithin(9_900_000, histogram.percentile(0.99));
+        assertEquals(10_000_000, histogram.percentile(1.0));
+    }
+
+    @Test
+    @DisplayName("percentile: Should expose a slow tail hidden by the mean")
+    void percentile_SlowTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 980; i++) {
+            histogram.record(50_000);
+        }
+        for (int i = 0; i < 20; i++) {
+            histogram.record(200_000_000);
+        }
+
+        assertWithin(50_000, histogram.percentile(0.50));
+        assertWithin(200_000_000, histogram.percentile(0.99));
+    }
+
+    @Test
+    @DisplayName("reset: Should clear all recorded values")
+    void reset_ClearsValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(0.99));
+        assertEquals(0, histogram.mean());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.25,
+                "expected ~" + expected + " but was " + actual);
+    }
+}
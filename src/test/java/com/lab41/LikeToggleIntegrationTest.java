@@ -0,0 +1,83 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.repository.LikeRepository;
+import com.lab41.service.LikeToggleCoalescer;
+import com.lab41.service.PostService;
+import com.lab41.service.RateLimitedException;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.like-coalescing.window=PT1H",
+        "lab41.rate-limit.capacity=40",
+        "lab41.rate-limit.refill-per-second=0.01",
+        "spring.datasource.url=jdbc:h2:mem:like-toggle-it"
+})
+public class LikeToggleIntegrationTest {
+
+    @Autowired
+    private LikeToggleCoalescer coalescer;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private LikeRepository likeRepository;
+
+    private User author;
+    private User fan;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        author = TestUsers.create(userService, "author");
+        fan = TestUsers.create(userService, "fan");
+        post = postService.createPost(author.getUserId(), "tap me");
+    }
+
+    @Test
+    @DisplayName("A burst of toggles should be persisted as its final state only, and not before the window closes")
+    void toggles_CollapseToFinalState() {
+        for (int i = 0; i < 21; i++) {
+            coalescer.setLiked(post.getPostId(), fan.getUserId(), i % 2 == 0);
+        }
+        assertTrue(coalescer.isLiked(post.getPostId(), fan.getUserId()));
+        assertEquals(0, coalescer.flush());
+        assertFalse(likeRepository.existsByUserIdAndPostId(fan.getUserId(), post.getPostId()));
+
+        assertEquals(1, coalescer.flushAll());
+        assertTrue(likeRepository.existsByUserIdAndPostId(fan.getUserId(), post.getPostId()));
+        assertTrue(coalescer.isLiked(post.getPostId(), fan.getUserId()));
+
+        coalescer.setLiked(post.getPostId(), fan.getUserId(), false);
+        coalescer.setLiked(post.getPostId(), fan.getUserId(), true);
+        assertEquals(0, coalescer.flushAll());
+        assertThrows(IllegalArgumentException.class, () -> coalescer.setLiked(-1L, fan.getUserId(), true));
+    }
+
+    @Test
+    @DisplayName("A user past their token bucket should be rejected on every write method until it refills")
+    void writes_AreRateLimitedPerUser() {
+        RateLimitedException thrown = assertThrows(RateLimitedException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                coalescer.setLiked(post.getPostId(), fan.getUserId(), i % 2 == 0);
+            }
+        });
+        assertTrue(thrown.getRetryAfter().toSeconds() > 1);
+        assertThrows(RateLimitedException.class, () -> postService.createPost(fan.getUserId(), "spam"));
+        assertThrows(RateLimitedException.class, () -> postService.addCommentToPost(post.getPostId(), fan.getUserId(), "spam"));
+
+        postService.addLikeToPost(post.getPostId(), author.getUserId());
+        assertEquals(0, coalescer.flushAll());
+    }
+}
@@ -0,0 +1,81 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.monitoring.MethodMetrics;
+import com.lab41.monitoring.PrometheusEndpoint;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.metrics.endpoint.enabled=true",
+        "lab41.metrics.endpoint.port=0",
+        "spring.datasource.url=jdbc:h2:mem:method-metrics-it"
+})
+public class MethodMetricsIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private MethodMetrics methodMetrics;
+    @Autowired
+    private PrometheusEndpoint endpoint;
+
+    @Test
+    @DisplayName("Service and repository calls should be timed per method, with errors counted by type")
+    void calls_AreTimedPerMethod() {
+        User author = TestUsers.create(userService, "metrics");
+        Post post = postService.createPost(author.getUserId(), "measured");
+        postService.getPostsByUser(author.getUserId());
+        assertThrows(IllegalArgumentException.class, () -> postService.createPost(-1L, "nobody"));
+
+        assertEquals(2, registry.get("lab41.method")
+                .tags("layer", "service", "class", "PostService", "method", "createPost").timer().count());
+        assertTrue(registry.get("lab41.method")
+                .tags("layer", "repository", "class", "PostRepository", "method", "save").timer().count() >= 1);
+        assertEquals(1, registry.get("lab41.method.errors")
+                .tags("class", "PostService", "method", "createPost", "exception", "IllegalArgumentException")
+                .counter().count());
+        assertEquals(1, registry.get("lab41.method.result.size")
+                .tags("class", "PostService", "method", "getPostsByUser").summary().totalAmount());
+
+        MethodMetrics.MethodSnapshot createPost = methodMetrics.snapshot().stream()
+                .filter(method -> method.className().equals("PostService") && method.methodName().equals("createPost"))
+                .findFirst().orElseThrow();
+        assertEquals(1, createPost.errors());
+        assertTrue(createPost.maxMillis() > 0);
+        methodMetrics.report();
+        assertNotNull(post.getPostId());
+    }
+
+    @Test
+    @DisplayName("The endpoint should serve the timers in Prometheus text format")
+    void endpoint_ServesPrometheusText() throws Exception {
+        postService.getPostsByUser(TestUsers.create(userService, "metrics").getUserId());
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + endpoint.getPort() + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("lab41_method_seconds_bucket{"));
+        assertTrue(response.body().contains("method=\"getPostsByUser\""));
+    }
+}
@@ -0,0 +1,175 @@
+package com.lab41;
+
+import com.lab41.model.OutboxEvent;
+import com.lab41.model.OutboxEventType;
+import com.lab41.repository.OutboxRepository;
+import com.lab41.service.OutboxEventHandler;
+import com.lab41.service.OutboxPoller;
+import com.lab41.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:outbox-test"
+})
+public class OutboxPollerTest {
+
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OutboxPoller outboxPoller;
+    @Autowired
+    private OutboxRepository outboxRepository;
+    @Autowired
+    private RecordingHandler handler;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @TestConfiguration
+    static class HandlerConfig {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    static class RecordingHandler implements OutboxEventHandler {
+        final List<Long> handled = new ArrayList<>();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public boolean supports(OutboxEventType eventType) {
+            return eventType == OutboxEventType.LIKE_ADDED;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated consumer failure");
+            }
+            handled.add(event.getAggregateId());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        outboxRepository.deleteAll();
+        handler.handled.clear();
+        handler.failuresLeft.set(0);
+    }
+
+    @Test
+    @DisplayName("record: Should refuse to write an event outside of a transaction")
+    void record_WithoutTransaction_Throws() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> outboxService.record(OutboxEventType.LIKE_ADDED, 1L, 2L, 3L));
+    }
+
+    @Test
+    @DisplayName("record: Should not leave an event behind when the surrounding transaction rolls back")
+    void record_RolledBack_IsDiscarded() {
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            outboxService.record(OutboxEventType.LIKE_ADDED, 1L, 2L, 3L);
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("pollOnce: Should dispatch pending events in order and mark them processed")
+    void pollOnce_DispatchesAndAcknowledges() {
+        tx.executeWithoutResult(status -> {
+            outboxService.record(OutboxEventType.LIKE_ADDED, 10L, 1L, 100L);
+            outboxService.record(OutboxEventType.POST_CREATED, 11L, 1L, null);
+            outboxService.record(OutboxEventType.LIKE_ADDED, 12L, 1L, 100L);
+        });
+
+        assertEquals(3, outboxPoller.pollOnce());
+        assertEquals(List.of(10L, 12L), handler.handled);
+        assertEquals(0, outboxPoller.pollOnce());
+        outboxRepository.findAll().forEach(event -> assertNotNull(event.getProcessedAt()));
+    }
+
+    @Test
+    @DisplayName("pollOnce: Should release a failed event and redeliver it once its backoff has passed")
+    void pollOnce_HandlerFails_RedeliversAfterBackoff() {
+        tx.executeWithoutResult(status -> outboxService.record(OutboxEventType.LIKE_ADDED, 10L, 1L, 100L));
+        handler.failuresLeft.set(1);
+
+        assertEquals(1, outboxPoller.pollOnce());
+        assertTrue(handler.handled.isEmpty());
+        OutboxEvent released = outboxRepository.findAll().iterator().next();
+        assertNull(released.getProcessedAt());
+        assertNull(released.getClaimedBy());
+        assertEquals(1, released.getAttempts());
+        assertTrue(released.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+        assertEquals(0, outboxPoller.pollOnce());
+
+        released.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(released);
+        assertEquals(1, outboxPoller.pollOnce());
+        assertEquals(List.of(10L), handler.handled);
+    }
+
+    @Test
+    @DisplayName("pollOnce: Should back off exponentially and park an event after max-attempts failures")
+    void pollOnce_RepeatedFailures_BackOffAndPark() {
+        tx.executeWithoutResult(status -> outboxService.record(OutboxEventType.LIKE_ADDED, 10L, 1L, 100L));
+        handler.failuresLeft.set(Integer.MAX_VALUE);
+
+        OutboxEvent event = outboxRepository.findAll().iterator().next();
+        event.setAttempts(3);
+        outboxRepository.save(event);
+        LocalDateTime beforePoll = LocalDateTime.now();
+        assertEquals(1, outboxPoller.pollOnce());
+        event = outboxRepository.findById(event.getEventId()).orElseThrow();
+        // Fourth failure with the default one second base: 8 seconds.
+        assertFalse(event.getNextAttemptAt().isBefore(beforePoll.plusSeconds(8)));
+        assertEquals(0, outboxPoller.countParked());
+
+        event.setAttempts(9);
+        event.setNextAttemptAt(null);
+        outboxRepository.save(event);
+        assertEquals(1, outboxPoller.pollOnce());
+        assertEquals(1, outboxPoller.countParked());
+
+        event = outboxRepository.findById(event.getEventId()).orElseThrow();
+        event.setNextAttemptAt(null);
+        outboxRepository.save(event);
+        assertEquals(0, outboxPoller.pollOnce());
+    }
+
+    @Test
+    @DisplayName("pollOnce: Should skip events currently leased by another poller")
+    void pollOnce_SkipsClaimedEvents() {
+        tx.executeWithoutResult(status -> outboxService.record(OutboxEventType.LIKE_ADDED, 10L, 1L, 100L));
+        OutboxEvent event = outboxRepository.findAll().iterator().next();
+        event.setClaimedBy("other-poller");
+        event.setClaimedAt(LocalDateTime.now());
+        outboxRepository.save(event);
+
+        assertEquals(0, outboxPoller.pollOnce());
+        assertTrue(handler.handled.isEmpty());
+    }
+}
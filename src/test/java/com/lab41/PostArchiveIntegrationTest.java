@@ -0,0 +1,170 @@
+package com.lab41;
+
+import com.lab41.archive.PostArchive;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.model.UserStats;
+import com.lab41.service.PostArchiver;
+import com.lab41.service.PostRetentionService;
+import com.lab41.service.PostService;
+import com.lab41.service.PostViewTracker;
+import com.lab41.service.UserService;
+import com.lab41.service.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.archive.segment-size=3",
+        "spring.datasource.url=jdbc:h2:mem:post-archive-it"
+})
+public class PostArchiveIntegrationTest {
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("lab41.archive.dir", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostArchiver postArchiver;
+    @Autowired
+    private PostArchive postArchive;
+    @Autowired
+    private PostRetentionService retentionService;
+    @Autowired
+    private PostViewTracker postViewTracker;
+    @Autowired
+    private UserStatsService userStatsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        author = TestUsers.create(userService, "author");
+        reader = TestUsers.create(userService, "reader");
+    }
+
+    @Test
+    @DisplayName("Archived posts should leave the hot tables but still be served by id, author and date range")
+    void archivedPosts_AreReadTransparently() {
+        LocalDateTime old = LocalDateTime.now().minusYears(1).withNano(0);
+        Post first = oldPost("old one", old);
+        Post second = oldPost("old two", old.plusDays(1));
+        postService.addCommentToPost(first.getPostId(), reader.getUserId(), "old comment");
+        postService.addLikeToPost(first.getPostId(), reader.getUserId());
+        for (int i = 0; i < 4; i++) {
+            oldPost("filler " + i, old.plusDays(2 + i));
+        }
+        Post fresh = postService.createPost(author.getUserId(), "fresh");
+
+        long archived = postArchiver.archiveOlderThan(LocalDateTime.now().minusMonths(6));
+
+        assertEquals(6, archived);
+        assertTrue(postArchive.segmentCount() >= 2);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from posts where post_id in (?, ?)", Long.class, first.getPostId(), second.getPostId()));
+
+        Post fromArchive = postService.getPostById(first.getPostId()).orElseThrow();
+        assertTrue(fromArchive.isArchived());
+        assertEquals("old one", fromArchive.getContent());
+        assertEquals(old, fromArchive.getCreatedAt());
+        assertEquals(author.getUsername(), fromArchive.getUser().getUsername());
+        assertEquals(1L, fromArchive.getArchivedLikeCount());
+        assertEquals(1, fromArchive.getCommentCount());
+        assertEquals("old comment", fromArchive.getComments().get(0).getContent());
+        assertEquals(reader.getUserId(), fromArchive.getComments().get(0).getUser().getUserId());
+
+        List<Post> byUser = postService.getPostsByUser(author.getUserId());
+        assertEquals(7, byUser.size());
+        assertEquals(fresh.getPostId(), byUser.get(0).getPostId());
+        assertEquals(first.getPostId(), byUser.get(6).getPostId());
+
+        List<Post> range = postService.getPostsBetweenDates(old.minusHours(1), old.plusDays(1).plusHours(1));
+        assertEquals(List.of(second.getPostId(), first.getPostId()), range.stream().map(Post::getPostId).toList());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> postService.addCommentToPost(first.getPostId(), reader.getUserId(), "too late"));
+    }
+
+    @Test
+    @DisplayName("Archiving should drop the view counts of the archived posts and record them as deleted")
+    void archive_DeletesViewCountsAndRecordsEvents() {
+        Post old = oldPost("viewed", LocalDateTime.now().minusYears(2));
+        postViewTracker.record(old.getPostId(), 3);
+        postViewTracker.flush();
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from post_views where post_id = ?", Long.class, old.getPostId()));
+
+        postArchiver.archiveOlderThan(LocalDateTime.now().minusYears(1));
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from post_views where post_id = ?", Long.class, old.getPostId()));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from outbox where event_type = 'POST_DELETED' " +
+                "and aggregate_id = ?", Long.class, old.getPostId()));
+    }
+
+    @Test
+    @DisplayName("Profile counters should keep counting archived posts, as the post list keeps showing them")
+    void archivedPosts_StayCountedInUserStats() {
+        Post old = oldPost("counted", LocalDateTime.now().minusYears(3));
+        postService.createPost(author.getUserId(), "fresh");
+        postService.addLikeToPost(old.getPostId(), reader.getUserId());
+        postService.addCommentToPost(old.getPostId(), reader.getUserId(), "still counted");
+
+        postArchiver.archiveOlderThan(LocalDateTime.now().minusYears(2));
+        userStatsService.reconcile();
+
+        UserStats authorStats = userStatsService.getStats(author.getUserId()).orElseThrow();
+        assertEquals(postService.getPostsByUser(author.getUserId()).size(), authorStats.getPostCount());
+        assertEquals(2, authorStats.getPostCount());
+        assertEquals(1, authorStats.getLikesReceived());
+        assertEquals(1, userStatsService.getStats(reader.getUserId()).orElseThrow().getCommentCount());
+
+        retentionService.purgeOlderThan(LocalDateTime.now().minusYears(2));
+
+        authorStats = userStatsService.getStats(author.getUserId()).orElseThrow();
+        assertEquals(postService.getPostsByUser(author.getUserId()).size(), authorStats.getPostCount());
+        assertEquals(1, authorStats.getPostCount());
+        assertEquals(0, authorStats.getLikesReceived());
+        assertEquals(0, userStatsService.getStats(reader.getUserId()).orElseThrow().getCommentCount());
+    }
+
+    @Test
+    @DisplayName("Retention should drop archive segments that are entirely past the cutoff")
+    void retention_DropsExpiredSegments() {
+        Post ancient = oldPost("ancient", LocalDateTime.now().minusYears(5));
+        postArchiver.archiveOlderThan(LocalDateTime.now().minusYears(4));
+        assertTrue(postService.getPostById(ancient.getPostId()).isPresent());
+
+        retentionService.purgeOlderThan(LocalDateTime.now().minusYears(3));
+
+        assertTrue(postService.getPostById(ancient.getPostId()).isEmpty());
+    }
+
+    private Post oldPost(String content, LocalDateTime createdAt) {
+        Post post = postService.createPost(author.getUserId(), content);
+        jdbcTemplate.update("update posts set created_at = ? where post_id = ?", createdAt, post.getPostId());
+        return post;
+    }
+}
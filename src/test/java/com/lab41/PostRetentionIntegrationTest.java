@@ -0,0 +1,104 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.service.PostRetentionService;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.retention.enabled=true",
+        "lab41.retention.max-age=P30D",
+        "lab41.retention.batch-size=3",
+        "lab41.retention.max-rows-per-second=0",
+        "spring.datasource.url=jdbc:h2:mem:post-retention-it"
+})
+public class PostRetentionIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostRetentionService retentionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+    private List<Long> expired;
+    private Post fresh;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from likes");
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from posts");
+        author = TestUsers.create(userService, "author");
+        expired = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Post post = postService.createPost(author.getUserId(), "old " + i);
+            postService.addCommentToPost(post.getPostId(), author.getUserId(), "old comment " + i);
+            postService.addLikeToPost(post.getPostId(), author.getUserId());
+            jdbcTemplate.update("update posts set created_at = ? where post_id = ?",
+                    LocalDateTime.now().minusDays(60 + i), post.getPostId());
+            expired.add(post.getPostId());
+        }
+        fresh = postService.createPost(author.getUserId(), "fresh");
+        postService.addCommentToPost(fresh.getPostId(), author.getUserId(), "fresh comment");
+    }
+
+    @AfterEach
+    void tearDown() {
+        retentionService.resume();
+    }
+
+    @Test
+    @DisplayName("purgeExpired: Should remove every post past max-age with its likes and comments, in batches")
+    void purgeExpired_RemovesOnlyExpiredPosts() {
+        retentionService.purgeExpired();
+
+        for (Long postId : expired) {
+            assertTrue(postService.getPostById(postId).isEmpty());
+        }
+        assertTrue(postService.getPostById(fresh.getPostId()).isPresent());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from comments", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from likes", Long.class));
+    }
+
+    @Test
+    @DisplayName("pause/resume: Should skip runs while paused and pick up the remaining posts after resume")
+    void pauseAndResume() {
+        retentionService.pause();
+        assertEquals(0, retentionService.purgeOlderThan(LocalDateTime.now().minusDays(30)));
+        assertTrue(postService.getPostById(expired.get(0)).isPresent());
+
+        retentionService.resume();
+        assertEquals(expired.size(), retentionService.purgeOlderThan(LocalDateTime.now().minusDays(30)));
+        assertFalse(retentionService.isRunning());
+    }
+
+    @Test
+    @DisplayName("deletePosts: Should bulk delete the given posts and ignore unknown ids")
+    void deletePosts_BulkDeletes() {
+        List<Long> ids = new ArrayList<>(expired.subList(0, 3));
+        ids.add(-1L);
+
+        assertEquals(3, postService.deletePosts(ids));
+        assertTrue(postService.getPostsByIds(ids).isEmpty());
+        assertTrue(postService.getPostById(expired.get(3)).isPresent());
+    }
+}
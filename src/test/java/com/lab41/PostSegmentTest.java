@@ -0,0 +1,92 @@
+package com.lab41;
+
+import com.lab41.archive.ArchivedComment;
+import com.lab41.archive.ArchivedPost;
+import com.lab41.archive.PostSegment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostSegmentTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should read back exactly what was written, including comments and unicode content")
+    void roundTrip() throws Exception {
+        List<ArchivedPost> posts = List.of(
+                new ArchivedPost(1L, 10L, "first", BASE, 3,
+                        List.of(new ArchivedComment(100L, 11L, "nice", BASE.plusMinutes(1)),
+                                new ArchivedComment(101L, 12L, "привіт 👋", BASE.plusMinutes(2)))),
+                new ArchivedPost(2L, 11L, "", BASE.plusHours(1), 0, List.of()),
+                new ArchivedPost(3L, 10L, "third", BASE.plusHours(2), 7,
+                        List.of(new ArchivedComment(102L, 10L, "self reply", BASE.plusHours(3)))));
+        Path file = dir.resolve("posts-1.seg");
+        PostSegment.write(file, posts);
+
+        try (PostSegment segment = PostSegment.open(file)) {
+            assertEquals(3, segment.size());
+            assertEquals(posts.get(0), segment.find(1L).orElseThrow());
+            assertTrue(segment.find(4L).isEmpty());
+            assertEquals(List.of(posts.get(2), posts.get(0)), segment.findByUser(10L));
+            assertEquals(List.of(posts.get(1)), segment.findBetween(BASE.plusMinutes(30), BASE.plusMinutes(90)));
+            assertTrue(segment.findBetween(BASE.plusDays(1), BASE.plusDays(2)).isEmpty());
+            assertEquals(BASE.plusHours(2), segment.newestCreatedAt());
+        }
+    }
+
+    @Test
+    @DisplayName("Should store repetitive post text in a fraction of its raw size")
+    void compressesContent() throws Exception {
+        List<ArchivedPost> posts = new ArrayList<>();
+        long rawBytes = 0;
+        for (int i = 0; i < 2_000; i++) {
+            String content = "Weekly update #" + i + ": shipped the retention job, fixed paging and tuned the pool.";
+            rawBytes += content.length() + 3 * Long.BYTES;
+            posts.add(new ArchivedPost(i, i % 50, content, BASE.plusMinutes(i), i % 7, List.of()));
+        }
+        Path file = dir.resolve("posts-2.seg");
+        PostSegment.write(file, posts);
+
+        long fileBytes = Files.size(file);
+        assertTrue(fileBytes < rawBytes / 4, fileBytes + " B on disk for " + rawBytes + " B raw");
+        try (PostSegment segment = PostSegment.open(file)) {
+            assertEquals(posts.get(1234), segment.find(1234L).orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read rows and their comments from any block of a large segment")
+    void readsAcrossBlocks() throws Exception {
+        List<ArchivedPost> posts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            List<ArchivedComment> comments = i % 3 == 0
+                    ? List.of(new ArchivedComment(10_000L + i, i % 13, "comment " + i, BASE.plusMinutes(i + 1)))
+                    : List.of();
+            posts.add(new ArchivedPost(i, i % 50, "post " + i, BASE.plusMinutes(i), i % 7, comments));
+        }
+        Path file = dir.resolve("posts-3.seg");
+        PostSegment.write(file, posts);
+
+        try (PostSegment segment = PostSegment.open(file)) {
+            assertEquals(1_000, segment.size());
+            for (int i : new int[]{0, 255, 256, 600, 999}) {
+                assertEquals(posts.get(i), segment.find(i).orElseThrow());
+            }
+            List<ArchivedPost> byUser = segment.findByUser(7L);
+            assertEquals(20, byUser.size());
+            assertEquals(posts.get(957), byUser.get(0));
+            assertEquals(334L, segment.counts().comments().values().stream().mapToLong(Long::longValue).sum());
+        }
+    }
+}
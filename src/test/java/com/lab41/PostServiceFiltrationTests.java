@@ -1,5 +1,6 @@
 package com.lab41;
 
+import com.lab41.archive.PostArchive;
 import com.lab41.model.Comment;
 import com.lab41.model.Like;
 import com.lab41.model.Post;
@@ -8,13 +9,22 @@ import com.lab41.repository.CommentRepository;
 import com.lab41.repository.LikeRepository;
 import com.lab41.repository.PostRepository;
 import com.lab41.repository.UserRepository;
+import com.lab41.service.ApproximateCountService;
+import com.lab41.service.OutboxService;
 import com.lab41.service.PostService;
+import com.lab41.service.PostViewTracker;
+import com.lab41.service.RateLimiter;
+import com.lab41.service.ReadYourWritesTracker;
+import com.lab41.service.ServiceExecutor;
+import com.lab41.service.UniqueInteractionService;
+import com.lab41.service.UserStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -37,6 +47,25 @@ public class PostServiceFiltrationTests {
     private LikeRepository likeRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private OutboxService outboxService;
+    @Spy
+    private ServiceExecutor serviceExecutor = ServiceExecutor.direct();
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Mock
+    private PostArchive postArchive;
+    @Mock
+    private ApproximateCountService approximateCounts;
+    @Mock
+    private UniqueInteractionService uniqueInteractions;
+    @Mock
+    private PostViewTracker postViewTracker;
+    @Mock
+    private UserStatsService userStatsService;
+    @Mock
+    private RateLimiter rateLimiter;
 
     @InjectMocks
     private PostService postService;
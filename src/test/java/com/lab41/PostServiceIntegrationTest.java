@@ -0,0 +1,272 @@
+package com.lab41;
+
+import com.lab41.dto.CommentCursor;
+import com.lab41.dto.CommentPage;
+import com.lab41.dto.CommentView;
+import com.lab41.dto.PostEstimate;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.repository.LikeRepository;
+import com.lab41.service.ApproximateCountService;
+import com.lab41.service.BatchLoader;
+import com.lab41.service.CommentCountReconciler;
+import com.lab41.service.PostService;
+import com.lab41.service.RequestBatchLoaders;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SharedContextTest
+public class PostServiceIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private RequestBatchLoaders requestBatchLoaders;
+    @Autowired
+    private CommentCountReconciler commentCountReconciler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User author;
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        author = TestUsers.create(userService, "author");
+        reader = TestUsers.create(userService, "reader");
+    }
+
+    @Test
+    @DisplayName("Should keep commentCount in step with added and deleted comments")
+    void commentCount_IsMaintained() {
+        Post post = postService.createPost(author.getUserId(), "post");
+        postService.addCommentToPost(post.getPostId(), reader.getUserId(), "one");
+        Long second = postService.addCommentToPost(post.getPostId(), reader.getUserId(), "two").getCommentId();
+        postService.updatePost(post.getPostId(), "edited post");
+        postService.deleteComment(second);
+
+        assertEquals(1, postService.getPostById(post.getPostId()).orElseThrow().getCommentCount());
+        assertEquals(1, postService.getPostSummariesByUser(author.getUserId(), 0, 10).get(0).commentCount());
+    }
+
+    @Test
+    @DisplayName("Should backfill commentCount of posts that had comments before the column existed")
+    void commentCountReconcile_BackfillsStaleCounts() {
+        Post post = postService.createPost(author.getUserId(), "post");
+        postService.addCommentToPost(post.getPostId(), reader.getUserId(), "one");
+        postService.addCommentToPost(post.getPostId(), reader.getUserId(), "two");
+        jdbcTemplate.update("update posts set comment_count = 0 where post_id = ?", post.getPostId());
+
+        assertTrue(commentCountReconciler.reconcile() >= 1);
+        assertEquals(2, postService.getPostById(post.getPostId()).orElseThrow().getCommentCount());
+        assertEquals(0, commentCountReconciler.reconcile());
+    }
+
+    @Test
+    @DisplayName("Should return the latest N comments of every requested post in one call")
+    void getLatestComments_ReturnsNewestPerPost() {
+        Post busy = postService.createPost(author.getUserId(), "busy");
+        Post quiet = postService.createPost(author.getUserId(), "quiet");
+        Post empty = postService.createPost(author.getUserId(), "empty");
+        for (int i = 0; i < 5; i++) {
+            postService.addCommentToPost(busy.getPostId(), reader.getUserId(), "busy " + i);
+        }
+        postService.addCommentToPost(quiet.getPostId(), reader.getUserId(), "quiet 0");
+
+        Map<Long, List<CommentView>> latest = postService.getLatestComments(
+                List.of(busy.getPostId(), quiet.getPostId(), empty.getPostId()), 2);
+
+        assertEquals(List.of("busy 3", "busy 4"), latest.get(busy.getPostId()).stream().map(CommentView::content).toList());
+        assertEquals(List.of("quiet 0"), latest.get(quiet.getPostId()).stream().map(CommentView::content).toList());
+        assertTrue(latest.get(empty.getPostId()).isEmpty());
+        assertEquals(reader.getUsername(), latest.get(busy.getPostId()).get(0).authorName());
+    }
+
+    @Test
+    @DisplayName("Should walk a comment thread forward and backward by cursor without gaps or overlap")
+    void getCommentsByPost_SeeksInBothDirections() {
+        Post post = postService.createPost(author.getUserId(), "thread");
+        for (int i = 0; i < 10; i++) {
+            postService.addCommentToPost(post.getPostId(), reader.getUserId(), "c" + i);
+        }
+
+        CommentPage first = postService.getCommentsByPost(post.getPostId(), null, 4);
+        CommentPage second = postService.getCommentsByPost(post.getPostId(), first.next(), 4);
+        CommentPage last = postService.getCommentsByPost(post.getPostId(), second.next(), 4);
+
+        assertEquals(List.of("c0", "c1", "c2", "c3"), contents(first));
+        assertNull(first.previous());
+        assertEquals(List.of("c4", "c5", "c6", "c7"), contents(second));
+        assertEquals(List.of("c8", "c9"), contents(last));
+        assertNull(last.next());
+
+        CommentPage back = postService.getCommentsByPostBefore(post.getPostId(), last.previous(), 4);
+        assertEquals(contents(second), contents(back));
+        CommentPage start = postService.getCommentsByPostBefore(post.getPostId(), back.previous(), 4);
+        assertEquals(contents(first), contents(start));
+        assertNull(start.previous());
+    }
+
+    @Test
+    @DisplayName("Without a cursor, paging backward should start at the newest comments")
+    void getCommentsByPostBefore_NullCursor_ReturnsNewestPage() {
+        Post post = postService.createPost(author.getUserId(), "thread");
+        for (int i = 0; i < 5; i++) {
+            postService.addCommentToPost(post.getPostId(), reader.getUserId(), "c" + i);
+        }
+
+        CommentPage newest = postService.getCommentsByPostBefore(post.getPostId(), null, 2);
+        assertEquals(List.of("c3", "c4"), contents(newest));
+        assertNull(newest.next());
+        assertEquals(List.of("c1", "c2"), contents(postService.getCommentsByPostBefore(post.getPostId(), newest.previous(), 2)));
+    }
+
+    @Test
+    @DisplayName("Cursor queries should seek idx_comments_post_created on post and creation time")
+    void commentCursorQueries_SeekTheThreadIndex() {
+        Post post = postService.createPost(author.getUserId(), "thread");
+        for (int i = 0; i < 3; i++) {
+            postService.addCommentToPost(post.getPostId(), reader.getUserId(), "c" + i);
+        }
+        CommentCursor cursor = CommentCursor.of(postService.getCommentsByPost(post.getPostId(), null, 1).comments().get(0));
+
+        List<String> statements;
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        try {
+            postService.getCommentsByPost(post.getPostId(), cursor, 1);
+            postService.getCommentsByPostBefore(post.getPostId(), cursor, 1);
+            statements = jdbcTemplate.queryForList("select sql_statement from information_schema.query_statistics " +
+                    "where sql_statement like '%from comments%'", String.class);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+
+        assertEquals(2, statements.size(), statements::toString);
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            assertTrue(plan.contains("IDX_COMMENTS_POST_CREATED: POST_ID = ?1\n        AND CREATED_AT "), plan);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the page surrounding a comment for jump-to-comment links")
+    void getCommentPageAround_CentersOnComment() {
+        Post post = postService.createPost(author.getUserId(), "thread");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(postService.addCommentToPost(post.getPostId(), reader.getUserId(), "c" + i).getCommentId());
+        }
+
+        CommentPage middle = postService.getCommentPageAround(ids.get(5), 5);
+        assertEquals(List.of("c3", "c4", "c5", "c6", "c7"), contents(middle));
+        assertNotNull(middle.previous());
+        assertNotNull(middle.next());
+
+        CommentPage head = postService.getCommentPageAround(ids.get(0), 5);
+        assertEquals(List.of("c0", "c1", "c2"), contents(head));
+        assertNull(head.previous());
+
+        assertEquals(List.of("c0", "c1", "c2"), contents(postService.getCommentsByPostBefore(post.getPostId(), middle.previous(), 4)));
+    }
+
+    @Test
+    @DisplayName("Should multi-get posts, users and like counts keyed and ordered by the requested ids")
+    void multiGet_PreservesRequestOrder() {
+        Post first = postService.createPost(author.getUserId(), "first");
+        Post second = postService.createPost(author.getUserId(), "second");
+        postService.addLikeToPost(second.getPostId(), reader.getUserId());
+        postService.addLikeToPost(second.getPostId(), author.getUserId());
+        Long missing = -1L;
+
+        Map<Long, Post> posts = postService.getPostsByIds(List.of(second.getPostId(), missing, first.getPostId()));
+        assertEquals(List.of(second.getPostId(), first.getPostId()), List.copyOf(posts.keySet()));
+        assertEquals(author.getUsername(), posts.get(first.getPostId()).getUser().getUsername());
+
+        Map<Long, Long> likes = postService.getLikeCounts(List.of(first.getPostId(), second.getPostId(), missing));
+        assertEquals(List.of(first.getPostId(), second.getPostId(), missing), List.copyOf(likes.keySet()));
+        assertEquals(List.of(0L, 2L, 0L), List.copyOf(likes.values()));
+
+        Map<Long, User> users = userService.findByIds(List.of(reader.getUserId(), author.getUserId()));
+        assertEquals(List.of(reader.getUserId(), author.getUserId()), List.copyOf(users.keySet()));
+    }
+
+    @Test
+    @DisplayName("Should resolve single lookups made through a request scope with one query per type")
+    void requestBatchLoaders_CoalesceLookups() {
+        Post first = postService.createPost(author.getUserId(), "first");
+        Post second = postService.createPost(author.getUserId(), "second");
+        RequestBatchLoaders.Scope scope = requestBatchLoaders.begin();
+
+        BatchLoader.Deferred<Post> a = scope.posts().load(first.getPostId());
+        BatchLoader.Deferred<Post> b = scope.posts().load(second.getPostId());
+        BatchLoader.Deferred<User> user = scope.users().load(author.getUserId());
+
+        assertEquals("first", a.get().orElseThrow().getContent());
+        assertEquals("second", b.get().orElseThrow().getContent());
+        assertEquals(author.getUsername(), user.get().orElseThrow().getUsername());
+        assertEquals(1, scope.posts().batchCount());
+        assertEquals(1, scope.users().batchCount());
+    }
+
+    private static List<String> contents(CommentPage page) {
+        return page.comments().stream().map(CommentView::content).toList();
+    }
+
+    @Test
+    @DisplayName("Should estimate likes after commit and rank the most liked posts of the window")
+    void estimateLikes_TracksCommittedLikes() {
+        Post hot = postService.createPost(author.getUserId(), "hot");
+        Post warm = postService.createPost(author.getUserId(), "warm");
+        List<User> fans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fans.add(TestUsers.create(userService, "fan"));
+            postService.addLikeToPost(hot.getPostId(), fans.get(i).getUserId());
+        }
+        postService.addLikeToPost(warm.getPostId(), fans.get(0).getUserId());
+        postService.removeLikeFromPost(hot.getPostId(), fans.get(2).getUserId());
+        assertThrows(IllegalArgumentException.class,
+                () -> postService.addLikeToPost(warm.getPostId(), fans.get(0).getUserId()));
+
+        PostEstimate estimate = postService.estimateLikes(hot.getPostId());
+        assertTrue(estimate.estimate() >= 2 && estimate.estimate() - 2 <= estimate.error());
+        List<Long> top = postService.topPostsApprox(Duration.ofHours(1), 10).stream().map(PostEstimate::postId).toList();
+        assertTrue(top.indexOf(hot.getPostId()) < top.indexOf(warm.getPostId()));
+        assertThrows(IllegalArgumentException.class, () -> postService.topPostsApprox(Duration.ofDays(30), 10));
+    }
+
+    @Test
+    @DisplayName("Rebuilding the like sketches should replay only likes inside the lookback")
+    void rebuildSketches_SkipsLikesOlderThanLookback() {
+        Post post = postService.createPost(author.getUserId(), "rebuilt");
+        postService.addLikeToPost(post.getPostId(), reader.getUserId());
+        User old = TestUsers.create(userService, "old");
+        postService.addLikeToPost(post.getPostId(), old.getUserId());
+        jdbcTemplate.update("update likes set created_at = ? where post_id = ? and user_id = ?",
+                LocalDateTime.now().minusDays(2), post.getPostId(), old.getUserId());
+
+        ApproximateCountService fresh = new ApproximateCountService(likeRepository, transactionManager,
+                0.001, 0.01, 500, Duration.ofHours(1), 24);
+        fresh.rebuild();
+
+        assertEquals(1, fresh.estimateLikes(post.getPostId()).estimate());
+    }
+}
@@ -1,26 +1,48 @@
 package com.lab41;
 
+import com.lab41.archive.PostArchive;
+import com.lab41.dto.CommentRef;
+import com.lab41.dto.CommentView;
+import com.lab41.dto.PostSummary;
 import com.lab41.model.Comment;
 import com.lab41.model.Like;
+import com.lab41.model.OutboxEventType;
 import com.lab41.model.Post;
 import com.lab41.model.User;
 import com.lab41.repository.CommentRepository;
 import com.lab41.repository.LikeRepository;
 import com.lab41.repository.PostRepository;
 import com.lab41.repository.UserRepository;
+import com.lab41.service.ApproximateCountService;
+import com.lab41.service.Chunks;
+import com.lab41.service.OutboxService;
 import com.lab41.service.PostService;
+import com.lab41.service.PostViewTracker;
+import com.lab41.service.RateLimitedException;
+import com.lab41.service.RateLimiter;
+import com.lab41.service.ReadYourWritesTracker;
+import com.lab41.service.ServiceExecutor;
+import com.lab41.service.UniqueInteractionService;
+import com.lab41.service.UserStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +58,25 @@ public class PostServiceTest {
     private LikeRepository likeRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private OutboxService outboxService;
+    @Spy
+    private ServiceExecutor serviceExecutor = ServiceExecutor.direct();
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Mock
+    private PostArchive postArchive;
+    @Mock
+    private ApproximateCountService approximateCounts;
+    @Mock
+    private UniqueInteractionService uniqueInteractions;
+    @Mock
+    private PostViewTracker postViewTracker;
+    @Mock
+    private UserStatsService userStatsService;
+    @Mock
+    private RateLimiter rateLimiter;
 
     @InjectMocks
     private PostService postService;
@@ -89,6 +130,7 @@ public class PostServiceTest {
         assertEquals(testPost.getContent(), createdPost.getContent()); // The content might be the mocked one
         verify(userRepository, times(1)).findById(testUser.getUserId());
         verify(postRepository, times(1)).save(any(Post.class));
+        verify(outboxService, times(1)).record(OutboxEventType.POST_CREATED, testPost.getPostId(), testUser.getUserId(), null);
     }
 
     @Test
@@ -104,6 +146,7 @@ public class PostServiceTest {
         assertEquals("User with ID " + nonExistentUserId + " not found.", thrown.getMessage());
         verify(userRepository, times(1)).findById(nonExistentUserId);
         verify(postRepository, never()).save(any(Post.class)); // Ensure save is not called
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -116,6 +159,8 @@ public class PostServiceTest {
         assertTrue(foundPost.isPresent());
         assertEquals(testPost.getContent(), foundPost.get().getContent());
         verify(postRepository, times(1)).findById(testPost.getPostId());
+        verify(approximateCounts, times(1)).recordView(testPost.getPostId());
+        verify(postViewTracker, times(1)).record(testPost.getPostId());
     }
 
     @Test
@@ -128,6 +173,7 @@ public class PostServiceTest {
 
         assertFalse(foundPost.isPresent());
         verify(postRepository, times(1)).findById(nonExistentPostId);
+        verify(approximateCounts, never()).recordView(any());
     }
 
     @Test
@@ -184,6 +230,34 @@ public class PostServiceTest {
         verify(postRepository, never()).findByUserOrderByCreatedAtDesc(any(User.class));
     }
 
+    @Test
+    @DisplayName("Should return post summaries page for an existing user")
+    void getPostSummariesByUser_UserExists_ReturnsSummaries() {
+        PostSummary summary = new PostSummary(testPost.getPostId(), testUser.getUserId(), testUser.getUsername(),
+                testPost.getContent(), testPost.getCreatedAt(), 3, 1);
+        when(userRepository.existsById(testUser.getUserId())).thenReturn(true);
+        when(postRepository.findSummariesByUserId(testUser.getUserId(), PageRequest.of(0, 20))).thenReturn(List.of(summary));
+
+        List<PostSummary> summaries = postService.getPostSummariesByUser(testUser.getUserId(), 0, 20);
+
+        assertEquals(List.of(summary), summaries);
+        verify(userRepository, never()).findById(anyLong());
+        verify(postRepository, never()).findByUserOrderByCreatedAtDesc(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when getting post summaries for non-existent user")
+    void getPostSummariesByUser_UserNotFound_ThrowsException() {
+        Long nonExistentUserId = 99L;
+        when(userRepository.existsById(nonExistentUserId)).thenReturn(false);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+            postService.getPostSummariesByUser(nonExistentUserId, 0, 20);
+        });
+        assertEquals("User with ID " + nonExistentUserId + " not found.", thrown.getMessage());
+        verify(postRepository, never()).findSummariesByUserId(anyLong(), any());
+    }
+
     @Test
     @DisplayName("Should update an existing post successfully")
     void updatePost_PostExists_ReturnsUpdatedPost() {
@@ -217,27 +291,58 @@ public class PostServiceTest {
     @Test
     @DisplayName("Should delete a post by ID successfully")
     void deletePost_PostExists_PerformsDeletion() {
-        when(postRepository.existsById(testPost.getPostId())).thenReturn(true);
-        doNothing().when(postRepository).deleteById(testPost.getPostId());
+        List<Long> ids = List.of(testPost.getPostId());
+        when(postRepository.findUserIdByPostId(testPost.getPostId())).thenReturn(Optional.of(testUser.getUserId()));
+        when(postRepository.findExistingIds(ids)).thenReturn(ids);
+        when(postRepository.deleteByPostIdIn(ids)).thenReturn(1);
 
         postService.deletePost(testPost.getPostId());
 
-        verify(postRepository, times(1)).existsById(testPost.getPostId());
-        verify(postRepository, times(1)).deleteById(testPost.getPostId());
+        verify(rateLimiter, times(1)).acquire(testUser.getUserId());
+        verify(likeRepository, times(1)).deleteByPostIdIn(ids);
+        verify(commentRepository, times(1)).deleteByPostIdIn(ids);
+        verify(postRepository, times(1)).deleteByPostIdIn(ids);
+        verify(postRepository, never()).deleteById(anyLong());
+        verify(outboxService, times(1)).record(OutboxEventType.POST_DELETED, testPost.getPostId(), null, null);
     }
 
     @Test
     @DisplayName("Should throw IllegalArgumentException when deleting non-existent post")
     void deletePost_PostDoesNotExist_ThrowsException() {
         Long nonExistentPostId = 999L;
-        when(postRepository.existsById(nonExistentPostId)).thenReturn(false);
+        when(postRepository.findUserIdByPostId(nonExistentPostId)).thenReturn(Optional.empty());
 
         IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
             postService.deletePost(nonExistentPostId);
         });
         assertEquals("Post with ID " + nonExistentPostId + " not found for deletion.", thrown.getMessage());
-        verify(postRepository, times(1)).existsById(nonExistentPostId);
-        verify(postRepository, never()).deleteById(anyLong()); // Ensure delete is not called
+        verify(postRepository, never()).deleteByPostIdIn(any()); // Ensure delete is not called
+        verify(postRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should bulk delete only the posts that exist, chunked for the IN list")
+    void deletePosts_DeletesExistingInChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= Chunks.IN_LIST_SIZE + 1; id++) {
+            ids.add(id);
+        }
+        when(postRepository.findExistingIds(anyCollection())).thenAnswer(inv -> {
+            List<Long> chunk = new ArrayList<>(inv.getArgument(0));
+            chunk.remove(Long.valueOf(2L));
+            return chunk;
+        });
+        when(postRepository.deleteByPostIdIn(anyCollection())).thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+
+        int deleted = postService.deletePosts(ids);
+
+        assertEquals(Chunks.IN_LIST_SIZE, deleted);
+        verify(postRepository, times(2)).deleteByPostIdIn(anyCollection());
+        verify(likeRepository, times(2)).deleteByPostIdIn(anyCollection());
+        verify(commentRepository, times(2)).deleteByPostIdIn(anyCollection());
+        verify(postViewTracker, times(2)).delete(anyCollection());
+        verify(outboxService, never()).record(OutboxEventType.POST_DELETED, 2L, null, null);
+        verify(outboxService, times(Chunks.IN_LIST_SIZE)).record(eq(OutboxEventType.POST_DELETED), anyLong(), isNull(), isNull());
     }
 
     // --- Comment CRUD Tests ---
@@ -259,6 +364,7 @@ public class PostServiceTest {
         verify(postRepository, times(1)).findById(testPost.getPostId());
         verify(userRepository, times(1)).findById(testUser.getUserId());
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(postRepository, times(1)).adjustCommentCount(testPost.getPostId(), 1);
     }
 
     @Test
@@ -355,6 +461,21 @@ public class PostServiceTest {
         verify(commentRepository, never()).findByPostOrderByCreatedAtAsc(any(Post.class));
     }
 
+    @Test
+    @DisplayName("Should group latest comments by post in request order, including posts without comments")
+    void getLatestComments_GroupsByPost() {
+        CommentView older = new CommentView(201L, 101L, 1L, "testuser", "first", LocalDateTime.now().minusMinutes(2));
+        CommentView newer = new CommentView(202L, 101L, 1L, "testuser", "second", LocalDateTime.now().minusMinutes(1));
+        when(commentRepository.findLatestViewsByPostIds(Set.of(102L, 101L), 2)).thenReturn(List.of(older, newer));
+
+        Map<Long, List<CommentView>> latest = postService.getLatestComments(List.of(102L, 101L), 2);
+
+        assertEquals(List.of(102L, 101L), List.copyOf(latest.keySet()));
+        assertTrue(latest.get(102L).isEmpty());
+        assertEquals(List.of(older, newer), latest.get(101L));
+        verify(commentRepository, never()).findByPostOrderByCreatedAtAsc(any(Post.class));
+    }
+
     @Test
     @DisplayName("Should update an existing comment successfully")
     void updateComment_CommentExists_ReturnsUpdatedComment() {
@@ -368,6 +489,7 @@ public class PostServiceTest {
         assertEquals(updatedContent, updatedComment.getContent());
         verify(commentRepository, times(1)).findById(testComment.getCommentId());
         verify(commentRepository, times(1)).save(testComment);
+        verify(rateLimiter, times(1)).acquire(testUser.getUserId());
     }
 
     @Test
@@ -388,27 +510,33 @@ public class PostServiceTest {
     @Test
     @DisplayName("Should delete a comment by ID successfully")
     void deleteComment_CommentExists_PerformsDeletion() {
-        when(commentRepository.existsById(testComment.getCommentId())).thenReturn(true);
+        when(commentRepository.findRefById(testComment.getCommentId())).thenReturn(Optional.of(
+                new CommentRef(testPost.getPostId(), testUser.getUserId(), testComment.getCreatedAt())));
         doNothing().when(commentRepository).deleteById(testComment.getCommentId());
 
         postService.deleteComment(testComment.getCommentId());
 
-        verify(commentRepository, times(1)).existsById(testComment.getCommentId());
+        verify(rateLimiter, times(1)).acquire(testUser.getUserId());
+        verify(commentRepository, times(1)).findRefById(testComment.getCommentId());
         verify(commentRepository, times(1)).deleteById(testComment.getCommentId());
+        verify(postRepository, times(1)).adjustCommentCount(testPost.getPostId(), -1);
+        verify(outboxService, times(1)).record(OutboxEventType.COMMENT_DELETED, testComment.getCommentId(), null,
+                testPost.getPostId(), testComment.getCreatedAt());
     }
 
     @Test
     @DisplayName("Should throw IllegalArgumentException when deleting non-existent comment")
     void deleteComment_CommentDoesNotExist_ThrowsException() {
         Long nonExistentCommentId = 999L;
-        when(commentRepository.existsById(nonExistentCommentId)).thenReturn(false);
+        when(commentRepository.findRefById(nonExistentCommentId)).thenReturn(Optional.empty());
 
         IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
             postService.deleteComment(nonExistentCommentId);
         });
         assertEquals("Comment with ID " + nonExistentCommentId + " not found for deletion.", thrown.getMessage());
-        verify(commentRepository, times(1)).existsById(nonExistentCommentId);
+        verify(commentRepository, times(1)).findRefById(nonExistentCommentId);
         verify(commentRepository, never()).deleteById(anyLong());
+        verify(postRepository, never()).adjustCommentCount(anyLong(), anyLong());
     }
 
     @Test
@@ -428,6 +556,10 @@ public class PostServiceTest {
         verify(userRepository, times(1)).findById(testUser.getUserId());
         verify(likeRepository, times(1)).findByUserAndPost(testUser, testPost);
         verify(likeRepository, times(1)).save(any(Like.class));
+        verify(outboxService, times(1)).record(OutboxEventType.LIKE_ADDED, testLike.getLikeId(), testUser.getUserId(),
+                testPost.getPostId(), testLike.getCreatedAt());
+        verify(approximateCounts, times(1)).recordLike(testPost.getPostId());
+        verify(uniqueInteractions, times(1)).recordInteraction(testPost.getPostId(), testUser.getUserId(), testUser.getUserId());
     }
 
     @Test
@@ -592,6 +724,62 @@ public class PostServiceTest {
         verify(likeRepository, times(1)).delete(testLike);
     }
 
+    @Test
+    @DisplayName("Should reject a rate-limited like before touching the database")
+    void addLikeToPost_RateLimited_ThrowsBeforeQueries() {
+        doThrow(new RateLimitedException(testUser.getUserId(), Duration.ofMillis(200)))
+                .when(rateLimiter).acquire(testUser.getUserId());
+
+        RateLimitedException thrown = assertThrows(RateLimitedException.class,
+                () -> postService.addLikeToPost(testPost.getPostId(), testUser.getUserId()));
+
+        assertEquals(200, thrown.getRetryAfter().toMillis());
+        verifyNoInteractions(postRepository, userRepository, likeRepository, outboxService);
+    }
+
+    @Test
+    @DisplayName("Should rate limit edits against the post owner before saving")
+    void updatePost_RateLimited_DoesNotSave() {
+        when(postRepository.findById(testPost.getPostId())).thenReturn(Optional.of(testPost));
+        doThrow(new RateLimitedException(testUser.getUserId(), Duration.ofMillis(200)))
+                .when(rateLimiter).acquire(testUser.getUserId());
+
+        assertThrows(RateLimitedException.class, () -> postService.updatePost(testPost.getPostId(), "spam"));
+
+        verify(postRepository, never()).save(any(Post.class));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    @DisplayName("Should rate limit deletes against the post owner before deleting anything")
+    void deletePost_RateLimited_DeletesNothing() {
+        when(postRepository.findUserIdByPostId(testPost.getPostId())).thenReturn(Optional.of(testUser.getUserId()));
+        doThrow(new RateLimitedException(testUser.getUserId(), Duration.ofMillis(200)))
+                .when(rateLimiter).acquire(testUser.getUserId());
+
+        assertThrows(RateLimitedException.class, () -> postService.deletePost(testPost.getPostId()));
+
+        verify(postRepository, never()).deleteByPostIdIn(any());
+        verifyNoInteractions(likeRepository, commentRepository, outboxService);
+    }
+
+    @Test
+    @DisplayName("Applying a like state that already holds should write nothing")
+    void applyLikeState_Unchanged_WritesNothing() {
+        when(postRepository.findById(testPost.getPostId())).thenReturn(Optional.of(testPost));
+        when(userRepository.findById(testUser.getUserId())).thenReturn(Optional.of(testUser));
+        when(likeRepository.findByUserAndPost(testUser, testPost)).thenReturn(Optional.of(testLike));
+
+        assertFalse(postService.applyLikeState(testPost.getPostId(), testUser.getUserId(), true));
+        assertTrue(postService.applyLikeState(testPost.getPostId(), testUser.getUserId(), false));
+
+        verify(likeRepository, never()).save(any(Like.class));
+        verify(likeRepository, times(1)).delete(testLike);
+        verify(outboxService, times(1)).record(OutboxEventType.LIKE_REMOVED, testLike.getLikeId(), testUser.getUserId(),
+                testPost.getPostId(), testLike.getCreatedAt());
+        verifyNoInteractions(rateLimiter);
+    }
+
     @Test
     @DisplayName("Should throw IllegalArgumentException when removing like from non-existent post")
     void removeLikeFromPost_PostNotFound_ThrowsException() {
@@ -0,0 +1,133 @@
+package com.lab41;
+
+import com.lab41.dto.IdCount;
+import com.lab41.repository.PostViewRepository;
+import com.lab41.service.PostViewTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PostViewTrackerTest {
+    private static final Long POST = 7L;
+
+    // post_views as other transactions see it, and the rows written by the open flush transaction.
+    private final Map<Long, Long> committed = new ConcurrentHashMap<>();
+    private final Map<Long, Long> staged = new ConcurrentHashMap<>();
+    private final List<Long> readsDuringFlush = new ArrayList<>();
+    private Runnable onCommit = () -> { };
+    private boolean failWrites;
+
+    private PostViewTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        PostViewRepository repository = mock(PostViewRepository.class);
+        when(repository.findCountsByPostIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> postIds = invocation.getArgument(0);
+            return postIds.stream().filter(committed::containsKey)
+                    .map(postId -> new IdCount(postId, committed.get(postId))).toList();
+        });
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (failWrites) {
+                throw new IllegalStateException("Simulated write failure");
+            }
+            List<Object[]> batch = invocation.getArgument(1);
+            batch.forEach(row -> staged.merge((Long) row[1], (Long) row[0], Long::sum));
+            readsDuringFlush.add(tracker.getViewCounts(List.of(POST)).get(POST));
+            return new int[batch.size()];
+        });
+        tracker = new PostViewTracker(repository, jdbcTemplate, new FakeTransactionManager(), 4, 100);
+    }
+
+    @Test
+    @DisplayName("A read while the flush writes should count the in-flight deltas once")
+    void getViewCounts_DuringFlushWrite_CountsInFlightOnce() {
+        tracker.record(POST, 5);
+        tracker.flush();
+        tracker.record(POST, 3);
+
+        assertEquals(1, tracker.flush());
+
+        assertEquals(List.of(5L, 8L), readsDuringFlush);
+        assertEquals(8L, tracker.getViewCounts(List.of(POST)).get(POST));
+    }
+
+    @Test
+    @DisplayName("A read racing the flush commit should see the committed count or the in-flight deltas, not both")
+    void getViewCounts_DuringFlushCommit_DoesNotDoubleCount() throws Exception {
+        tracker.record(POST, 5);
+        tracker.flush();
+        tracker.record(POST, 3);
+        AtomicReference<CompletableFuture<Long>> racingRead = new AtomicReference<>();
+        onCommit = () -> {
+            racingRead.set(CompletableFuture.supplyAsync(() -> tracker.getViewCounts(List.of(POST)).get(POST)));
+            try {
+                racingRead.get().get(200, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // blocked until the flush has cleared its in-flight map, as it should be
+            }
+        };
+
+        tracker.flush();
+
+        assertEquals(8L, racingRead.get().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("A failed flush should put its deltas back without losing or doubling them")
+    void flush_Failure_RestoresDeltas() {
+        tracker.record(POST, 4);
+        failWrites = true;
+
+        assertEquals(0, tracker.flush());
+
+        assertTrue(committed.isEmpty());
+        assertEquals(4L, tracker.getViewCounts(List.of(POST)).get(POST));
+        failWrites = false;
+        assertEquals(1, tracker.flush());
+        assertEquals(4L, committed.get(POST));
+    }
+
+    // Publishes the staged rows on commit, then runs the test's hook before the completion callbacks.
+    private final class FakeTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            staged.clear();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            staged.forEach((postId, delta) -> committed.merge(postId, delta, Long::sum));
+            staged.clear();
+            onCommit.run();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            staged.clear();
+        }
+    }
+}
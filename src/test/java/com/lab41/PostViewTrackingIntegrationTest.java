@@ -0,0 +1,102 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.service.PostService;
+import com.lab41.service.PostViewTracker;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SharedContextTest
+public class PostViewTrackingIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostViewTracker postViewTracker;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        postViewTracker.flush();
+        author = TestUsers.create(userService, "author");
+    }
+
+    @Test
+    @DisplayName("Views from many threads should be counted exactly and written as one row per post")
+    void views_AreBufferedAndFlushedAsDeltas() throws Exception {
+        Post hot = postService.createPost(author.getUserId(), "hot");
+        Post cold = postService.createPost(author.getUserId(), "cold");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            readers.add(pool.submit(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    postViewTracker.record(hot.getPostId());
+                }
+            }));
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        pool.shutdown();
+        postService.getPostById(hot.getPostId());
+        postService.getPostById(cold.getPostId());
+
+        List<Long> ids = List.of(hot.getPostId(), cold.getPostId(), -1L);
+        assertEquals(List.of(200_001L, 1L, 0L), List.copyOf(postService.getViewCounts(ids).values()));
+        assertEquals(0, storedRows(hot, cold));
+
+        assertEquals(2, postViewTracker.flush());
+        assertEquals(2, storedRows(hot, cold));
+        assertEquals(List.of(200_001L, 1L, 0L), List.copyOf(postService.getViewCounts(ids).values()));
+
+        postService.getPostById(hot.getPostId());
+        assertEquals(1, postViewTracker.flush());
+        assertEquals(200_002L, postService.getViewCounts(List.of(hot.getPostId())).get(hot.getPostId()));
+    }
+
+    @Test
+    @DisplayName("Deleting a post should drop its stored count and discard its buffered views")
+    void deletedPosts_LoseTheirViews() {
+        Post post = postService.createPost(author.getUserId(), "short-lived");
+        postService.getPostById(post.getPostId());
+        postViewTracker.flush();
+        postService.getPostById(post.getPostId());
+
+        postService.deletePost(post.getPostId());
+        postViewTracker.flush();
+
+        Map<Long, Long> counts = postService.getViewCounts(List.of(post.getPostId()));
+        assertEquals(0L, counts.get(post.getPostId()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from post_views where post_id = ?", Integer.class, post.getPostId()));
+    }
+
+    private int storedRows(Post... posts) {
+        int rows = 0;
+        for (Post post : posts) {
+            rows += jdbcTemplate.queryForObject("select count(*) from post_views where post_id = ?",
+                    Integer.class, post.getPostId());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,155 @@
+package com.lab41;
+
+import com.lab41.dto.AuthorRef;
+import com.lab41.dto.PostSummary;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark-style checks for the read paths over 10k posts: most compare the bytes allocated by
+ * the calling thread per call for two ways of loading the same rows.
+ */
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:readonly-bench"
+})
+public class QueryAllocationTest {
+    private static final Logger log = LoggerFactory.getLogger(QueryAllocationTest.class);
+
+    private static final int POSTS = 10_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LocalDateTime from = LocalDateTime.now().minusDays(30);
+    private final LocalDateTime to = LocalDateTime.now().plusDays(1);
+    private Long authorId;
+
+    @BeforeEach
+    void setUp() {
+        Optional<User> existing = userService.findByUsername("bench-author");
+        if (existing.isPresent()) {
+            authorId = existing.get().getUserId();
+            return;
+        }
+        User author = new User();
+        author.setUsername("bench-author");
+        author.setEmail("bench-author@example.com");
+        author.setPasswordHash("hash");
+        authorId = userService.saveUser(author).getUserId();
+
+        List<Object[]> rows = new ArrayList<>(POSTS);
+        LocalDateTime base = LocalDateTime.now().minusDays(7);
+        for (int i = 0; i < POSTS; i++) {
+            rows.add(new Object[]{authorId, "Synthetic post #" + i, Timestamp.valueOf(base.plusSeconds(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO posts (user_id, content, created_at) VALUES (?, ?, ?)", rows);
+    }
+
+    @Test
+    @DisplayName("Read-only query path should allocate less per call than a read-write transaction")
+    void readOnly_AllocatesLessThanReadWrite() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Supplier<List<Post>> readWriteCall = () -> readWrite.execute(status -> entityManager
+                .createQuery("select p from Post p where p.createdAt between :from and :to order by p.createdAt desc", Post.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList());
+        Supplier<List<Post>> readOnlyCall = () -> postService.getPostsBetweenDates(from, to);
+
+        assertEquals(POSTS, readOnlyCall.get().size());
+        assertEquals(POSTS, readWriteCall.get().size());
+
+        long readWriteBytes = allocatedPerCall(readWriteCall);
+        long readOnlyBytes = allocatedPerCall(readOnlyCall);
+        log.debug("Loading {} posts: read-write {} B/call, read-only {} B/call", POSTS, readWriteBytes, readOnlyBytes);
+
+        assertTrue(readOnlyBytes < readWriteBytes,
+                "read-only " + readOnlyBytes + " B should be below read-write " + readWriteBytes + " B");
+    }
+
+    @Test
+    @DisplayName("Summary projections should allocate less per page than full entities")
+    void summaries_AllocateLessThanEntities() {
+        Supplier<List<Post>> entityPage = () -> postService.getPostsByUser(authorId);
+        Supplier<List<PostSummary>> summaryPage = () -> postService.getPostSummariesByUser(authorId, 0, POSTS);
+
+        List<PostSummary> summaries = summaryPage.get();
+        assertEquals(POSTS, summaries.size());
+        assertEquals("bench-author", summaries.get(0).authorName());
+        assertEquals(0, summaries.get(0).likeCount());
+        assertEquals(POSTS, entityPage.get().size());
+
+        long entityBytes = allocatedPerCall(entityPage);
+        long summaryBytes = allocatedPerCall(summaryPage);
+        log.debug("Page of {} posts: entities {} B/call, summaries {} B/call", POSTS, entityBytes, summaryBytes);
+
+        assertTrue(summaryBytes < entityBytes,
+                "summaries " + summaryBytes + " B should be below entities " + entityBytes + " B");
+    }
+
+    @Test
+    @DisplayName("A page of summaries by one author should hold a single AuthorRef and username string")
+    void summaries_ShareOneAuthorRefPerAuthor() {
+        List<PostSummary> summaries = postService.getPostSummariesByUser(authorId, 0, POSTS);
+        Set<AuthorRef> refs = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> names = Collections.newSetFromMap(new IdentityHashMap<>());
+        summaries.forEach(summary -> {
+            refs.add(summary.author());
+            names.add(summary.authorName());
+        });
+        assertEquals(1, refs.size());
+        assertEquals(1, names.size());
+        assertNotSame(summaries.get(0).author(), AuthorRef.of(authorId, "bench-author"));
+    }
+
+    private static long allocatedPerCall(Supplier<? extends List<?>> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < ROUNDS; i++) {
+            call.get();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            call.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ROUNDS;
+    }
+}
@@ -0,0 +1,39 @@
+package com.lab41;
+
+import com.lab41.service.RateLimitedException;
+import com.lab41.service.RateLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    @Test
+    @DisplayName("A user should get a burst of capacity writes, then be told how long to wait")
+    void acquire_RejectsPastCapacity() {
+        RateLimiter limiter = new RateLimiter(true, 3, 1);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(1L);
+        }
+
+        RateLimitedException thrown = assertThrows(RateLimitedException.class, () -> limiter.acquire(1L));
+        assertTrue(thrown.getRetryAfter().toMillis() > 900 && thrown.getRetryAfter().toMillis() <= 1000);
+        limiter.acquire(2L); // buckets are per user
+    }
+
+    @Test
+    @DisplayName("Tokens should refill over time and a disabled limiter should let everything through")
+    void acquire_RefillsAndCanBeDisabled() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(true, 1, 10);
+        limiter.acquire(1L);
+        assertThrows(RateLimitedException.class, () -> limiter.acquire(1L));
+        Thread.sleep(150);
+        limiter.acquire(1L);
+
+        RateLimiter disabled = new RateLimiter(false, 1, 0.001);
+        for (int i = 0; i < 100; i++) {
+            disabled.acquire(1L);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.lab41;
+
+import com.lab41.config.ReadWriteRoutingDataSource;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.repository.UserRepository;
+import com.lab41.service.PostService;
+import com.lab41.service.ServiceExecutor;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.datasource.replica.enabled=true",
+        "lab41.datasource.replica.sticky-window=PT1H",
+        "lab41.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1"
+})
+public class ReadReplicaRoutingTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ServiceExecutor serviceExecutor;
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica and everything else to the primary")
+    void currentRoute_FollowsTransactionReadOnlyFlag() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, readOnly.execute(status -> ReadWriteRoutingDataSource.currentRoute()));
+        assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, readWrite.execute(status -> ReadWriteRoutingDataSource.currentRoute()));
+        assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, ReadWriteRoutingDataSource.currentRoute());
+    }
+
+    @Test
+    @DisplayName("Should serve reads from the lagging replica but keep a recent writer's own reads on the primary")
+    void reads_UseReplicaExceptForRecentWriter() throws SQLException {
+        User author = TestUsers.create(userService, "routing-author");
+        Post replicated = postService.createPost(author.getUserId(), "replicated post");
+
+        replicate();
+        Post notYetReplicated = postService.createPost(author.getUserId(), "post the replica has not seen");
+
+        List<Post> fromReplica = postService.getPostsBetweenDates(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        assertEquals(List.of(replicated.getPostId()), fromReplica.stream().map(Post::getPostId).toList());
+
+        List<Post> ownPosts = postService.getPostsByUser(author.getUserId());
+        assertEquals(2, ownPosts.size());
+        assertTrue(ownPosts.stream().anyMatch(post -> post.getPostId().equals(notYetReplicated.getPostId())));
+    }
+
+    @Test
+    @DisplayName("A user the replica has not seen yet should be able to comment and like, and forks of a write should read the primary")
+    void writes_ByUnreplicatedUser_ReadThePrimary() throws SQLException {
+        User author = TestUsers.create(userService, "routing-writer");
+        Post post = postService.createPost(author.getUserId(), "post before replication");
+        replicate();
+        User newcomer = TestUsers.create(userService, "routing-newcomer");
+
+        assertNotNull(postService.addCommentToPost(post.getPostId(), newcomer.getUserId(), "first!").getCommentId());
+        assertNotNull(postService.addLikeToPost(post.getPostId(), newcomer.getUserId()).getLikeId());
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Optional<User> forked = readWrite.execute(status ->
+                serviceExecutor.fork(() -> userRepository.findById(newcomer.getUserId())).join());
+        assertTrue(forked.isPresent());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Optional<User> fromReplica = readOnly.execute(status ->
+                serviceExecutor.fork(() -> userRepository.findById(newcomer.getUserId())).join());
+        assertTrue(fromReplica.isEmpty());
+    }
+
+    // Stand-in for replication between the two H2 instances: snapshot the primary into the replica.
+    private void replicate() throws SQLException {
+        String script = tempDir.resolve("replica-sync.sql").toString().replace('\\', '/');
+        try (Connection primary = primaryDataSource.getConnection(); Statement statement = primary.createStatement()) {
+            statement.execute("SCRIPT TO '" + script + "'");
+        }
+        try (Connection replica = replicaDataSource.getConnection(); Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM '" + script + "'");
+        }
+    }
+}
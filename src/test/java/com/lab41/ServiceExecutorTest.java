@@ -0,0 +1,137 @@
+package com.lab41;
+
+import com.lab41.service.ServiceExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceExecutorTest {
+
+    private static final int POOL_SIZE = 4;
+
+    private ServiceExecutor serviceExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (serviceExecutor != null) {
+            serviceExecutor.close();
+        }
+    }
+
+    @Test
+    @DisplayName("direct: Should run forked tasks lazily in the caller's thread")
+    void direct_RunsInlineOnJoin() {
+        serviceExecutor = ServiceExecutor.direct();
+        AtomicInteger calls = new AtomicInteger();
+
+        ServiceExecutor.Forked<String> forked = serviceExecutor.fork(() -> {
+            calls.incrementAndGet();
+            return Thread.currentThread().getName();
+        });
+
+        assertEquals(0, calls.get());
+        assertEquals(Thread.currentThread().getName(), forked.join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("fork: Should rethrow the task's exception unwrapped on join")
+    void fork_TaskFails_RethrowsOriginalException() {
+        serviceExecutor = new ServiceExecutor(Executors.newFixedThreadPool(1), 1);
+
+        ServiceExecutor.Forked<Object> forked = serviceExecutor.fork(() -> {
+            throw new IllegalArgumentException("User with ID 1 not found.");
+        });
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, forked::join);
+        assertEquals("User with ID 1 not found.", thrown.getMessage());
+        assertEquals(1, serviceExecutor.availablePermits());
+    }
+
+    @Test
+    @DisplayName("fork: Should fall back to inline execution when all permits are taken")
+    void fork_NoPermits_RunsInline() throws InterruptedException {
+        serviceExecutor = new ServiceExecutor(Executors.newFixedThreadPool(1), 1);
+        CountDownLatch release = new CountDownLatch(1);
+        ServiceExecutor.Forked<Boolean> blocking = serviceExecutor.fork(() -> awaitQuietly(release));
+
+        ServiceExecutor.Forked<String> overflow = serviceExecutor.fork(() -> Thread.currentThread().getName());
+
+        assertEquals(Thread.currentThread().getName(), overflow.join());
+        release.countDown();
+        assertTrue(blocking.join());
+    }
+
+    @Test
+    @DisplayName("load: Should overlap lookups of concurrent callers while never exceeding the pool size")
+    void load_HigherConcurrencyAtSamePoolSize() throws InterruptedException {
+        int callers = 8;
+        long lookupMillis = 50;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Runnable lookup = () -> {
+            int now = inFlight.incrementAndGet();
+            peak.accumulateAndGet(now, Math::max);
+            sleepQuietly(lookupMillis);
+            inFlight.decrementAndGet();
+        };
+
+        long sequential = runCallers(ServiceExecutor.direct(), callers, lookup);
+        int sequentialPeak = peak.getAndSet(0);
+
+        serviceExecutor = new ServiceExecutor(Executors.newFixedThreadPool(POOL_SIZE), POOL_SIZE / 2);
+        long forked = runCallers(serviceExecutor, callers, lookup);
+
+        // Request threads are capped at the pool size in both runs; forks only add up to
+        // POOL_SIZE / 2 extra lookups in flight, yet the batch finishes in fewer round trips.
+        assertTrue(peak.get() > sequentialPeak, "forked mode should overlap more lookups");
+        assertTrue(forked < sequential, "forked " + forked + "ms should beat sequential " + sequential + "ms");
+    }
+
+    private long runCallers(ServiceExecutor executor, int callers, Runnable lookup) throws InterruptedException {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(POOL_SIZE);
+        long start = System.nanoTime();
+        List<Runnable> calls = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            calls.add(() -> {
+                ServiceExecutor.Forked<Boolean> second = executor.fork(() -> {
+                    lookup.run();
+                    return true;
+                });
+                lookup.run();
+                second.join();
+            });
+        }
+        calls.forEach(requestThreads::execute);
+        requestThreads.shutdown();
+        assertTrue(requestThreads.awaitTermination(10, TimeUnit.SECONDS));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
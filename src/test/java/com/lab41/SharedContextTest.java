@@ -0,0 +1,22 @@
+package com.lab41;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Integration tests that need nothing beyond the default configuration use this instead of their
+ * own {@code @SpringBootTest}, so they all run in one cached context against one in-memory
+ * database. They must not assume the database is empty or that they are its only writer.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:shared-it"
+})
+public @interface SharedContextTest {
+}
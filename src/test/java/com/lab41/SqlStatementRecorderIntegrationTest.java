@@ -0,0 +1,83 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.monitoring.CallerContext;
+import com.lab41.monitoring.SqlStatementRecorder;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.sql.slow-threshold=PT0S",
+        "spring.datasource.url=jdbc:h2:mem:sql-recorder-it"
+})
+public class SqlStatementRecorderIntegrationTest {
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("Statements should be charged to the calling service method with their row counts, and slow ones logged with parameters")
+    void statements_AreAttributedToServiceMethods(CapturedOutput output) {
+        recorder.report();
+        User author = TestUsers.create(userService, "sql");
+        for (int i = 0; i < 3; i++) {
+            postService.createPost(author.getUserId(), "recorded-" + i);
+        }
+        assertEquals(3, postService.getPostsByUser(author.getUserId()).size());
+
+        SqlStatementRecorder.CallerSnapshot reads = caller("PostService.getPostsByUser");
+        assertTrue(reads.statements() >= 1);
+        assertTrue(reads.rows() >= 3);
+        assertTrue(caller("PostService.createPost").rows() >= 3);
+        assertTrue(output.getOut().contains("from PostService.createPost"));
+        assertTrue(output.getOut().contains("recorded-2"));
+
+        recorder.report();
+        assertTrue(recorder.snapshot().isEmpty());
+        assertTrue(output.getOut().contains("SQL by calling method"));
+    }
+
+    @Test
+    @DisplayName("Closing one connection should leave the open result sets of another connection on the thread alone")
+    void closingConnection_FlushesOnlyItsOwnQueries() throws SQLException {
+        recorder.report();
+        try (Connection reading = dataSource.getConnection()) {
+            try (Statement statement = reading.createStatement();
+                 ResultSet rows = statement.executeQuery("select x from system_range(1, 3)")) {
+                assertTrue(rows.next());
+                dataSource.getConnection().close();
+                assertTrue(recorder.snapshot().isEmpty());
+                assertTrue(rows.next() && rows.next());
+            }
+        }
+        assertEquals(3, caller(CallerContext.UNATTRIBUTED).rows());
+    }
+
+    private SqlStatementRecorder.CallerSnapshot caller(String name) {
+        return recorder.snapshot().stream().filter(caller -> caller.caller().equals(name)).findFirst().orElseThrow();
+    }
+}
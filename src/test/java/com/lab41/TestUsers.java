@@ -0,0 +1,23 @@
+package com.lab41;
+
+import com.lab41.model.User;
+import com.lab41.service.UserService;
+
+import java.util.UUID;
+
+// Saves throwaway users for integration tests; names get a random suffix, so tests sharing a
+// database never collide on the unique username and email.
+final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    static User create(UserService userService, String prefix) {
+        String name = prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("hash");
+        return userService.saveUser(user);
+    }
+}
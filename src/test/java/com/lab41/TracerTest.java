@@ -0,0 +1,114 @@
+package com.lab41;
+
+import com.lab41.monitoring.tracing.BatchSpanProcessor;
+import com.lab41.monitoring.tracing.OtlpJsonFileExporter;
+import com.lab41.monitoring.tracing.Span;
+import com.lab41.monitoring.tracing.SpanKind;
+import com.lab41.monitoring.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracerTest {
+
+    private final List<Span> exported = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Children should join their root's trace and an unsampled root should record nothing below it")
+    void sampling_IsDecidedAtTheRoot() {
+        Tracer always = tracer(1.0, 0);
+        Span root = traced(always, "root", () -> traced(always, "child", () -> null));
+        always.flush();
+
+        assertEquals(List.of("child", "root"), exported.stream().map(Span::getName).toList());
+        Span child = exported.get(0);
+        assertEquals(root.getTraceId(), child.getTraceId());
+        assertEquals(root.getSpanId(), child.getParentSpanId());
+        assertNull(root.getParentSpanId());
+        assertNull(Tracer.currentSpan());
+
+        exported.clear();
+        Tracer never = tracer(0, 0);
+        Span unsampled = traced(never, "root", () -> traced(never, "child", () -> null));
+        never.flush();
+        assertFalse(unsampled.isRecording());
+        assertTrue(exported.isEmpty());
+        assertNull(Tracer.currentSpan());
+    }
+
+    @Test
+    @DisplayName("Sampled roots should be capped per second and a disabled tracer should record nothing")
+    void sampling_IsRateLimited() {
+        Tracer capped = tracer(1.0, 3);
+        for (int i = 0; i < 10; i++) {
+            traced(capped, "root", () -> null);
+        }
+        capped.flush();
+        assertTrue(exported.size() <= 6 && exported.size() >= 3, "exported " + exported.size());
+
+        Tracer disabled = Tracer.disabled();
+        assertFalse(traced(disabled, "root", () -> null).isRecording());
+    }
+
+    @Test
+    @DisplayName("A finished operation recorded as a child should carry its attributes and timing")
+    void recordChild_AddsFinishedSpan() {
+        Tracer tracer = tracer(1.0, 0);
+        Span root = traced(tracer, "root", () -> {
+            Span current = Tracer.currentSpan();
+            long start = tracer.nowEpochNanos();
+            tracer.recordChild(current, "SQL", SpanKind.CLIENT, start, 5_000, Map.of("db.rows", 2L));
+            return null;
+        });
+        tracer.flush();
+
+        Span sql = exported.get(0);
+        assertEquals(root.getSpanId(), sql.getParentSpanId());
+        assertEquals(5_000, sql.getEndEpochNanos() - sql.getStartEpochNanos());
+        assertEquals(2L, sql.getAttributes().get("db.rows"));
+    }
+
+    @Test
+    @DisplayName("The span file should be rotated once it would grow past its size cap")
+    void fileExporter_RotatesAtMaxSize(@TempDir Path dir) throws Exception {
+        Tracer tracer = tracer(1.0, 0);
+        traced(tracer, "root", () -> null);
+        tracer.flush();
+        Path file = dir.resolve("spans.jsonl");
+        OtlpJsonFileExporter exporter = new OtlpJsonFileExporter(file, "test", 1024);
+
+        for (int i = 0; i < 20; i++) {
+            exporter.export(exported);
+        }
+
+        Path rotated = dir.resolve("spans.jsonl.1");
+        assertTrue(Files.exists(rotated));
+        assertTrue(Files.size(file) <= 1024, Files.size(file) + " bytes");
+        assertTrue(Files.size(rotated) <= 1024, Files.size(rotated) + " bytes");
+        assertTrue(Files.readAllLines(file).stream().allMatch(line -> line.startsWith("{\"resourceSpans\"")));
+    }
+
+    private Tracer tracer(double ratio, int maxPerSecond) {
+        return new Tracer(ratio, maxPerSecond, new BatchSpanProcessor(exported::addAll, 100, 10, Duration.ofHours(1)));
+    }
+
+    private static Span traced(Tracer tracer, String name, java.util.function.Supplier<Object> body) {
+        Span previous = Tracer.currentSpan();
+        Span span = tracer.start(name, SpanKind.INTERNAL);
+        try {
+            body.get();
+        } finally {
+            tracer.end(span, previous);
+        }
+        return span;
+    }
+}
@@ -0,0 +1,107 @@
+package com.lab41;
+
+import com.jayway.jsonpath.JsonPath;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.monitoring.tracing.Tracer;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.metrics.enabled=false",
+        "lab41.tracing.enabled=true",
+        "lab41.tracing.sample-ratio=1.0",
+        "lab41.tracing.max-traces-per-second=0",
+        "spring.datasource.url=jdbc:h2:mem:tracing-it"
+})
+public class TracingIntegrationTest {
+    private static final Path SPANS = tempFile();
+
+    @DynamicPropertySource
+    static void spanFile(DynamicPropertyRegistry registry) {
+        registry.add("lab41.tracing.file", SPANS::toString);
+    }
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private Tracer tracer;
+
+    @Test
+    @DisplayName("A service call should export one trace with repository and SQL spans below it, carrying ids and rows")
+    void serviceCall_ExportsNestedSpans() throws IOException {
+        User author = TestUsers.create(userService, "traced");
+        tracer.flush();
+        Files.writeString(SPANS, "");
+
+        Post post = postService.createPost(author.getUserId(), "traced");
+        tracer.flush();
+
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(SPANS)) {
+            spans.addAll(JsonPath.read(line, "$.resourceSpans[*].scopeSpans[*].spans[*]"));
+        }
+        Map<String, Object> root = span(spans, "PostService.createPost");
+        assertNull(root.get("parentSpanId"));
+        assertEquals(String.valueOf(author.getUserId()), attribute(root, "lab41.userId"));
+        assertTrue(spans.stream().allMatch(span -> span.get("traceId").equals(root.get("traceId"))));
+
+        Map<String, Object> save = span(spans, "PostRepository.save");
+        assertEquals(root.get("spanId"), save.get("parentSpanId"));
+        assertTrue(spans.stream().anyMatch(span -> span.get("name").equals("SQL")
+                && span.get("parentSpanId").equals(save.get("spanId"))
+                && String.valueOf(attribute(span, "db.statement")).toLowerCase().startsWith("insert into posts")));
+
+        postService.getPostSummariesByUser(author.getUserId(), 0, 10);
+        tracer.flush();
+        List<Object> rows = JsonPath.read(String.join("\n", Files.readAllLines(SPANS)).lines()
+                .reduce((first, last) -> last).orElseThrow(),
+                "$..spans[?(@.name == 'PostService.getPostSummariesByUser')].attributes[?(@.key == 'lab41.rows')].value.intValue");
+        assertEquals(List.of("1"), rows);
+        assertNotNull(post.getPostId());
+    }
+
+    private static Map<String, Object> span(List<Map<String, Object>> spans, String name) {
+        return spans.stream().filter(span -> span.get("name").equals(name)).findFirst().orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object attribute(Map<String, Object> span, String key) {
+        for (Map<String, Object> attribute : (List<Map<String, Object>>) span.get("attributes")) {
+            if (attribute.get("key").equals(key)) {
+                Map<String, Object> value = (Map<String, Object>) attribute.get("value");
+                return value.values().iterator().next();
+            }
+        }
+        return null;
+    }
+
+    private static Path tempFile() {
+        try {
+            Path file = Files.createTempFile("lab41-spans", ".jsonl");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.lab41;
+
+import com.lab41.dto.TrendingPost;
+import com.lab41.model.OutboxEvent;
+import com.lab41.model.OutboxEventType;
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.repository.CommentRepository;
+import com.lab41.repository.LikeRepository;
+import com.lab41.service.OutboxPoller;
+import com.lab41.service.PostService;
+import com.lab41.service.TrendingService;
+import com.lab41.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SharedContextTest
+public class TrendingIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TrendingService trendingService;
+    @Autowired
+    private OutboxPoller outboxPoller;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<User> fans;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = TestUsers.create(userService, "author");
+        fans = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            fans.add(TestUsers.create(userService, "fan"));
+        }
+    }
+
+    @Test
+    @DisplayName("Likes and comments delivered through the outbox should rank posts, and deleted posts should drop out")
+    void trending_FollowsActivity() {
+        Post quiet = postService.createPost(author.getUserId(), "quiet");
+        Post liked = postService.createPost(author.getUserId(), "liked");
+        Post discussed = postService.createPost(author.getUserId(), "discussed");
+        postService.addLikeToPost(quiet.getPostId(), fans.get(0).getUserId());
+        for (int i = 0; i < 3; i++) {
+            postService.addLikeToPost(liked.getPostId(), fans.get(i).getUserId());
+        }
+        for (int i = 0; i < 2; i++) {
+            postService.addCommentToPost(discussed.getPostId(), fans.get(i).getUserId(), "comment " + i);
+        }
+        drainOutbox();
+
+        List<Long> order = ids(trendingService.getTrending(Duration.ofHours(1), 100)).stream()
+                .filter(List.of(quiet.getPostId(), liked.getPostId(), discussed.getPostId())::contains).toList();
+        assertEquals(List.of(discussed.getPostId(), liked.getPostId(), quiet.getPostId()), order);
+
+        postService.deletePost(discussed.getPostId());
+        postService.removeLikeFromPost(quiet.getPostId(), fans.get(0).getUserId());
+        drainOutbox();
+
+        List<Long> after = ids(trendingService.getTrending(100));
+        assertFalse(after.contains(discussed.getPostId()));
+        assertFalse(after.contains(quiet.getPostId()));
+        assertTrue(after.contains(liked.getPostId()));
+        assertThrows(IllegalArgumentException.class, () -> trendingService.getTrending(Duration.ofMinutes(7), 10));
+    }
+
+    @Test
+    @DisplayName("A fresh instance should rebuild its scores from recent likes and comments")
+    void rebuild_FromDatabase() {
+        Post post = postService.createPost(author.getUserId(), "rebuilt");
+        postService.addLikeToPost(post.getPostId(), fans.get(0).getUserId());
+        postService.addCommentToPost(post.getPostId(), fans.get(1).getUserId(), "hi");
+
+        TrendingService fresh = new TrendingService(likeRepository, commentRepository, transactionManager,
+                new Duration[]{Duration.ofDays(1)}, Duration.ofDays(1), 1000, 1.0, 2.0, 0.01, Duration.ofDays(7));
+        fresh.rebuild();
+
+        TrendingPost top = fresh.getTrending(1000).stream()
+                .filter(trending -> trending.postId().equals(post.getPostId())).findFirst().orElseThrow();
+        assertEquals(3.0, top.score(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Removing an old like should take back its decayed score, not a fresh like's")
+    void likeRemoved_SubtractsAtLikeTime() {
+        TrendingService board = new TrendingService(likeRepository, commentRepository, transactionManager,
+                new Duration[]{Duration.ofHours(1)}, Duration.ofHours(1), 1000, 1.0, 2.0, 0.01, Duration.ofDays(7));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dayAgo = now.minusDays(1);
+        board.handle(event(OutboxEventType.LIKE_ADDED, dayAgo, null));
+        board.handle(event(OutboxEventType.LIKE_ADDED, now, null));
+        board.handle(event(OutboxEventType.LIKE_REMOVED, now, dayAgo));
+
+        TrendingPost top = board.getTrending(1).get(0);
+        assertEquals(1.0, top.score(), 0.01);
+    }
+
+    private static OutboxEvent event(OutboxEventType type, LocalDateTime createdAt, LocalDateTime subjectCreatedAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateId(1L);
+        event.setTargetId(42L);
+        event.setCreatedAt(createdAt);
+        event.setSubjectCreatedAt(subjectCreatedAt);
+        return event;
+    }
+
+    private void drainOutbox() {
+        while (outboxPoller.pollOnce() > 0) {
+            // keep polling until the outbox is empty
+        }
+    }
+
+    private static List<Long> ids(List<TrendingPost> posts) {
+        return posts.stream().map(TrendingPost::postId).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.lab41;
+
+import com.lab41.model.InteractionSketch;
+import com.lab41.model.Post;
+import com.lab41.model.SketchScope;
+import com.lab41.model.User;
+import com.lab41.repository.InteractionSketchRepository;
+import com.lab41.service.PostService;
+import com.lab41.service.UniqueInteractionService;
+import com.lab41.service.UserService;
+import com.lab41.sketch.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.unique.retention=P30D",
+        "spring.datasource.url=jdbc:h2:mem:unique-interactions-it"
+})
+public class UniqueInteractionIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UniqueInteractionService uniqueInteractionService;
+    @Autowired
+    private InteractionSketchRepository sketchRepository;
+
+    private User author;
+    private List<User> readers;
+
+    @BeforeEach
+    void setUp() {
+        author = TestUsers.create(userService, "author");
+        readers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            readers.add(TestUsers.create(userService, "reader"));
+        }
+    }
+
+    @Test
+    @DisplayName("Likes, comments and views by the same users should count once per post and per author")
+    void interactions_CountDistinctUsers() {
+        Post first = postService.createPost(author.getUserId(), "first");
+        Post second = postService.createPost(author.getUserId(), "second");
+        for (User reader : readers.subList(0, 4)) {
+            postService.viewPost(first.getPostId(), reader.getUserId());
+            postService.addLikeToPost(first.getPostId(), reader.getUserId());
+        }
+        postService.addCommentToPost(first.getPostId(), readers.get(0).getUserId(), "again");
+        postService.addCommentToPost(second.getPostId(), readers.get(5).getUserId(), "other");
+        postService.viewPost(second.getPostId(), author.getUserId());
+
+        Duration week = Duration.ofDays(7);
+        assertEquals(4, postService.countUniqueInteractors(first.getPostId(), week));
+        assertEquals(1, postService.countUniqueInteractors(second.getPostId(), week));
+        assertEquals(5, postService.countUniqueAudience(author.getUserId(), week));
+
+        assertTrue(uniqueInteractionService.flush() >= 3);
+        postService.viewPost(second.getPostId(), readers.get(0).getUserId());
+        assertEquals(4, postService.countUniqueInteractors(first.getPostId(), week));
+        assertEquals(2, postService.countUniqueInteractors(second.getPostId(), week));
+        assertEquals(5, postService.countUniqueAudience(author.getUserId(), week));
+
+        uniqueInteractionService.flush();
+        assertEquals(5, postService.countUniqueAudience(author.getUserId(), week));
+        assertTrue(sketchRepository.findDays(SketchScope.AUTHOR, author.getUserId(), LocalDate.now(), LocalDate.now())
+                .get(0).getRegisters().length < 32);
+    }
+
+    @Test
+    @DisplayName("Windows should merge earlier days, and days past the retention should be dropped on flush")
+    void window_MergesDaysAndExpires() {
+        Post post = postService.createPost(author.getUserId(), "post");
+        Long postId = post.getPostId();
+        // ids far above the generated ones stand in for readers seen on earlier days
+        store(postId, LocalDate.now().minusDays(3), 1_000_001L, 1_000_002L, 1_000_003L);
+        store(postId, LocalDate.now().minusDays(10), 1_000_003L, 1_000_004L);
+        store(postId, LocalDate.now().minusDays(40), 1_000_005L);
+        postService.viewPost(postId, 1_000_002L);
+        postService.viewPost(postId, readers.get(0).getUserId());
+
+        assertEquals(2, postService.countUniqueInteractors(postId, Duration.ofDays(1)));
+        assertEquals(4, postService.countUniqueInteractors(postId, Duration.ofDays(7)));
+        assertEquals(5, postService.countUniqueInteractors(postId, Duration.ofDays(30)));
+        assertThrows(IllegalArgumentException.class, () -> postService.countUniqueInteractors(postId, Duration.ofDays(60)));
+
+        uniqueInteractionService.flush();
+        assertTrue(sketchRepository.findDays(SketchScope.POST, postId, LocalDate.now().minusDays(60), LocalDate.now().minusDays(31)).isEmpty());
+        assertEquals(5, postService.countUniqueInteractors(postId, Duration.ofDays(30)));
+    }
+
+    private void store(Long postId, LocalDate day, long... userIds) {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (long userId : userIds) {
+            sketch.add(userId);
+        }
+        InteractionSketch stored = new InteractionSketch();
+        stored.setScope(SketchScope.POST);
+        stored.setEntityId(postId);
+        stored.setDay(day);
+        stored.setRegisters(sketch.toBytes());
+        sketchRepository.save(stored);
+    }
+}
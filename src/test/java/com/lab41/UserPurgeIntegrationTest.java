@@ -0,0 +1,115 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.service.PostService;
+import com.lab41.service.UserPurgeService;
+import com.lab41.service.UserService;
+import com.lab41.service.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {
+        "lab41.scheduling.enabled=false",
+        "lab41.purge.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:user-purge-it"
+})
+public class UserPurgeIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserPurgeService userPurgeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    private UserStatsService userStatsService;
+
+    private User doomed;
+    private User other;
+    private Post otherPost;
+
+    @BeforeEach
+    void setUp() {
+        doomed = TestUsers.create(userService, "doomed");
+        other = TestUsers.create(userService, "other");
+        for (int i = 0; i < 5; i++) {
+            Post post = postService.createPost(doomed.getUserId(), "doomed post " + i);
+            postService.addCommentToPost(post.getPostId(), other.getUserId(), "reply " + i);
+            postService.addLikeToPost(post.getPostId(), other.getUserId());
+        }
+        otherPost = postService.createPost(other.getUserId(), "other post");
+        for (int i = 0; i < 3; i++) {
+            postService.addCommentToPost(otherPost.getPostId(), doomed.getUserId(), "doomed comment " + i);
+        }
+        postService.addCommentToPost(otherPost.getPostId(), other.getUserId(), "kept comment");
+        postService.addLikeToPost(otherPost.getPostId(), doomed.getUserId());
+        userService.sendFriendRequest(doomed, other);
+    }
+
+    @Test
+    @DisplayName("deleteUser: Should remove everything involving the user and fix counts on surviving posts")
+    void deleteUser_RemovesDependentRowsSetBased() {
+        userService.deleteUser(doomed.getUserId());
+
+        assertNothingLeftFor(doomed.getUserId());
+        Post survivor = postService.getPostById(otherPost.getPostId()).orElseThrow();
+        assertEquals(1, survivor.getCommentCount());
+        assertEquals(1, postService.getCommentsByPost(otherPost.getPostId()).size());
+        assertTrue(postService.getLikesByPost(otherPost.getPostId()).isEmpty());
+        assertTrue(userService.findById(other.getUserId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("requestUserDeletion: Should hide the user at once and let the purge job remove the data in chunks")
+    void requestUserDeletion_ThenPurgeJob() {
+        userService.requestUserDeletion(doomed.getUserId());
+
+        assertTrue(userService.findById(doomed.getUserId()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> postService.createPost(doomed.getUserId(), "too late"));
+        assertEquals(5, count("select count(*) from posts where user_id = ?", doomed.getUserId()));
+
+        userPurgeService.purgeDeletedUsers();
+
+        assertNothingLeftFor(doomed.getUserId());
+        assertEquals(1, postService.getPostById(otherPost.getPostId()).orElseThrow().getCommentCount());
+    }
+
+    @Test
+    @DisplayName("purgeDeletedUsers: A user whose purge fails should not block the users deleted after them")
+    void purgeDeletedUsers_FailingUser_DoesNotBlockOthers() {
+        User later = TestUsers.create(userService, "later");
+        postService.createPost(later.getUserId(), "later post");
+        userService.requestUserDeletion(doomed.getUserId());
+        userService.requestUserDeletion(later.getUserId());
+        doThrow(new IllegalStateException("Simulated purge failure"))
+                .when(userStatsService).beforeUserDeleted(doomed.getUserId());
+
+        assertDoesNotThrow(() -> userPurgeService.purgeDeletedUsers());
+
+        assertNothingLeftFor(later.getUserId());
+        assertEquals(1, count("select count(*) from users where user_id = ?", doomed.getUserId()));
+    }
+
+    private void assertNothingLeftFor(Long userId) {
+        assertEquals(0, count("select count(*) from users where user_id = ?", userId));
+        assertEquals(0, count("select count(*) from posts where user_id = ?", userId));
+        assertEquals(0, count("select count(*) from comments where user_id = ?", userId));
+        assertEquals(0, count("select count(*) from likes where user_id = ?", userId));
+        assertEquals(0, count("select count(*) from friends where user_id = ? or friend_id = ?", userId, userId));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
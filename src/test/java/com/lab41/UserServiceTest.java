@@ -3,10 +3,15 @@ package com.lab41;
 
 import com.lab41.model.Friend;
 import com.lab41.model.FriendStatus;
+import com.lab41.model.OutboxEventType;
 import com.lab41.model.User;
+import com.lab41.model.UserStats;
 import com.lab41.repository.FriendRepository;
 import com.lab41.repository.UserRepository;
+import com.lab41.service.OutboxService;
+import com.lab41.service.UserPurgeService;
 import com.lab41.service.UserService;
+import com.lab41.service.UserStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -32,6 +37,14 @@ public class UserServiceTest {
     @Mock
     private FriendRepository friendRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private UserPurgeService userPurgeService;
+    @Mock
+    private UserStatsService userStatsService;
+
     @InjectMocks
     private UserService userService;
 
@@ -159,7 +172,43 @@ public class UserServiceTest {
 
         userService.deleteUser(1L);
 
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(userPurgeService, times(1)).purge(1L);
+        verify(userRepository, never()).deleteById(anyLong());
+        verify(outboxService, times(1)).record(OutboxEventType.USER_DELETED, 1L, 1L, null);
+    }
+
+    @Test
+    @DisplayName("requestUserDeletion: Should soft-delete the user and leave the purge to the background job")
+    void requestUserDeletion_UserExists_MarksDeleted() {
+        when(userRepository.markDeleted(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        userService.requestUserDeletion(1L);
+
+        verify(userRepository, times(1)).markDeleted(eq(1L), any(LocalDateTime.class));
+        verifyNoInteractions(userPurgeService);
+        verify(outboxService, times(1)).record(OutboxEventType.USER_DELETED, 1L, 1L, null);
+    }
+
+    @Test
+    @DisplayName("requestUserDeletion: Should throw IllegalArgumentException for unknown or already deleted user")
+    void requestUserDeletion_UserNotFound_ThrowsException() {
+        when(userRepository.markDeleted(eq(99L), any(LocalDateTime.class))).thenReturn(0);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+            userService.requestUserDeletion(99L);
+        });
+
+        assertEquals("User with ID 99 not found.", thrown.getMessage());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    @DisplayName("findById: Should hide a soft-deleted user")
+    void findById_SoftDeletedUser_ReturnsEmpty() {
+        testUser.setDeletedAt(LocalDateTime.now());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        assertTrue(userService.findById(1L).isEmpty());
     }
 
     @Test
@@ -277,6 +326,8 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findById(friendUser.getUserId());
         verify(friendRepository, times(1)).findByUserAndFriendAndStatus(testUser, friendUser, FriendStatus.PENDING);
         verify(friendRepository, times(1)).save(any(Friend.class));
+        verify(outboxService, times(1)).record(OutboxEventType.FRIEND_REQUEST_ACCEPTED,
+                testUser.getUserId(), friendUser.getUserId(), friendUser.getUserId());
     }
 
     @Test
@@ -434,6 +485,7 @@ public class UserServiceTest {
         verify(friendRepository, times(1)).findByUserAndFriendAndStatus(testUser, friendUser, FriendStatus.ACCEPTED);
         verify(friendRepository, times(1)).findByUserAndFriendAndStatus(friendUser, testUser, FriendStatus.ACCEPTED);
         verify(friendRepository, times(1)).delete(acceptedFriendship1); // Verify deletion of the found friendship
+        verify(userStatsService, times(1)).adjustFriendship(testUser.getUserId(), friendUser.getUserId(), -1);
     }
 
     @Test
@@ -479,6 +531,19 @@ public class UserServiceTest {
         verify(friendRepository, times(1)).findByUserAndFriendAndStatus(testUser, friendUser, FriendStatus.ACCEPTED);
         verify(friendRepository, times(1)).findByUserAndFriendAndStatus(friendUser, testUser, FriendStatus.ACCEPTED);
         verify(friendRepository, never()).delete(any(Friend.class));
+        verify(userStatsService, never()).adjustFriendship(any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("getStats: Should return the user's stats row and reject unknown users")
+    void getStats_ReturnsRowOrThrows() {
+        UserStats stats = new UserStats(testUser.getUserId(), 3, 10, 2, 7);
+        when(userStatsService.getStats(testUser.getUserId())).thenReturn(Optional.of(stats));
+        when(userStatsService.getStats(99L)).thenReturn(Optional.empty());
+
+        assertSame(stats, userService.getStats(testUser.getUserId()));
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> userService.getStats(99L));
+        assertEquals("User with ID 99 not found.", thrown.getMessage());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.lab41;
+
+import com.lab41.model.Post;
+import com.lab41.model.User;
+import com.lab41.model.UserStats;
+import com.lab41.repository.UserStatsRepository;
+import com.lab41.service.PostService;
+import com.lab41.service.UserService;
+import com.lab41.service.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SharedContextTest
+public class UserStatsIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserStatsService userStatsService;
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        alice = TestUsers.create(userService, "alice");
+        bob = TestUsers.create(userService, "bob");
+        carol = TestUsers.create(userService, "carol");
+    }
+
+    @Test
+    @DisplayName("Service mutations should keep every counter in step, including bulk deletes and purges")
+    void mutations_MaintainStats() {
+        Post first = postService.createPost(alice.getUserId(), "first");
+        Post second = postService.createPost(alice.getUserId(), "second");
+        postService.createPost(bob.getUserId(), "bob's");
+        postService.addLikeToPost(first.getPostId(), bob.getUserId());
+        postService.addLikeToPost(first.getPostId(), carol.getUserId());
+        postService.addLikeToPost(second.getPostId(), bob.getUserId());
+        postService.removeLikeFromPost(second.getPostId(), bob.getUserId());
+        postService.addCommentToPost(first.getPostId(), bob.getUserId(), "nice");
+        Long removed = postService.addCommentToPost(first.getPostId(), bob.getUserId(), "oops").getCommentId();
+        postService.addCommentToPost(second.getPostId(), carol.getUserId(), "hi");
+        postService.deleteComment(removed);
+        userService.sendFriendRequest(alice, bob);
+        userService.acceptFriendRequest(alice.getUserId(), bob.getUserId());
+        userService.sendFriendRequest(carol, alice);
+        userService.acceptFriendRequest(carol.getUserId(), alice.getUserId());
+
+        assertStats(alice, 2, 2, 2, 0);
+        assertStats(bob, 1, 0, 1, 1);
+        assertStats(carol, 0, 0, 1, 1);
+
+        postService.deletePosts(List.of(first.getPostId(), second.getPostId()));
+        assertStats(alice, 0, 0, 2, 0);
+        assertStats(bob, 1, 0, 1, 0);
+        assertStats(carol, 0, 0, 1, 0);
+
+        Post third = postService.createPost(alice.getUserId(), "third");
+        postService.addLikeToPost(third.getPostId(), carol.getUserId());
+        postService.addCommentToPost(third.getPostId(), bob.getUserId(), "again");
+        userService.deleteUser(carol.getUserId());
+        assertStats(alice, 1, 0, 1, 0);
+        assertStats(bob, 1, 0, 1, 1);
+        assertFalse(userStatsRepository.existsById(carol.getUserId()));
+        assertThrows(IllegalArgumentException.class, () -> userService.getStats(carol.getUserId()));
+
+        assertEquals(0, userStatsService.reconcile());
+    }
+
+    @Test
+    @DisplayName("Reconciliation should correct drifted rows and create missing ones; reads compute missing rows")
+    void reconcile_FixesDriftAndMissingRows() {
+        Post post = postService.createPost(alice.getUserId(), "post");
+        postService.addLikeToPost(post.getPostId(), bob.getUserId());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userStatsRepository.adjust(alice.getUserId(), 5, -1, 3, 2);
+            userStatsRepository.deleteByUserId(bob.getUserId());
+        });
+
+        Map<Long, UserStats> beforeFix = userService.getStats(List.of(bob.getUserId(), -1L, alice.getUserId()));
+        assertEquals(List.of(bob.getUserId(), alice.getUserId()), List.copyOf(beforeFix.keySet()));
+        assertEquals(0, beforeFix.get(bob.getUserId()).getPostCount());
+        assertEquals(6, beforeFix.get(alice.getUserId()).getPostCount());
+
+        assertTrue(userStatsService.reconcile() >= 2);
+        assertStats(alice, 1, 1, 0, 0);
+        assertTrue(userStatsRepository.existsById(bob.getUserId()));
+        assertStats(bob, 0, 0, 0, 0);
+    }
+
+    private void assertStats(User user, long posts, long likesReceived, long friends, long comments) {
+        UserStats stats = userService.getStats(user.getUserId());
+        assertEquals(List.of(posts, likesReceived, friends, comments),
+                List.of(stats.getPostCount(), stats.getLikesReceived(), stats.getFriendCount(), stats.getCommentCount()),
+                user.getUsername());
+    }
+}